@@ -0,0 +1,253 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import uk.co.iotacist.logman.appender.Appender;
+
+/**
+ * The <code>AppenderRegistry</code> class holds the shared appenders, each one
+ * is registered once under a name and counts the references held to it. Every
+ * logger which has a registered appender holds a reference, as does every
+ * caller of <code>acquire</code>. Once the last reference is released the
+ * appender is removed from the registry and closed if it is
+ * <code>Closeable</code>.
+ * 
+ * The global logger holds the <code>STDOUT</code> appender, which every other
+ * logger reaches through additivity instead of writing to the standard output
+ * through an appender of its own.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public final class AppenderRegistry {
+	/**
+	 * The name of the shared standard output appender.
+	 */
+	public static final String STDOUT = "stdout";
+
+	/*
+	 * Guards the registry maps.
+	 */
+	private static final Object REGISTRY = new Object();
+
+	/*
+	 * The registered appenders by name.
+	 */
+	private static final Map<String, Entry> NAMES = new HashMap<String, Entry>();
+
+	/*
+	 * The registered appenders by identity.
+	 */
+	private static final Map<Appender, Entry> APPENDERS = new IdentityHashMap<Appender, Entry>();
+
+	/*
+	 * Instances of this class may not be made.
+	 */
+	private AppenderRegistry() {
+	}
+
+	/**
+	 * Registers an appender under the specified name without taking a reference,
+	 * if the name is already registered the registered appender is kept. If the
+	 * name or appender is null nothing is registered.
+	 * 
+	 * @param name     - Appender name.
+	 * 
+	 * @param appender - Appender instance.
+	 * 
+	 * @return The appender registered under the name, or <code>null</code>.
+	 */
+	public static Appender register(String name, Appender appender) {
+		if (name == null || appender == null) {
+			return null;
+		}
+		synchronized (REGISTRY) {
+			Entry entry = NAMES.get(name);
+			if (entry == null) {
+				entry = APPENDERS.get(appender);
+				if (entry == null) {
+					entry = new Entry(name, appender);
+					APPENDERS.put(appender, entry);
+					NAMES.put(name, entry);
+				}
+			}
+			return entry.appender;
+		}
+	}
+
+	/**
+	 * Returns the appender registered under the specified name.
+	 * 
+	 * @param name - Appender name.
+	 * 
+	 * @return Appender instance, or <code>null</code>.
+	 */
+	public static Appender get(String name) {
+		synchronized (REGISTRY) {
+			Entry entry = NAMES.get(name);
+			return entry != null ? entry.appender : null;
+		}
+	}
+
+	/**
+	 * Returns the name the specified appender is registered under.
+	 * 
+	 * @param appender - Appender instance.
+	 * 
+	 * @return Appender name, or <code>null</code> if it is not registered.
+	 */
+	public static String getName(Appender appender) {
+		synchronized (REGISTRY) {
+			Entry entry = APPENDERS.get(appender);
+			return entry != null ? entry.name : null;
+		}
+	}
+
+	/**
+	 * Returns the names of the registered appenders.
+	 * 
+	 * @return Sorted copy of the names.
+	 */
+	public static Set<String> getNames() {
+		synchronized (REGISTRY) {
+			return new TreeSet<String>(NAMES.keySet());
+		}
+	}
+
+	/**
+	 * Returns the number of references held to the appender registered under the
+	 * specified name.
+	 * 
+	 * @param name - Appender name.
+	 * 
+	 * @return Reference count, 0 if the name is not registered.
+	 */
+	public static int getReferenceCount(String name) {
+		synchronized (REGISTRY) {
+			Entry entry = NAMES.get(name);
+			return entry != null ? entry.references : 0;
+		}
+	}
+
+	/**
+	 * Takes a reference to the appender registered under the specified name, it
+	 * must be given back with <code>release</code>.
+	 * 
+	 * @param name - Appender name.
+	 * 
+	 * @return Appender instance, or <code>null</code> if the name is not
+	 *         registered.
+	 */
+	public static Appender acquire(String name) {
+		synchronized (REGISTRY) {
+			Entry entry = NAMES.get(name);
+			if (entry == null) {
+				return null;
+			}
+			entry.references++;
+			return entry.appender;
+		}
+	}
+
+	/**
+	 * Takes a reference to the specified appender if it is registered.
+	 * 
+	 * @param appender - Appender instance.
+	 * 
+	 * @return <code>true</code> if the appender is registered,
+	 *         <code>false</code> otherwise.
+	 */
+	public static boolean retain(Appender appender) {
+		synchronized (REGISTRY) {
+			Entry entry = APPENDERS.get(appender);
+			if (entry == null) {
+				return false;
+			}
+			entry.references++;
+			return true;
+		}
+	}
+
+	/**
+	 * Gives back a reference to the specified appender if it is registered, the
+	 * last reference removes the appender from the registry and closes it.
+	 * 
+	 * @param appender - Appender instance.
+	 * 
+	 * @return <code>true</code> if the appender was removed, <code>false</code>
+	 *         otherwise.
+	 */
+	public static boolean release(Appender appender) {
+		synchronized (REGISTRY) {
+			Entry entry = APPENDERS.get(appender);
+			if (entry == null || --entry.references > 0) {
+				return false;
+			}
+			APPENDERS.remove(appender);
+			NAMES.remove(entry.name);
+		}
+		/*
+		 * Close outside the lock, closing may wait for queued events.
+		 */
+		if (appender instanceof Closeable) {
+			try {
+				((Closeable) appender).close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		return true;
+	}
+
+	/*
+	 * The Entry class is a registered appender and its reference count.
+	 */
+	private static final class Entry {
+		/*
+		 * The appender name.
+		 */
+		final String name;
+
+		/*
+		 * The appender instance.
+		 */
+		final Appender appender;
+
+		/*
+		 * The number of references held.
+		 */
+		int references;
+
+		/*
+		 * Constructs a new entry without references.
+		 */
+		Entry(String name, Appender appender) {
+			this.name = name;
+			this.appender = appender;
+		}
+	}
+}
\ No newline at end of file
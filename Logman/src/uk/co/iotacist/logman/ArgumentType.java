@@ -0,0 +1,60 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman;
+
+/**
+ * The <code>ArgumentType</code> enum defines how a template argument is held
+ * by a <code>Log</code>. Arguments logged through the primitive overloads of
+ * the <code>Logger</code> are held without boxing and read through the
+ * primitive getters of the <code>Log</code>.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public enum ArgumentType {
+	/**
+	 * The <code>OBJECT</code> type holds the argument as an object, read it with
+	 * <code>getArgument</code>.
+	 */
+	OBJECT,
+
+	/**
+	 * The <code>LONG</code> type holds a <code>long</code>, or a narrower integer
+	 * widened to one, read it with <code>getLongArgument</code>.
+	 */
+	LONG,
+
+	/**
+	 * The <code>DOUBLE</code> type holds a <code>double</code>, read it with
+	 * <code>getDoubleArgument</code>.
+	 */
+	DOUBLE,
+
+	/**
+	 * The <code>FLOAT</code> type holds a <code>float</code>, read it with
+	 * <code>getDoubleArgument</code>.
+	 */
+	FLOAT,
+
+	/**
+	 * The <code>CHAR</code> type holds a <code>char</code>, read its code with
+	 * <code>getLongArgument</code>.
+	 */
+	CHAR;
+}
\ No newline at end of file
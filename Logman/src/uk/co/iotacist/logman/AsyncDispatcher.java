@@ -0,0 +1,534 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The <code>AsyncDispatcher</code> class moves formatting and appending off the
+ * logging thread, a <code>Logger</code> using a dispatcher publishes each
+ * accepted <code>Log</code> into a bounded ring buffer and a dedicated consumer
+ * thread passes it to the appenders.
+ * 
+ * The ring buffer is preallocated and lock-free, any number of producers claim
+ * slots with a compare and set on the tail sequence while the single consumer
+ * owns the head. Each slot carries its own sequence number which tells
+ * producers and the consumer whether the slot is free or filled.
+ * 
+ * The consumer thread runs between <code>start</code> and <code>stop</code>,
+ * <code>Logger.setAsyncDispatcher</code> starts it. While the dispatcher is not
+ * running, events are appended on the publishing thread instead, so a
+ * dispatcher which was never started or has been stopped can neither fill up
+ * nor block its producers. Events published while the dispatcher stops are
+ * appended by the publishing thread once the consumer has finished.
+ * 
+ * The consumer is a daemon thread, a running dispatcher is stopped by a
+ * shutdown hook so the events left in the ring buffer are appended before the
+ * JVM exits. An error thrown by an appender is printed and the consumer goes
+ * on, should the consumer thread die anyway the dispatcher stops and its
+ * producers append on their own threads.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class AsyncDispatcher implements Runnable {
+	/*
+	 * The time a parked thread waits before checking the ring buffer again.
+	 */
+	private static final long PARK_NANOS = 1000000L;
+
+	/*
+	 * The time a blocked producer waits before checking the ring buffer again.
+	 */
+	private static final long PRODUCER_PARK_NANOS = 100000L;
+
+	/*
+	 * The ring buffer slots.
+	 */
+	private final Log[] buffer;
+
+	/*
+	 * The reusable log owned by each slot, reusable events are copied into these
+	 * so garbage-free logging stays free of allocation across the hand off.
+	 */
+	private final Log[] slots;
+
+	/*
+	 * The slot sequences, a slot is free for the producer at position p when its
+	 * sequence is p and filled for the consumer when its sequence is p + 1.
+	 */
+	private final AtomicLongArray sequences;
+
+	/*
+	 * The slot index mask.
+	 */
+	private final int mask;
+
+	/*
+	 * The next position a producer will claim.
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	/*
+	 * The next position the consumer will read.
+	 */
+	private final AtomicLong head = new AtomicLong();
+
+	/*
+	 * The number of dropped events.
+	 */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/*
+	 * The highest fill level seen by a producer.
+	 */
+	private final AtomicLong peak = new AtomicLong();
+
+	/*
+	 * The wait strategy.
+	 */
+	private final WaitStrategy waitStrategy;
+
+	/*
+	 * The overflow policy.
+	 */
+	private final OverflowPolicy overflowPolicy;
+
+	/*
+	 * The level below which events are dropped by the DROP_BELOW_LEVEL policy.
+	 */
+	private volatile Level dropLevel = Level.WARN;
+
+	/*
+	 * The consumer thread.
+	 */
+	private volatile Thread consumer;
+
+	/*
+	 * The consumer running flag.
+	 */
+	private volatile boolean isRunning;
+
+	/*
+	 * The shutdown hook, which stops the dispatcher while it is running.
+	 */
+	private Thread shutdownHook;
+
+	/*
+	 * Set while a parking consumer is about to sleep.
+	 */
+	private volatile boolean sleeping;
+
+	/*
+	 * Set while a publishing thread drains the stopped ring buffer, guarded by
+	 * the monitor.
+	 */
+	private boolean isDraining;
+
+	/**
+	 * Constructs a new <code>AsyncDispatcher</code> instance with a ring buffer of
+	 * 8192 slots that parks while idle and blocks while full.
+	 */
+	public AsyncDispatcher() {
+		this(8192, WaitStrategy.PARK, OverflowPolicy.BLOCK);
+	}
+
+	/**
+	 * Constructs a new <code>AsyncDispatcher</code> instance with the specified
+	 * capacity, wait strategy and overflow policy.
+	 * 
+	 * @param capacity       - Ring buffer capacity, rounded up to a power of two.
+	 * 
+	 * @param waitStrategy   - Wait strategy.
+	 * 
+	 * @param overflowPolicy - Overflow policy.
+	 */
+	public AsyncDispatcher(int capacity, WaitStrategy waitStrategy, OverflowPolicy overflowPolicy) {
+		if (capacity < 2) {
+			capacity = 2;
+		}
+		int size = Integer.highestOneBit(capacity - 1) << 1;
+		this.buffer = new Log[size];
+		this.slots = new Log[size];
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++) {
+			slots[i] = new Log();
+			sequences.set(i, i);
+		}
+		this.mask = size - 1;
+		this.waitStrategy = waitStrategy;
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Starts the consumer thread, if it is already running this does nothing.
+	 * Events published from then on are appended on the consumer thread.
+	 */
+	public synchronized void start() {
+		if (consumer == null) {
+			isRunning = true;
+			consumer = new Thread(this, "Logman-AsyncDispatcher");
+			consumer.setDaemon(true);
+			consumer.start();
+			if (shutdownHook == null) {
+				shutdownHook = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						stop();
+					}
+				}, "Logman-AsyncDispatcher-Shutdown");
+				try {
+					Runtime.getRuntime().addShutdownHook(shutdownHook);
+				} catch (IllegalStateException e) {
+					/*
+					 * The JVM is already shutting down.
+					 */
+				}
+			}
+		}
+	}
+
+	/**
+	 * Stops the consumer thread once every published event has been appended and
+	 * waits for it to finish, then appends any event published while it
+	 * finished. Events published from then on are appended on the publishing
+	 * thread until the dispatcher is started again.
+	 */
+	public synchronized void stop() {
+		Thread thread = consumer;
+		if (thread != null) {
+			isRunning = false;
+			LockSupport.unpark(thread);
+			boolean isInterrupted = false;
+			for (;;) {
+				try {
+					thread.join();
+					break;
+				} catch (InterruptedException e) {
+					isInterrupted = true;
+				}
+			}
+			consumer = null;
+			if (isInterrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (shutdownHook != null && Thread.currentThread() != shutdownHook) {
+			try {
+				Runtime.getRuntime().removeShutdownHook(shutdownHook);
+			} catch (IllegalStateException e) {
+				/*
+				 * The JVM is already shutting down.
+				 */
+			}
+			shutdownHook = null;
+		}
+		drainStopped();
+	}
+
+	/**
+	 * Publishes the specified event to the ring buffer, if the buffer is full the
+	 * overflow policy decides whether the caller waits or the event is dropped.
+	 * Events published from the consumer thread, for example by an appender that
+	 * logs, are appended straight away so the consumer can never wait on itself.
+	 * Events published while the dispatcher is not running are appended straight
+	 * away as well, after any events left in the ring buffer.
+	 * 
+	 * @param event - Log instance.
+	 * 
+	 * @return <code>true</code> if the event was published, <code>false</code> if
+	 *         it was dropped.
+	 */
+	public boolean publish(Log event) {
+		if (Thread.currentThread() == consumer) {
+			event.getLogger().dispatch(event);
+			return true;
+		}
+		for (;;) {
+			if (!isRunning) {
+				if (!isEmpty()) {
+					drainStopped();
+				}
+				event.getLogger().dispatch(event);
+				return true;
+			}
+			long position = tail.get();
+			int index = (int) position & mask;
+			long sequence = sequences.get(index);
+			if (sequence == position) {
+				if (tail.compareAndSet(position, position + 1)) {
+					buffer[index] = event.isReusable() ? slots[index].copy(event) : event;
+					sequences.set(index, position + 1);
+					updatePeak(position + 1 - head.get());
+					if (sleeping) {
+						LockSupport.unpark(consumer);
+					}
+					if (!isRunning) {
+						/*
+						 * The consumer may have finished before the slot was filled.
+						 */
+						drainStopped();
+					}
+					return true;
+				}
+			} else if (sequence < position) {
+				if (!shouldBlock(event)) {
+					dropped.incrementAndGet();
+					return false;
+				}
+				waitProducer();
+			}
+		}
+	}
+
+	/**
+	 * Consumes events from the ring buffer until the dispatcher is stopped and the
+	 * ring buffer has been drained.
+	 */
+	@Override
+	public void run() {
+		boolean isFinished = false;
+		try {
+			int waits = 0;
+			for (;;) {
+				long position = head.get();
+				int index = (int) position & mask;
+				if (sequences.get(index) == position + 1) {
+					consume(position, index);
+					waits = 0;
+				} else if (!isRunning && position == tail.get()) {
+					isFinished = true;
+					return;
+				} else {
+					waitConsumer(waits++);
+				}
+			}
+		} finally {
+			if (!isFinished) {
+				/*
+				 * The consumer is dying, hand the ring buffer over to the producers.
+				 * The monitor is not taken as stop may be holding it while it waits
+				 * for this thread.
+				 */
+				isRunning = false;
+				consumer = null;
+			}
+		}
+	}
+
+	/*
+	 * Appends the event in the filled slot at the head and hands the slot back,
+	 * only the consumer may call this.
+	 */
+	private void consume(long position, int index) {
+		Log event = buffer[index];
+		try {
+			event.getLogger().dispatch(event);
+		} catch (Throwable e) {
+			e.printStackTrace();
+		}
+		/*
+		 * The slot is only handed back once the event has been appended, as the
+		 * next producer may overwrite the log owned by the slot.
+		 */
+		if (event == slots[index]) {
+			event.clear();
+		}
+		buffer[index] = null;
+		sequences.lazySet(index, position + mask + 1);
+		head.lazySet(position + 1);
+	}
+
+	/*
+	 * Appends the events left in the ring buffer by producers which published
+	 * while the dispatcher stopped. The monitor keeps the calling thread the only
+	 * consumer, and nothing is done while the consumer thread is running or when
+	 * an appender of the event being drained logs itself.
+	 */
+	private synchronized void drainStopped() {
+		if (consumer != null || isDraining) {
+			return;
+		}
+		isDraining = true;
+		try {
+			for (;;) {
+				long position = head.get();
+				int index = (int) position & mask;
+				if (sequences.get(index) != position + 1) {
+					return;
+				}
+				consume(position, index);
+			}
+		} finally {
+			isDraining = false;
+		}
+	}
+
+	/*
+	 * Checks whether a producer should wait for a full ring buffer.
+	 */
+	private boolean shouldBlock(Log event) {
+		switch (overflowPolicy) {
+		case DROP:
+			return false;
+		case DROP_BELOW_LEVEL:
+			return event.getLevel().getNumber() >= dropLevel.getNumber();
+		default:
+			return true;
+		}
+	}
+
+	/*
+	 * Waits for the consumer to free a slot.
+	 */
+	private void waitProducer() {
+		switch (waitStrategy) {
+		case SPIN:
+			break;
+		case YIELD:
+			Thread.yield();
+			break;
+		default:
+			LockSupport.parkNanos(PRODUCER_PARK_NANOS);
+		}
+	}
+
+	/*
+	 * Waits for a producer to fill a slot, a parking consumer raises the sleeping
+	 * flag and checks the ring buffer again before parking so a producer which
+	 * published in between is guaranteed to see the flag and unpark it.
+	 */
+	private void waitConsumer(int waits) {
+		switch (waitStrategy) {
+		case SPIN:
+			break;
+		case YIELD:
+			Thread.yield();
+			break;
+		default:
+			if (waits < 100) {
+				Thread.yield();
+				break;
+			}
+			sleeping = true;
+			if (isEmpty() && isRunning) {
+				LockSupport.parkNanos(this, PARK_NANOS);
+			}
+			sleeping = false;
+		}
+	}
+
+	/*
+	 * Records the specified fill level if it is the highest seen.
+	 */
+	private void updatePeak(long size) {
+		long current = peak.get();
+		while (size > current && !peak.compareAndSet(current, size)) {
+			current = peak.get();
+		}
+	}
+
+	/*
+	 * Checks whether the slot at the head has not been filled.
+	 */
+	private boolean isEmpty() {
+		long position = head.get();
+		return sequences.get((int) position & mask) != position + 1;
+	}
+
+	/**
+	 * Returns the number of slots in the ring buffer.
+	 * 
+	 * @return Ring buffer capacity.
+	 */
+	public int getCapacity() {
+		return buffer.length;
+	}
+
+	/**
+	 * Returns the number of events waiting in the ring buffer.
+	 * 
+	 * @return Ring buffer fill level.
+	 */
+	public int getSize() {
+		long size = tail.get() - head.get();
+		return (int) Math.max(0, Math.min(size, buffer.length));
+	}
+
+	/**
+	 * Returns the highest number of events seen waiting in the ring buffer.
+	 * 
+	 * @return Peak ring buffer fill level.
+	 */
+	public int getPeakSize() {
+		return (int) Math.min(peak.get(), buffer.length);
+	}
+
+	/**
+	 * Returns the number of events dropped because the ring buffer was full.
+	 * 
+	 * @return Dropped event count.
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * Returns the wait strategy.
+	 * 
+	 * @return Wait strategy.
+	 */
+	public WaitStrategy getWaitStrategy() {
+		return waitStrategy;
+	}
+
+	/**
+	 * Returns the overflow policy.
+	 * 
+	 * @return Overflow policy.
+	 */
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	/**
+	 * Returns the level below which events are dropped by the
+	 * <code>DROP_BELOW_LEVEL</code> policy.
+	 * 
+	 * @return Drop level.
+	 */
+	public Level getDropLevel() {
+		return dropLevel;
+	}
+
+	/**
+	 * Sets the level below which events are dropped by the
+	 * <code>DROP_BELOW_LEVEL</code> policy, if the level is null it will be
+	 * ignored.
+	 * 
+	 * @param level - Drop level.
+	 */
+	public void setDropLevel(Level level) {
+		if (level != null) {
+			this.dropLevel = level;
+		}
+	}
+}
\ No newline at end of file
@@ -15,29 +15,26 @@
  */
 package uk.co.iotacist.logman;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
-
-import uk.co.iotacist.logman.appender.Appender;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * The <code>LoggerCache</code> class hold all of the registered loggers, the
- * logger cache list is thread safe and can be accessed through the methods
- * within this class.
+ * logger cache is a concurrent hash map keyed on the logger name, lookups do not
+ * take a lock and registration is an atomic put-if-absent so two threads can
+ * never register two loggers with the same name.
  * 
  * @since 1.0
  * 
- * @version 1.1
+ * @version 1.2
  * 
  * @author Iotacist <iotacist@gmail.com>
  */
 public final class Cache {
 	/*
-	 * The logger cache list.
+	 * The logger cache map.
 	 */
-	private static final List<Logger> LOGGER_CACHE = Collections.synchronizedList(new ArrayList<Logger>());
+	private static final ConcurrentMap<String, Logger> LOGGER_CACHE = new ConcurrentHashMap<String, Logger>(64);
 
 	/*
 	 * Instances of this class may not be made.
@@ -46,47 +43,39 @@ public final class Cache {
 	}
 
 	/**
-	 * Adds a logger to the cache list, if the logger is nulled or already in the
-	 * list it will not be added.
+	 * Adds a logger to the cache map, if the logger is nulled or a logger with the
+	 * same name is already in the map it will not be added.
 	 * 
 	 * @param logger - Logger instance.
 	 * 
-	 * @return <code>true</code> if the logger was added to the cache list,
+	 * @return <code>true</code> if the logger was added to the cache map,
 	 *         <code>false</code> otherwise.
 	 */
 	protected static boolean addLogger(Logger logger) {
 		if (logger != null) {
-			if (!containsLogger(logger.getName())) {
-				synchronized(LOGGER_CACHE) {
-					return LOGGER_CACHE.add(logger);
-				}
-			}
+			return LOGGER_CACHE.putIfAbsent(logger.getName(), logger) == null;
 		}
 		return false;
 	}
 
 	/**
-	 * Removes a logger from the cache list, if the logger is nulled or not in the
-	 * list it will not be removed.
+	 * Removes a logger from the cache map, if the logger is nulled or not in the
+	 * map it will not be removed.
 	 * 
 	 * @param logger - Logger instance.
 	 * 
-	 * @return <code>true</code> if the logger was removed from the cache list,
+	 * @return <code>true</code> if the logger was removed from the cache map,
 	 *         <code>false</code> otherwise.
 	 */
 	protected static boolean removeLogger(Logger logger) {
 		if (logger != null) {
-			if (containsLogger(logger.getName())) {
-				synchronized(LOGGER_CACHE) {
-					return LOGGER_CACHE.remove(logger);
-				}
-			}
+			return LOGGER_CACHE.remove(logger.getName(), logger);
 		}
 		return false;
 	}
 
 	/**
-	 * Performs a search of the logger cache to see if a logger instance with the
+	 * Performs a lookup of the logger cache to see if a logger instance with the
 	 * same name exists.
 	 * 
 	 * @param name - Logger name.
@@ -95,33 +84,19 @@ public final class Cache {
 	 *         instance was not found.
 	 */
 	protected static Logger getLogger(String name) {
-		synchronized (LOGGER_CACHE) {
-			for (Logger logger : LOGGER_CACHE) {
-				if (logger.getName().equals(name)) {
-					return logger;
-				}
-			}
-		}
-		return null;
+		return LOGGER_CACHE.get(name);
 	}
 
 	/**
-	 * Performs a search of the logger cache to see if the specified logger instance
-	 * is within the cache list.
+	 * Performs a lookup of the logger cache to see if a logger instance with the
+	 * specified name is within the cache map.
 	 * 
-	 * @param name - Logger instance.
+	 * @param name - Logger name.
 	 * 
 	 * @return <code>true</code> if the specified logger was found within the cache
-	 *         list, <code>false</code> otherwise.
+	 *         map, <code>false</code> otherwise.
 	 */
 	protected static boolean containsLogger(String name) {
-		synchronized (LOGGER_CACHE) {
-			for (Logger log : LOGGER_CACHE) {
-				if (log.getName().equals(name)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return LOGGER_CACHE.containsKey(name);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,118 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The <code>CacheBenchmark</code> class measures how the throughput of logger
+ * lookups scales with the number of threads. A set of loggers is registered
+ * first, then for each thread count from 1 doubling up to the maximum the
+ * threads look up the loggers by name through <code>Logger.getLogger</code>
+ * for a fixed time, and the lookups per second in total and per thread are
+ * reported.
+ *
+ * Usage: <code>CacheBenchmark [seconds [threads]]</code>, the maximum number
+ * of threads defaults to the number of available processors.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public final class CacheBenchmark {
+	/*
+	 * The default number of seconds each thread count runs for.
+	 */
+	private static final int DEFAULT_SECONDS = 2;
+
+	/*
+	 * The number of registered loggers looked up.
+	 */
+	private static final int LOGGERS = 256;
+
+	/*
+	 * Instances of this class may not be made.
+	 */
+	private CacheBenchmark() {
+	}
+
+	/**
+	 * Runs the benchmark for the number of seconds and up to the number of
+	 * threads given as the optional first and second arguments.
+	 * 
+	 * @param args - Optional seconds and optional maximum threads.
+	 * 
+	 * @throws InterruptedException If the benchmark is interrupted.
+	 */
+	public static void main(String[] args) throws InterruptedException {
+		if (args.length > 2) {
+			System.err.println("Usage: CacheBenchmark [seconds [threads]]");
+			System.exit(1);
+		}
+		int seconds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SECONDS;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		String[] names = new String[LOGGERS];
+		for (int i = 0; i < LOGGERS; i++) {
+			/*
+			 * Names are built at run time so the lookups hash them like names read
+			 * from configuration.
+			 */
+			names[i] = new StringBuilder(CacheBenchmark.class.getName()).append(".Service").append(i % 16)
+					.append(".Component").append(i).toString();
+			Logger.getLogger(names[i]);
+		}
+		System.out.printf("%8s %16s %16s%n", "Threads", "Lookups/s", "Per thread");
+		for (int threads = 1; threads <= maxThreads; threads <<= 1) {
+			run(names, seconds, threads);
+		}
+	}
+
+	/*
+	 * Runs one thread count and prints its throughput.
+	 */
+	private static void run(final String[] names, int seconds, int threads) throws InterruptedException {
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		final AtomicLong lookups = new AtomicLong();
+		final AtomicLong sink = new AtomicLong();
+		final CountDownLatch done = new CountDownLatch(threads);
+		long started = System.nanoTime();
+		for (int i = 0; i < threads; i++) {
+			final int offset = i * 31;
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					long count = 0L;
+					int hash = 0;
+					while ((count & 0xFFF) != 0 || System.nanoTime() < deadline) {
+						hash += Logger.getLogger(names[(int) (count + offset) & LOGGERS - 1]).hashCode();
+						count++;
+					}
+					lookups.addAndGet(count);
+					sink.addAndGet(hash);
+					done.countDown();
+				}
+			}, "Logman-Benchmark-" + i);
+			thread.start();
+		}
+		done.await();
+		double elapsed = (System.nanoTime() - started) / 1e9;
+		System.out.printf("%8d %16.0f %16.0f%n", threads, lookups.get() / elapsed, lookups.get() / elapsed / threads);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman;
+
+import uk.co.iotacist.logman.appender.Appender;
+import uk.co.iotacist.logman.filter.Filter;
+import uk.co.iotacist.logman.formatter.Formatter;
+
+/**
+ * The <code>Configuration</code> class holds the effective level, filter,
+ * formatter, appenders and dispatcher of a <code>Logger</code> after the parent flags have
+ * been resolved against the Logger namespace.
+ *
+ * Instances are immutable, a new snapshot is computed and published by the
+ * <code>Logger</code> whenever its own settings or the settings of one of its
+ * ancestors change.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+final class Configuration {
+	/*
+	 * The effective level.
+	 */
+	final Level LEVEL;
+
+	/*
+	 * The effective filter.
+	 */
+	final Filter FILTER;
+
+	/*
+	 * The effective formatter.
+	 */
+	final Formatter FORMATTER;
+
+	/*
+	 * The effective appenders, the array is shared and never modified.
+	 */
+	final Appender[] APPENDERS;
+
+	/*
+	 * The effective asynchronous dispatcher, or null for synchronous logging.
+	 */
+	final AsyncDispatcher DISPATCHER;
+
+	/**
+	 * Constructs a new <code>Configuration</code> instance with the specified
+	 * effective settings.
+	 *
+	 * @param level      - Effective level.
+	 *
+	 * @param filter     - Effective filter.
+	 *
+	 * @param formatter  - Effective formatter.
+	 *
+	 * @param appenders  - Effective appenders, this array must not be modified
+	 *                   once it has been passed in.
+	 * 
+	 * @param dispatcher - Effective asynchronous dispatcher, or
+	 *                   <code>null</code>.
+	 */
+	Configuration(Level level, Filter filter, Formatter formatter, Appender[] appenders,
+			AsyncDispatcher dispatcher) {
+		LEVEL = level;
+		FILTER = filter;
+		FORMATTER = formatter;
+		APPENDERS = appenders;
+		DISPATCHER = dispatcher;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,113 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman;
+
+/**
+ * The <code>DisabledLogBenchmark</code> class measures the cost of a disabled
+ * <code>debug</code> call against a bare read and compare of a volatile
+ * field, which is the least a level check can cost. The logger is set to
+ * <code>INFO</code> so every call is disabled, and both loops are timed after
+ * a warm up so the calls have been compiled.
+ *
+ * Usage: <code>DisabledLogBenchmark [iterations]</code>.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public final class DisabledLogBenchmark {
+	/*
+	 * The default number of calls per timed round.
+	 */
+	private static final int DEFAULT_ITERATIONS = 100000000;
+
+	/*
+	 * The number of timed rounds, the first ones warm up the compiler.
+	 */
+	private static final int ROUNDS = 5;
+
+	/*
+	 * The field read by the baseline loop.
+	 */
+	private static volatile int threshold = Level.INFO.getNumber();
+
+	/*
+	 * Instances of this class may not be made.
+	 */
+	private DisabledLogBenchmark() {
+	}
+
+	/**
+	 * Runs the benchmark for the number of iterations given as the optional first
+	 * argument.
+	 * 
+	 * @param args - Optional iterations.
+	 */
+	public static void main(String[] args) {
+		if (args.length > 1) {
+			System.err.println("Usage: DisabledLogBenchmark [iterations]");
+			System.exit(1);
+		}
+		int iterations = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_ITERATIONS;
+		Logger logger = Logger.getLogger(DisabledLogBenchmark.class.getName());
+		logger.setUseParentLevel(false);
+		logger.setLevel(Level.INFO);
+		long sink = 0L;
+		double baseline = 0.0;
+		double disabled = 0.0;
+		for (int round = 0; round < ROUNDS; round++) {
+			long started = System.nanoTime();
+			sink += baseline(iterations);
+			baseline = (double) (System.nanoTime() - started) / iterations;
+			started = System.nanoTime();
+			sink += disabled(logger, iterations);
+			disabled = (double) (System.nanoTime() - started) / iterations;
+		}
+		System.out.printf("%-24s %10.3f ns/call%n", "Volatile read", baseline);
+		System.out.printf("%-24s %10.3f ns/call%n", "Disabled debug()", disabled);
+		System.out.printf("%-24s %10.2f%n", "Ratio", disabled / baseline);
+		if (sink == 42L) {
+			System.out.println();
+		}
+	}
+
+	/*
+	 * Reads and compares the volatile field, counting the passing compares so
+	 * the loop is not removed.
+	 */
+	private static long baseline(int iterations) {
+		long count = 0L;
+		int debug = Level.DEBUG.getNumber();
+		for (int i = 0; i < iterations; i++) {
+			if (debug >= threshold) {
+				count += i;
+			}
+		}
+		return count;
+	}
+
+	/*
+	 * Calls the disabled debug method with a template argument.
+	 */
+	private static long disabled(Logger logger, int iterations) {
+		for (int i = 0; i < iterations; i++) {
+			logger.debug("Disabled event {}", i);
+		}
+		return iterations;
+	}
+}
\ No newline at end of file
@@ -15,14 +15,33 @@
  */
 package uk.co.iotacist.logman;
 
+import java.nio.ByteBuffer;
+
+import uk.co.iotacist.logman.formatter.Formatter;
+import uk.co.iotacist.logman.formatter.FormatterUtils;
+
 /**
  * The <code>Log</code> class holds information about a logger event, this
  * information gets passed through the internal <code>Logman</code> event
  * system.
  * 
+ * Both the message and the formatted message are resolved lazily, a message
+ * <code>Supplier</code> is only called, a message template is only filled in
+ * and the formatter is only run the first time something asks for them, so
+ * events dropped along the way never pay for building their text.
+ * 
+ * In garbage-free mode the <code>Logger</code> reuses <code>Log</code>
+ * instances, a thread local instance for synchronous logging and the ring
+ * buffer slots of an <code>AsyncDispatcher</code>. A reusable instance is only
+ * valid for the duration of the <code>Appender.append</code> call, appenders
+ * which keep events must store the result of <code>toImmutable()</code>.
+ * Reusable instances format into a buffer they own, appenders which read the
+ * formatted message through <code>formatTo</code> or <code>encodeTo</code>
+ * never cause a string to be built.
+ * 
  * @since 1.0
  * 
- * @version 1.1
+ * @version 1.2
  * 
  * @author Iotacist <iotacist@gmail.com>
  */
@@ -30,27 +49,130 @@ public class Log {
 	/*
 	 * The logger.
 	 */
-	private final Logger LOGGER;
+	private Logger logger;
 
 	/*
 	 * The level.
 	 */
-	private final Level LEVEL;
+	private Level level;
+
+	/*
+	 * The creation time.
+	 */
+	private long timeMillis;
+
+	/*
+	 * The fraction of the events like this one which were kept by sampling.
+	 */
+	private double samplingRatio = 1.0;
+
+	/*
+	 * The message, this is only valid once the pending flag has been cleared.
+	 */
+	private Object message;
+
+	/*
+	 * The pending message flag, set while the message still has to be built from
+	 * the supplier or the template.
+	 */
+	private volatile boolean pending;
+
+	/*
+	 * The message supplier.
+	 */
+	private Supplier<?> supplier;
+
+	/*
+	 * The message template.
+	 */
+	private Template template;
+
+	/*
+	 * The number of template arguments.
+	 */
+	private int argumentCount;
+
+	/*
+	 * The first template argument, used when there is no argument array.
+	 */
+	private Object argument0;
+
+	/*
+	 * The type of the first template argument.
+	 */
+	private ArgumentType argumentType = ArgumentType.OBJECT;
+
+	/*
+	 * The bits of a primitive first template argument, a floating point value is
+	 * held as its raw long bits.
+	 */
+	private long argumentBits;
+
+	/*
+	 * The second template argument, used when there is no argument array.
+	 */
+	private Object argument1;
+
+	/*
+	 * The template arguments, used for three or more arguments.
+	 */
+	private Object[] arguments;
 
 	/*
-	 * The message.
+	 * The formatter used to resolve the formatted message.
 	 */
-	private final Object MESSAGE;
+	private Formatter formatter;
 
 	/*
 	 * The formatted message.
 	 */
-	private Object formattedMessage;
+	private volatile Object formattedMessage;
 
 	/*
 	 * The error.
 	 */
-	private final Throwable THROWN;
+	private Throwable thrown;
+
+	/*
+	 * The reusable flag.
+	 */
+	private final boolean REUSABLE;
+
+	/*
+	 * The formatted message buffer owned by a reusable instance.
+	 */
+	private StringBuilder text;
+
+	/*
+	 * The largest formatted message buffer kept between events.
+	 */
+	private static final int MAX_TEXT_CAPACITY = 16384;
+
+	/*
+	 * Set while a reusable instance is carrying an event.
+	 */
+	private boolean inUse;
+
+	/**
+	 * Creates a new reusable Log instance, it carries no event until one of the
+	 * set methods is called.
+	 */
+	Log() {
+		this(true);
+	}
+
+	/**
+	 * Creates a new Log instance which carries no event until one of the set
+	 * methods or copy is called, the clock is not read until then.
+	 * 
+	 * @param reusable - Whether the instance is reused for later events.
+	 */
+	Log(boolean reusable) {
+		REUSABLE = reusable;
+		if (reusable) {
+			text = new StringBuilder(256);
+		}
+	}
 
 	/**
 	 * Creates a new Log instance with the specified variables.
@@ -64,10 +186,260 @@ public class Log {
 	 * @param thrown  - Event error.
 	 */
 	protected Log(Logger logger, Level level, Object message, Throwable thrown) {
-		LOGGER = logger;
-		LEVEL = level;
-		MESSAGE = message;
-		THROWN = thrown;
+		REUSABLE = false;
+		set(logger, level, message, thrown);
+	}
+
+	/**
+	 * Creates a new Log instance with a lazily built message, the supplier is
+	 * called at most once.
+	 * 
+	 * @param logger   - Event source.
+	 * 
+	 * @param level    - Event level.
+	 * 
+	 * @param supplier - Event message supplier.
+	 * 
+	 * @param thrown   - Event error.
+	 */
+	protected Log(Logger logger, Level level, Supplier<?> supplier, Throwable thrown) {
+		REUSABLE = false;
+		set(logger, level, supplier, thrown);
+	}
+
+	/**
+	 * Creates a new Log instance with a message template, the template is only
+	 * filled in when the message is first asked for. Up to two arguments are held
+	 * in fields so the common calls do not need an argument array.
+	 * 
+	 * @param logger    - Event source.
+	 * 
+	 * @param level     - Event level.
+	 * 
+	 * @param template  - Event message template.
+	 * 
+	 * @param count     - Number of template arguments.
+	 * 
+	 * @param argument0 - First argument, ignored if an argument array is given.
+	 * 
+	 * @param argument1 - Second argument, ignored if an argument array is given.
+	 * 
+	 * @param arguments - Argument array, or <code>null</code>.
+	 * 
+	 * @param thrown    - Event error.
+	 */
+	Log(Logger logger, Level level, Template template, int count, Object argument0, Object argument1,
+			Object[] arguments, Throwable thrown) {
+		REUSABLE = false;
+		set(logger, level, template, count, argument0, argument1, arguments, thrown);
+	}
+
+	/**
+	 * Sets this instance to carry an event with a message object.
+	 * 
+	 * @param logger  - Event source.
+	 * 
+	 * @param level   - Event level.
+	 * 
+	 * @param message - Event message.
+	 * 
+	 * @param thrown  - Event error.
+	 * 
+	 * @return This Log instance.
+	 */
+	Log set(Logger logger, Level level, Object message, Throwable thrown) {
+		set(logger, level, thrown, Logger.currentTimeMillis());
+		this.message = message;
+		this.pending = false;
+		return this;
+	}
+
+	/**
+	 * Sets this instance to carry an event with a lazily built message.
+	 * 
+	 * @param logger   - Event source.
+	 * 
+	 * @param level    - Event level.
+	 * 
+	 * @param supplier - Event message supplier.
+	 * 
+	 * @param thrown   - Event error.
+	 * 
+	 * @return This Log instance.
+	 */
+	Log set(Logger logger, Level level, Supplier<?> supplier, Throwable thrown) {
+		set(logger, level, thrown, Logger.currentTimeMillis());
+		this.supplier = supplier;
+		this.pending = supplier != null;
+		return this;
+	}
+
+	/**
+	 * Sets this instance to carry an event with a message template.
+	 * 
+	 * @param logger    - Event source.
+	 * 
+	 * @param level     - Event level.
+	 * 
+	 * @param template  - Event message template.
+	 * 
+	 * @param count     - Number of template arguments.
+	 * 
+	 * @param argument0 - First argument, ignored if an argument array is given.
+	 * 
+	 * @param argument1 - Second argument, ignored if an argument array is given.
+	 * 
+	 * @param arguments - Argument array, or <code>null</code>.
+	 * 
+	 * @param thrown    - Event error.
+	 * 
+	 * @return This Log instance.
+	 */
+	Log set(Logger logger, Level level, Template template, int count, Object argument0, Object argument1,
+			Object[] arguments, Throwable thrown) {
+		set(logger, level, thrown, Logger.currentTimeMillis());
+		this.template = template;
+		this.argumentCount = count;
+		this.argument0 = argument0;
+		this.argument1 = argument1;
+		this.arguments = arguments;
+		this.pending = true;
+		return this;
+	}
+
+	/**
+	 * Sets this instance to carry an event with a message template and a single
+	 * primitive argument, which is held without boxing.
+	 * 
+	 * @param logger   - Event source.
+	 * 
+	 * @param level    - Event level.
+	 * 
+	 * @param template - Event message template.
+	 * 
+	 * @param type     - Argument type, other than <code>OBJECT</code>.
+	 * 
+	 * @param bits     - Argument value, floating point values as their raw long
+	 *                 bits.
+	 * 
+	 * @return This Log instance.
+	 */
+	Log set(Logger logger, Level level, Template template, ArgumentType type, long bits) {
+		set(logger, level, template, 1, null, null, null, null);
+		this.argumentType = type;
+		this.argumentBits = bits;
+		return this;
+	}
+
+	/*
+	 * Sets the common event fields and resets everything else.
+	 */
+	private void set(Logger logger, Level level, Throwable thrown, long timeMillis) {
+		this.logger = logger;
+		this.level = level;
+		this.thrown = thrown;
+		this.timeMillis = timeMillis;
+		this.samplingRatio = 1.0;
+		this.message = null;
+		this.supplier = null;
+		this.template = null;
+		this.argumentCount = 0;
+		this.argument0 = null;
+		this.argumentType = ArgumentType.OBJECT;
+		this.argumentBits = 0L;
+		this.argument1 = null;
+		this.arguments = null;
+		this.formatter = null;
+		this.formattedMessage = null;
+		this.inUse = true;
+	}
+
+	/**
+	 * Copies the event carried by the specified instance into this instance, a
+	 * message which has already been built is copied as it is.
+	 * 
+	 * @param other - Log to copy.
+	 * 
+	 * @return This Log instance.
+	 */
+	Log copy(Log other) {
+		set(other.logger, other.level, other.thrown, other.timeMillis);
+		this.samplingRatio = other.samplingRatio;
+		synchronized (other) {
+			this.message = other.message;
+			this.supplier = other.supplier;
+			this.template = other.template;
+			this.argumentCount = other.argumentCount;
+			this.argument0 = other.argument0;
+			this.argumentType = other.argumentType;
+			this.argumentBits = other.argumentBits;
+			this.argument1 = other.argument1;
+			this.arguments = other.arguments;
+			this.formatter = other.formatter;
+			this.pending = other.pending;
+			Object formatted = other.formattedMessage;
+			if (formatted != null && formatted == other.text) {
+				/*
+				 * The buffer of the other instance will be reused, copy its contents.
+				 */
+				if (REUSABLE) {
+					text.setLength(0);
+					text.append(other.text);
+					formatted = text;
+				} else {
+					formatted = formatted.toString();
+				}
+			}
+			this.formattedMessage = formatted;
+		}
+		return this;
+	}
+
+	/**
+	 * Releases the references held by a reusable instance so it can carry the
+	 * next event.
+	 */
+	void clear() {
+		set(null, null, null, 0L);
+		if (text.capacity() > MAX_TEXT_CAPACITY) {
+			text = new StringBuilder(256);
+		}
+		this.inUse = false;
+	}
+
+	/**
+	 * Checks whether this reusable instance is free to carry an event.
+	 * 
+	 * @return <code>true</code> if the instance is free, <code>false</code>
+	 *         otherwise.
+	 */
+	boolean isFree() {
+		return !inUse;
+	}
+
+	/**
+	 * Returns the reusable flag, a reusable instance is overwritten once the
+	 * current <code>Appender.append</code> call returns.
+	 * 
+	 * @return <code>true</code> if this instance is reused, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean isReusable() {
+		return REUSABLE;
+	}
+
+	/**
+	 * Returns a Log instance which carries the same event and is never reused,
+	 * appenders which keep events past the append call must store this instead of
+	 * the instance they were given.
+	 * 
+	 * @return This instance if it is not reusable, otherwise a copy.
+	 */
+	public Log toImmutable() {
+		if (!REUSABLE) {
+			return this;
+		}
+		return new Log(false).copy(this);
 	}
 
 	/**
@@ -76,7 +448,7 @@ public class Log {
 	 * @return Event logger.
 	 */
 	public final Logger getLogger() {
-		return LOGGER;
+		return logger;
 	}
 
 	/**
@@ -85,7 +457,40 @@ public class Log {
 	 * @return Log level.
 	 */
 	public final Level getLevel() {
-		return LEVEL;
+		return level;
+	}
+
+	/**
+	 * Returns the time this Log instance was created, read from the clock of the
+	 * <code>Logger</code> class.
+	 * 
+	 * @return Milliseconds since the epoch.
+	 */
+	public final long getTimeMillis() {
+		return timeMillis;
+	}
+
+	/**
+	 * Returns the sampling ratio of this Log instance, the fraction of the events
+	 * of its logger and level which were kept when it was logged. Counts of logs
+	 * can be scaled back up by dividing each log by its ratio.
+	 * 
+	 * @return Sampling ratio, 1 if the log was not sampled.
+	 */
+	public final double getSamplingRatio() {
+		return samplingRatio;
+	}
+
+	/**
+	 * Sets the sampling ratio of this Log instance, this is called by sampling
+	 * filters. Ratios outside <code>(0, 1]</code> are ignored.
+	 * 
+	 * @param ratio - Fraction of the events which were kept.
+	 */
+	public void setSamplingRatio(double ratio) {
+		if (ratio > 0 && ratio <= 1) {
+			samplingRatio = ratio;
+		}
 	}
 
 	/**
@@ -94,16 +499,235 @@ public class Log {
 	 * @return Log message.
 	 */
 	public final Object getMessage() {
-		return MESSAGE;
+		if (pending) {
+			resolveMessage();
+		}
+		return message;
+	}
+
+	/*
+	 * Builds the message from the supplier or the template, the volatile write of
+	 * the cleared pending flag publishes the message to other threads.
+	 */
+	private synchronized void resolveMessage() {
+		if (pending) {
+			if (template != null) {
+				StringBuilder builder = new StringBuilder(template.PATTERN.length() + 16 * argumentCount);
+				template.render(builder, this);
+				message = builder.toString();
+			} else {
+				message = supplier.get();
+				supplier = null;
+			}
+			pending = false;
+		}
+	}
+
+	/**
+	 * Appends the message of this log instance to the specified buffer, a message
+	 * template which has not been built yet is filled in straight into the buffer
+	 * without building an intermediate string.
+	 * 
+	 * @param out - Output buffer.
+	 */
+	public final void appendMessage(StringBuilder out) {
+		if (pending) {
+			Template pendingTemplate;
+			synchronized (this) {
+				pendingTemplate = pending ? template : null;
+			}
+			if (pendingTemplate != null) {
+				pendingTemplate.render(out, this);
+				return;
+			}
+		}
+		Template.appendValue(out, getMessage());
+	}
+
+	/**
+	 * Returns the message template of this log instance.
+	 * 
+	 * @return Message template or <code>null</code> if the message was not logged
+	 *         with a template.
+	 */
+	public final String getTemplate() {
+		return template != null ? template.PATTERN : null;
 	}
 
 	/**
-	 * Returns the formatted message of this log instance.
+	 * Returns the number of template arguments of this log instance.
+	 * 
+	 * @return Argument count.
+	 */
+	public final int getArgumentCount() {
+		return argumentCount;
+	}
+
+	/**
+	 * Returns the template argument at the specified index, a primitive argument
+	 * is boxed. Callers which should not allocate check the type with
+	 * <code>getArgumentType</code> first.
+	 * 
+	 * @param index - Argument index.
+	 * 
+	 * @return Template argument.
+	 * 
+	 * @throws IndexOutOfBoundsException if the index is not below the argument
+	 *                                   count.
+	 */
+	public final Object getArgument(int index) {
+		switch (getArgumentType(index)) {
+		case LONG:
+			return Long.valueOf(argumentBits);
+		case DOUBLE:
+			return Double.valueOf(Double.longBitsToDouble(argumentBits));
+		case FLOAT:
+			return Float.valueOf((float) Double.longBitsToDouble(argumentBits));
+		case CHAR:
+			return Character.valueOf((char) argumentBits);
+		default:
+			break;
+		}
+		if (arguments != null) {
+			return arguments[index];
+		}
+		return index == 0 ? argument0 : argument1;
+	}
+
+	/**
+	 * Returns the type of the template argument at the specified index, only an
+	 * argument logged through a primitive overload of the <code>Logger</code> is
+	 * not an <code>OBJECT</code>.
+	 * 
+	 * @param index - Argument index.
+	 * 
+	 * @return Argument type.
+	 * 
+	 * @throws IndexOutOfBoundsException if the index is not below the argument
+	 *                                   count.
+	 */
+	public final ArgumentType getArgumentType(int index) {
+		if (index < 0 || index >= argumentCount) {
+			throw new IndexOutOfBoundsException("Argument index: " + index + ", count: " + argumentCount);
+		}
+		return index == 0 ? argumentType : ArgumentType.OBJECT;
+	}
+
+	/**
+	 * Returns the <code>LONG</code> argument, or the code of the
+	 * <code>CHAR</code> argument, at the specified index without boxing it.
+	 * 
+	 * @param index - Argument index.
+	 * 
+	 * @return Argument value.
+	 * 
+	 * @throws IndexOutOfBoundsException if the index is not below the argument
+	 *                                   count.
+	 * 
+	 * @throws IllegalStateException     if the argument is of another type.
+	 */
+	public final long getLongArgument(int index) {
+		ArgumentType type = getArgumentType(index);
+		if (type != ArgumentType.LONG && type != ArgumentType.CHAR) {
+			throw new IllegalStateException("Argument " + index + " is of type " + type);
+		}
+		return argumentBits;
+	}
+
+	/**
+	 * Returns the <code>DOUBLE</code> or <code>FLOAT</code> argument at the
+	 * specified index without boxing it.
+	 * 
+	 * @param index - Argument index.
+	 * 
+	 * @return Argument value.
+	 * 
+	 * @throws IndexOutOfBoundsException if the index is not below the argument
+	 *                                   count.
+	 * 
+	 * @throws IllegalStateException     if the argument is of another type.
+	 */
+	public final double getDoubleArgument(int index) {
+		ArgumentType type = getArgumentType(index);
+		if (type != ArgumentType.DOUBLE && type != ArgumentType.FLOAT) {
+			throw new IllegalStateException("Argument " + index + " is of type " + type);
+		}
+		return Double.longBitsToDouble(argumentBits);
+	}
+
+	/**
+	 * Returns the formatted message of this log instance, the message is
+	 * formatted on the first call if a formatter has been set.
 	 * 
 	 * @return Log formatted message.
 	 */
 	public Object getFormattedMessage() {
-		return formattedMessage;
+		Object formatted = resolveFormattedMessage();
+		return formatted != null && formatted == text ? formatted.toString() : formatted;
+	}
+
+	/**
+	 * Appends the formatted message of this log instance to the specified buffer,
+	 * the message is formatted on the first call if a formatter has been set.
+	 * 
+	 * @param out - Output buffer.
+	 */
+	public void formatTo(StringBuilder out) {
+		Object formatted = resolveFormattedMessage();
+		if (formatted != null) {
+			Template.appendValue(out, formatted);
+		}
+	}
+
+	/**
+	 * Writes the formatted message of this log instance to the specified buffer as
+	 * UTF-8 bytes, the message is formatted on the first call if a formatter has
+	 * been set. If the message does not fit the buffer position is left unchanged.
+	 * 
+	 * @param out - Output buffer.
+	 * 
+	 * @return <code>true</code> if the message was written, <code>false</code> if
+	 *         the buffer did not have enough space.
+	 */
+	public boolean encodeTo(ByteBuffer out) {
+		Object formatted = resolveFormattedMessage();
+		if (formatted instanceof CharSequence) {
+			return FormatterUtils.encode((CharSequence) formatted, out);
+		}
+		return formatted == null || FormatterUtils.encode(formatted.toString(), out);
+	}
+
+	/*
+	 * Formats the message on the first call, a reusable instance formats into its
+	 * own buffer so the formatter never has to build a string.
+	 */
+	private Object resolveFormattedMessage() {
+		Object formatted = formattedMessage;
+		if (formatted == null && formatter != null) {
+			synchronized (this) {
+				formatted = formattedMessage;
+				if (formatted == null) {
+					if (REUSABLE) {
+						text.setLength(0);
+						FormatterUtils.formatTo(formatter, this, text);
+						formatted = text;
+					} else {
+						formatted = formatter.format(this);
+					}
+					formattedMessage = formatted;
+				}
+			}
+		}
+		return formatted;
+	}
+
+	/**
+	 * Sets the formatter used to lazily resolve the formatted message.
+	 * 
+	 * @param formatter - Log formatter.
+	 */
+	void setFormatter(Formatter formatter) {
+		this.formatter = formatter;
 	}
 
 	/**
@@ -129,6 +753,6 @@ public class Log {
 	 * @return Log error.
 	 */
 	public Throwable getThrown() {
-		return THROWN;
+		return thrown;
 	}
 }
\ No newline at end of file
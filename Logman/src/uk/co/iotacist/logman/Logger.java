@@ -16,14 +16,20 @@
 package uk.co.iotacist.logman;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 
 import uk.co.iotacist.logman.appender.Appender;
 import uk.co.iotacist.logman.appender.StdOutAppender;
+import uk.co.iotacist.logman.clock.Clock;
+import uk.co.iotacist.logman.clock.SystemClock;
 import uk.co.iotacist.logman.filter.AcceptAllFilter;
 import uk.co.iotacist.logman.filter.Filter;
+import uk.co.iotacist.logman.filter.FilterResult;
+import uk.co.iotacist.logman.filter.FilterUtils;
 import uk.co.iotacist.logman.formatter.Formatter;
 import uk.co.iotacist.logman.formatter.LevelNameFormatter;
 
@@ -32,10 +38,22 @@ import uk.co.iotacist.logman.formatter.LevelNameFormatter;
  * or application component.
  * 
  * Each Logger keeps track of a "parent" Logger, which is its nearest existing
- * ancestor in the Logger namespace.
+ * ancestor in the Logger namespace, the namespace is split on dots so the
+ * parent of <code>a.b.c</code> is <code>a.b</code> if it exists, otherwise
+ * <code>a</code>, otherwise the <code>GLOBAL</code> logger.
+ * 
+ * The effective level, filter, formatter and appenders of each Logger are
+ * resolved once and held in a <code>Configuration</code> snapshot, whenever a
+ * setting changes the snapshot is recomputed and pushed down to every
+ * descendant so the logging path never walks the parent chain.
+ * 
+ * Loggers are additive by default, an event reaches the appenders of the
+ * logger and then those of each ancestor, every distinct appender once. Only
+ * the global logger holds the shared standard output appender from the
+ * <code>AppenderRegistry</code>, so a new logger has no appenders of its own.
  * 
  * @since 1.0
- * @version 1.1
+ * @version 1.2
  * @author Iotacist <iotacist@gmail.com>
  */
 public class Logger {
@@ -49,6 +67,11 @@ public class Logger {
 	 */
 	private Logger parent;
 
+	/*
+	 * The loggers which have this logger as their parent.
+	 */
+	private final List<Logger> children;
+
 	/*
 	 * The logger level.
 	 */
@@ -80,162 +103,1004 @@ public class Logger {
 	private boolean useParentFormatter;
 
 	/**
-	 * The logger appenders.
+	 * The logger appenders, the array is replaced instead of modified so it can
+	 * be shared with the configuration snapshots.
+	 */
+	private Appender[] appenders;
+
+	/*
+	 * The logger parent appender flag.
+	 */
+	private boolean useParentAppenders;
+
+	/*
+	 * The logger additivity flag.
+	 */
+	private boolean additive = true;
+
+	/*
+	 * The logger asynchronous dispatcher.
+	 */
+	private AsyncDispatcher asyncDispatcher;
+
+	/*
+	 * The effective configuration snapshot.
+	 */
+	private volatile Configuration configuration;
+
+	/*
+	 * The effective level number, cached apart from the snapshot so a disabled
+	 * call costs a single field read and compare.
+	 */
+	private volatile int threshold;
+
+	/*
+	 * Guards the logger tree and every logger setting, it must be declared before
+	 * the global logger is created.
+	 */
+	private static final Object HIERARCHY = new Object();
+
+	/*
+	 * The shared empty appender array, it must be declared before the global
+	 * logger is created.
+	 */
+	private static final Appender[] NO_APPENDERS = new Appender[0];
+
+	/*
+	 * The clock read by every new log.
+	 */
+	private static volatile Clock clock = new SystemClock();
+
+	/*
+	 * The garbage-free mode flag.
+	 */
+	private static volatile boolean garbageFree = Boolean.getBoolean("logman.garbageFree");
+
+	/*
+	 * The reusable log of each thread, used in garbage-free mode.
+	 */
+	private static final ThreadLocal<Log> EVENTS = new ThreadLocal<Log>() {
+		@Override
+		protected Log initialValue() {
+			return new Log();
+		}
+	};
+
+	/**
+	 * The global logger.
+	 */
+	public static final Logger GLOBAL = Logger.getLogger(Logger.class);
+
+	/**
+	 * Constructs a new <code>Logger</code> instance with the specified name.
+	 * 
+	 * @param name - Logger name.
+	 */
+	private Logger(String name) {
+		this.name = name;
+		this.level = Level.ALL;
+		this.filter = new AcceptAllFilter();
+		this.formatter = new LevelNameFormatter();
+		this.appenders = NO_APPENDERS;
+		this.children = new ArrayList<Logger>();
+	}
+
+	/**
+	 * Checks whether a message with the specified level would pass the effective
+	 * level of this logger, callers can use this to skip building expensive
+	 * messages.
+	 * 
+	 * @param level - Log level.
+	 * 
+	 * @return <code>true</code> if the level is enabled, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean isEnabled(Level level) {
+		return level.getNumber() >= threshold;
+	}
+
+	/**
+	 * Checks whether the <code>DEBUG</code> level is enabled.
+	 * 
+	 * @return <code>true</code> if the level is enabled, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean isDebugEnabled() {
+		return Level.DEBUG.getNumber() >= threshold;
+	}
+
+	/**
+	 * Checks whether the <code>INFO</code> level is enabled.
+	 * 
+	 * @return <code>true</code> if the level is enabled, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean isInfoEnabled() {
+		return Level.INFO.getNumber() >= threshold;
+	}
+
+	/**
+	 * Checks whether the <code>WARN</code> level is enabled.
+	 * 
+	 * @return <code>true</code> if the level is enabled, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean isWarnEnabled() {
+		return Level.WARN.getNumber() >= threshold;
+	}
+
+	/**
+	 * Checks whether the <code>SEVERE</code> level is enabled.
+	 * 
+	 * @return <code>true</code> if the level is enabled, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean isSevereEnabled() {
+		return Level.SEVERE.getNumber() >= threshold;
+	}
+
+	/**
+	 * Logs a message object with the <code>DEBUG</code> level.
+	 * 
+	 * @param message - Message object.
+	 */
+	public void debug(Object message) {
+		log(Level.DEBUG, message);
+	}
+
+	/**
+	 * Logs a message object and a stack trace with the <code>DEBUG</code> level.
+	 * 
+	 * @param message   - Message object.
+	 * 
+	 * @param throwable - Throwable stack trace.
+	 */
+	public void debug(Object message, Throwable throwable) {
+		log(Level.DEBUG, message, throwable);
+	}
+
+	/**
+	 * Logs a lazily built message with the <code>DEBUG</code> level, the supplier is
+	 * only called if the event passes the level and filter.
+	 * 
+	 * @param supplier - Message supplier.
+	 */
+	public void debug(Supplier<?> supplier) {
+		log(Level.DEBUG, supplier, null);
+	}
+
+	/**
+	 * Logs a message string and a stack trace with the <code>DEBUG</code> level, the
+	 * message is not treated as a template.
+	 * 
+	 * @param message   - Message string.
+	 * 
+	 * @param throwable - Throwable stack trace.
+	 */
+	public void debug(String message, Throwable throwable) {
+		log(Level.DEBUG, (Object) message, throwable);
+	}
+
+	/**
+	 * Logs a message template with one argument with the <code>DEBUG</code> level,
+	 * the template is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void debug(String template, Object argument) {
+		log(Level.DEBUG, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>long</code> argument with the
+	 * <code>DEBUG</code> level, the argument is held without boxing and the
+	 * template is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void debug(String template, long argument) {
+		log(Level.DEBUG, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>double</code> argument with the
+	 * <code>DEBUG</code> level, the argument is held without boxing and the
+	 * template is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void debug(String template, double argument) {
+		log(Level.DEBUG, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>float</code> argument with the
+	 * <code>DEBUG</code> level, the argument is held without boxing and the
+	 * template is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void debug(String template, float argument) {
+		log(Level.DEBUG, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>char</code> argument with the
+	 * <code>DEBUG</code> level, the argument is held without boxing and the
+	 * template is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void debug(String template, char argument) {
+		log(Level.DEBUG, template, argument);
+	}
+
+	/**
+	 * Logs a message template with two arguments with the <code>DEBUG</code> level,
+	 * the template is only filled in when the event is formatted.
+	 * 
+	 * @param template  - Message template.
+	 * 
+	 * @param argument0 - First template argument.
+	 * 
+	 * @param argument1 - Second template argument.
+	 */
+	public void debug(String template, Object argument0, Object argument1) {
+		log(Level.DEBUG, template, argument0, argument1);
+	}
+
+	/**
+	 * Logs a message template with any number of arguments with the
+	 * <code>DEBUG</code> level, the template is only filled in when the event is
+	 * formatted.
+	 * 
+	 * A bare <code>null</code> argument matches both this method and the
+	 * <code>Throwable</code> overload, so it must be cast to
+	 * <code>Object</code> or <code>Throwable</code>.
+	 * 
+	 * @param template  - Message template.
+	 * 
+	 * @param arguments - Template arguments.
+	 */
+	public void debug(String template, Object... arguments) {
+		log(Level.DEBUG, template, arguments);
+	}
+
+	/**
+	 * Logs a message object with the <code>INFO</code> level.
+	 * 
+	 * @param message - Message object.
+	 */
+	public void info(Object message) {
+		log(Level.INFO, message);
+	}
+
+	/**
+	 * Logs a message object and a stack trace with the <code>INFO</code> level.
+	 * 
+	 * @param message   - Message object.
+	 * 
+	 * @param throwable - Throwable stack trace.
+	 */
+	public void info(Object message, Throwable throwable) {
+		log(Level.INFO, message, throwable);
+	}
+
+	/**
+	 * Logs a lazily built message with the <code>INFO</code> level, the supplier is
+	 * only called if the event passes the level and filter.
+	 * 
+	 * @param supplier - Message supplier.
+	 */
+	public void info(Supplier<?> supplier) {
+		log(Level.INFO, supplier, null);
+	}
+
+	/**
+	 * Logs a message string and a stack trace with the <code>INFO</code> level, the
+	 * message is not treated as a template.
+	 * 
+	 * @param message   - Message string.
+	 * 
+	 * @param throwable - Throwable stack trace.
+	 */
+	public void info(String message, Throwable throwable) {
+		log(Level.INFO, (Object) message, throwable);
+	}
+
+	/**
+	 * Logs a message template with one argument with the <code>INFO</code> level,
+	 * the template is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void info(String template, Object argument) {
+		log(Level.INFO, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>long</code> argument with the
+	 * <code>INFO</code> level, the argument is held without boxing and the template
+	 * is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void info(String template, long argument) {
+		log(Level.INFO, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>double</code> argument with the
+	 * <code>INFO</code> level, the argument is held without boxing and the template
+	 * is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void info(String template, double argument) {
+		log(Level.INFO, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>float</code> argument with the
+	 * <code>INFO</code> level, the argument is held without boxing and the template
+	 * is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void info(String template, float argument) {
+		log(Level.INFO, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>char</code> argument with the
+	 * <code>INFO</code> level, the argument is held without boxing and the template
+	 * is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void info(String template, char argument) {
+		log(Level.INFO, template, argument);
+	}
+
+	/**
+	 * Logs a message template with two arguments with the <code>INFO</code> level,
+	 * the template is only filled in when the event is formatted.
+	 * 
+	 * @param template  - Message template.
+	 * 
+	 * @param argument0 - First template argument.
+	 * 
+	 * @param argument1 - Second template argument.
+	 */
+	public void info(String template, Object argument0, Object argument1) {
+		log(Level.INFO, template, argument0, argument1);
+	}
+
+	/**
+	 * Logs a message template with any number of arguments with the
+	 * <code>INFO</code> level, the template is only filled in when the event is
+	 * formatted.
+	 * 
+	 * A bare <code>null</code> argument matches both this method and the
+	 * <code>Throwable</code> overload, so it must be cast to
+	 * <code>Object</code> or <code>Throwable</code>.
+	 * 
+	 * @param template  - Message template.
+	 * 
+	 * @param arguments - Template arguments.
+	 */
+	public void info(String template, Object... arguments) {
+		log(Level.INFO, template, arguments);
+	}
+
+	/**
+	 * Logs a message object with the <code>WARN</code> level.
+	 * 
+	 * @param message - Message object.
+	 */
+	public void warn(Object message) {
+		log(Level.WARN, message);
+	}
+
+	/**
+	 * Logs a message object and a stack trace with the <code>WARN</code> level.
+	 * 
+	 * @param message   - Message object.
+	 * 
+	 * @param throwable - Throwable stack trace.
+	 */
+	public void warn(Object message, Throwable throwable) {
+		log(Level.WARN, message, throwable);
+	}
+
+	/**
+	 * Logs a lazily built message with the <code>WARN</code> level, the supplier is
+	 * only called if the event passes the level and filter.
+	 * 
+	 * @param supplier - Message supplier.
+	 */
+	public void warn(Supplier<?> supplier) {
+		log(Level.WARN, supplier, null);
+	}
+
+	/**
+	 * Logs a message string and a stack trace with the <code>WARN</code> level, the
+	 * message is not treated as a template.
+	 * 
+	 * @param message   - Message string.
+	 * 
+	 * @param throwable - Throwable stack trace.
+	 */
+	public void warn(String message, Throwable throwable) {
+		log(Level.WARN, (Object) message, throwable);
+	}
+
+	/**
+	 * Logs a message template with one argument with the <code>WARN</code> level,
+	 * the template is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void warn(String template, Object argument) {
+		log(Level.WARN, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>long</code> argument with the
+	 * <code>WARN</code> level, the argument is held without boxing and the template
+	 * is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void warn(String template, long argument) {
+		log(Level.WARN, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>double</code> argument with the
+	 * <code>WARN</code> level, the argument is held without boxing and the template
+	 * is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void warn(String template, double argument) {
+		log(Level.WARN, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>float</code> argument with the
+	 * <code>WARN</code> level, the argument is held without boxing and the template
+	 * is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void warn(String template, float argument) {
+		log(Level.WARN, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>char</code> argument with the
+	 * <code>WARN</code> level, the argument is held without boxing and the template
+	 * is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void warn(String template, char argument) {
+		log(Level.WARN, template, argument);
+	}
+
+	/**
+	 * Logs a message template with two arguments with the <code>WARN</code> level,
+	 * the template is only filled in when the event is formatted.
+	 * 
+	 * @param template  - Message template.
+	 * 
+	 * @param argument0 - First template argument.
+	 * 
+	 * @param argument1 - Second template argument.
+	 */
+	public void warn(String template, Object argument0, Object argument1) {
+		log(Level.WARN, template, argument0, argument1);
+	}
+
+	/**
+	 * Logs a message template with any number of arguments with the
+	 * <code>WARN</code> level, the template is only filled in when the event is
+	 * formatted.
+	 * 
+	 * A bare <code>null</code> argument matches both this method and the
+	 * <code>Throwable</code> overload, so it must be cast to
+	 * <code>Object</code> or <code>Throwable</code>.
+	 * 
+	 * @param template  - Message template.
+	 * 
+	 * @param arguments - Template arguments.
+	 */
+	public void warn(String template, Object... arguments) {
+		log(Level.WARN, template, arguments);
+	}
+
+	/**
+	 * Logs a message object with the <code>SEVERE</code> level.
+	 * 
+	 * @param message - Message object.
+	 */
+	public void severe(Object message) {
+		log(Level.SEVERE, message);
+	}
+
+	/**
+	 * Logs a message object and a stack trace with the <code>SEVERE</code> level.
+	 * 
+	 * @param message   - Message object.
+	 * 
+	 * @param throwable - Throwable stack trace.
+	 */
+	public void severe(Object message, Throwable throwable) {
+		log(Level.SEVERE, message, throwable);
+	}
+
+	/**
+	 * Logs a lazily built message with the <code>SEVERE</code> level, the supplier is
+	 * only called if the event passes the level and filter.
+	 * 
+	 * @param supplier - Message supplier.
+	 */
+	public void severe(Supplier<?> supplier) {
+		log(Level.SEVERE, supplier, null);
+	}
+
+	/**
+	 * Logs a message string and a stack trace with the <code>SEVERE</code> level, the
+	 * message is not treated as a template.
+	 * 
+	 * @param message   - Message string.
+	 * 
+	 * @param throwable - Throwable stack trace.
+	 */
+	public void severe(String message, Throwable throwable) {
+		log(Level.SEVERE, (Object) message, throwable);
+	}
+
+	/**
+	 * Logs a message template with one argument with the <code>SEVERE</code> level,
+	 * the template is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void severe(String template, Object argument) {
+		log(Level.SEVERE, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>long</code> argument with the
+	 * <code>SEVERE</code> level, the argument is held without boxing and the
+	 * template is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void severe(String template, long argument) {
+		log(Level.SEVERE, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>double</code> argument with the
+	 * <code>SEVERE</code> level, the argument is held without boxing and the
+	 * template is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	public void severe(String template, double argument) {
+		log(Level.SEVERE, template, argument);
+	}
+
+	/**
+	 * Logs a message template with one <code>float</code> argument with the
+	 * <code>SEVERE</code> level, the argument is held without boxing and the
+	 * template is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
 	 */
-	private List<Appender> appenders;
+	public void severe(String template, float argument) {
+		log(Level.SEVERE, template, argument);
+	}
 
-	/*
-	 * The logger parent appender flag.
+	/**
+	 * Logs a message template with one <code>char</code> argument with the
+	 * <code>SEVERE</code> level, the argument is held without boxing and the
+	 * template is only filled in when the event is formatted.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
 	 */
-	private boolean useParentAppenders;
-	
+	public void severe(String template, char argument) {
+		log(Level.SEVERE, template, argument);
+	}
+
 	/**
-	 * The global logger.
+	 * Logs a message template with two arguments with the <code>SEVERE</code> level,
+	 * the template is only filled in when the event is formatted.
+	 * 
+	 * @param template  - Message template.
+	 * 
+	 * @param argument0 - First template argument.
+	 * 
+	 * @param argument1 - Second template argument.
 	 */
-	public static final Logger GLOBAL = Logger.getLogger(Logger.class);
+	public void severe(String template, Object argument0, Object argument1) {
+		log(Level.SEVERE, template, argument0, argument1);
+	}
 
 	/**
-	 * Constructs a new <code>Logger</code> instance with the specified name.
+	 * Logs a message template with any number of arguments with the
+	 * <code>SEVERE</code> level, the template is only filled in when the event is
+	 * formatted.
 	 * 
-	 * @param name - Logger name.
+	 * A bare <code>null</code> argument matches both this method and the
+	 * <code>Throwable</code> overload, so it must be cast to
+	 * <code>Object</code> or <code>Throwable</code>.
+	 * 
+	 * @param template  - Message template.
+	 * 
+	 * @param arguments - Template arguments.
 	 */
-	private Logger(String name) {
-		this.name = name;
-		this.level = Level.ALL;
-		this.filter = new AcceptAllFilter();
-		this.formatter = new LevelNameFormatter();
-		this.appenders = new ArrayList<Appender>();
+	public void severe(String template, Object... arguments) {
+		log(Level.SEVERE, template, arguments);
 	}
 
 	/**
-	 * Logs a message object with the <code>DEBUG</code> level.
+	 * Logs a message object with the specified level.
+	 * 
+	 * @param level   - Log level.
 	 * 
 	 * @param message - Message object.
 	 */
-	public void debug(Object message) {
-		log(Level.DEBUG, message);
+	public void log(Level level, Object message) {
+		log(level, message, null);
 	}
 
 	/**
-	 * Logs a message object and a stack trace with the <code>DEBUG</code> level.
+	 * Logs a message object and a stack trace with the specified level.
+	 * 
+	 * @param level     - Log level.
 	 * 
 	 * @param message   - Message object.
 	 * 
 	 * @param throwable - Throwable stack trace.
 	 */
-	public void debug(Object message, Throwable throwable) {
-		log(Level.DEBUG, message, throwable);
+	public void log(Level level, Object message, Throwable throwable) {
+		if (level.getNumber() >= threshold) {
+			Configuration config = configuration;
+			FilterResult result = FilterUtils.decide(config.FILTER, this, level);
+			if (result != FilterResult.DENY) {
+				Log event = reusableLog();
+				log(config, event != null ? event.set(this, level, message, throwable)
+						: new Log(this, level, message, throwable), result);
+			}
+		}
 	}
 
 	/**
-	 * Logs a message object with the <code>INFO</code> level.
+	 * Logs a lazily built message and a stack trace with the specified level, the
+	 * supplier is only called if the event passes the level and filter.
 	 * 
-	 * @param message - Message object.
+	 * @param level     - Log level.
+	 * 
+	 * @param supplier  - Message supplier.
+	 * 
+	 * @param throwable - Throwable stack trace.
 	 */
-	public void info(Object message) {
-		log(Level.INFO, message);
+	public void log(Level level, Supplier<?> supplier, Throwable throwable) {
+		if (level.getNumber() >= threshold) {
+			Configuration config = configuration;
+			FilterResult result = FilterUtils.decide(config.FILTER, this, level);
+			if (result != FilterResult.DENY) {
+				Log event = reusableLog();
+				log(config, event != null ? event.set(this, level, supplier, throwable)
+						: new Log(this, level, supplier, throwable), result);
+			}
+		}
 	}
 
 	/**
-	 * Logs a message object and a stack trace with the <code>INFO</code> level.
+	 * Logs a message string and a stack trace with the specified level, the
+	 * message is not treated as a template.
 	 * 
-	 * @param message   - Message object.
+	 * @param level     - Log level.
+	 * 
+	 * @param message   - Message string.
 	 * 
 	 * @param throwable - Throwable stack trace.
 	 */
-	public void info(Object message, Throwable throwable) {
-		log(Level.INFO, message, throwable);
+	public void log(Level level, String message, Throwable throwable) {
+		log(level, (Object) message, throwable);
 	}
 
 	/**
-	 * Logs a message object with the <code>WARN</code> level.
+	 * Logs a message template with one argument with the specified level, the
+	 * template is only filled in when the event is formatted.
 	 * 
-	 * @param message - Message object.
+	 * Each <code>{}</code> within the template is replaced by the next argument.
+	 * 
+	 * @param level    - Log level.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
 	 */
-	public void warn(Object message) {
-		log(Level.WARN, message);
+	public void log(Level level, String template, Object argument) {
+		if (level.getNumber() >= threshold) {
+			Configuration config = configuration;
+			FilterResult result = FilterUtils.decide(config.FILTER, this, level);
+			if (result != FilterResult.DENY) {
+				Template parsed = Template.of(template);
+				Log event = reusableLog();
+				log(config, event != null ? event.set(this, level, parsed, 1, argument, null, null, null)
+						: new Log(this, level, parsed, 1, argument, null, null, null), result);
+			}
+		}
 	}
 
 	/**
-	 * Logs a message object and a stack trace with the <code>WARN</code> level.
+	 * Logs a message template with one <code>long</code> argument with the
+	 * specified level, the argument is held without boxing and the template is only
+	 * filled in when the event is formatted.
 	 * 
-	 * @param message   - Message object.
+	 * @param level    - Log level.
 	 * 
-	 * @param throwable - Throwable stack trace.
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
 	 */
-	public void warn(Object message, Throwable throwable) {
-		log(Level.WARN, message, throwable);
+	public void log(Level level, String template, long argument) {
+		log(level, template, ArgumentType.LONG, argument);
 	}
 
 	/**
-	 * Logs a message object with the <code>SEVERE</code> level.
+	 * Logs a message template with one <code>double</code> argument with the
+	 * specified level, the argument is held without boxing and the template is only
+	 * filled in when the event is formatted.
 	 * 
-	 * @param message - Message object.
+	 * @param level    - Log level.
+	 * 
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
 	 */
-	public void severe(Object message) {
-		log(Level.SEVERE, message);
+	public void log(Level level, String template, double argument) {
+		log(level, template, ArgumentType.DOUBLE, Double.doubleToRawLongBits(argument));
 	}
 
 	/**
-	 * Logs a message object and a stack trace with the <code>SEVERE</code> level.
+	 * Logs a message template with one <code>float</code> argument with the
+	 * specified level, the argument is held without boxing and the template is only
+	 * filled in when the event is formatted.
 	 * 
-	 * @param message   - Message object.
+	 * @param level    - Log level.
 	 * 
-	 * @param throwable - Throwable stack trace.
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
 	 */
-	public void severe(Object message, Throwable throwable) {
-		log(Level.SEVERE, message, throwable);
+	public void log(Level level, String template, float argument) {
+		log(level, template, ArgumentType.FLOAT, Double.doubleToRawLongBits(argument));
 	}
 
 	/**
-	 * Logs a message object with the specified level.
+	 * Logs a message template with one <code>char</code> argument with the
+	 * specified level, the argument is held without boxing and the template is only
+	 * filled in when the event is formatted.
 	 * 
-	 * @param level   - Log level.
+	 * @param level    - Log level.
 	 * 
-	 * @param message - Message object.
+	 * @param template - Message template.
+	 * 
+	 * @param argument - Template argument.
 	 */
-	public void log(Level level, Object message) {
-		log(level, message, null);
+	public void log(Level level, String template, char argument) {
+		log(level, template, ArgumentType.CHAR, argument);
+	}
+
+	/*
+	 * Logs a message template with one primitive argument, which the log holds as
+	 * its raw bits.
+	 */
+	private void log(Level level, String template, ArgumentType type, long bits) {
+		if (level.getNumber() >= threshold) {
+			Configuration config = configuration;
+			FilterResult result = FilterUtils.decide(config.FILTER, this, level);
+			if (result != FilterResult.DENY) {
+				Template parsed = Template.of(template);
+				Log event = reusableLog();
+				if (event == null) {
+					event = new Log(false);
+				}
+				log(config, event.set(this, level, parsed, type, bits), result);
+			}
+		}
 	}
 
 	/**
-	 * Logs a message object and a stack trace with the specified level.
+	 * Logs a message template with two arguments with the specified level, the
+	 * template is only filled in when the event is formatted.
+	 * 
+	 * If the last argument is a <code>Throwable</code> which has no placeholder
+	 * left in the template it is logged as the stack trace.
 	 * 
 	 * @param level     - Log level.
 	 * 
-	 * @param message   - Message object.
+	 * @param template  - Message template.
 	 * 
-	 * @param throwable - Throwable stack trace.
+	 * @param argument0 - First template argument.
+	 * 
+	 * @param argument1 - Second template argument.
 	 */
-	public void log(Level level, Object message, Throwable throwable) {
-		Level loggerLevel = useParentLevel ? parent.getLevel() : getLevel();
+	public void log(Level level, String template, Object argument0, Object argument1) {
+		if (level.getNumber() >= threshold) {
+			Configuration config = configuration;
+			FilterResult result = FilterUtils.decide(config.FILTER, this, level);
+			if (result != FilterResult.DENY) {
+				Template parsed = Template.of(template);
+				Log event = reusableLog();
+				if (event == null) {
+					event = new Log(false);
+				}
+				if (argument1 instanceof Throwable && parsed.getPlaceholderCount() < 2) {
+					event.set(this, level, parsed, 1, argument0, null, null, (Throwable) argument1);
+				} else {
+					event.set(this, level, parsed, 2, argument0, argument1, null, null);
+				}
+				log(config, event, result);
+			}
+		}
+	}
 
-		if (level.getNumber() >= loggerLevel.getNumber()) {
-			log(new Log(this, level, message, throwable));
+	/**
+	 * Logs a message template with any number of arguments with the specified
+	 * level, the template is only filled in when the event is formatted.
+	 * 
+	 * If the last argument is a <code>Throwable</code> which has no placeholder
+	 * left in the template it is logged as the stack trace.
+	 * 
+	 * A bare <code>null</code> argument matches both this method and the
+	 * <code>Throwable</code> overload, so it must be cast to
+	 * <code>Object</code> or <code>Throwable</code>.
+	 * 
+	 * @param level     - Log level.
+	 * 
+	 * @param template  - Message template.
+	 * 
+	 * @param arguments - Template arguments.
+	 */
+	public void log(Level level, String template, Object... arguments) {
+		if (level.getNumber() >= threshold) {
+			Configuration config = configuration;
+			FilterResult result = FilterUtils.decide(config.FILTER, this, level);
+			if (result != FilterResult.DENY) {
+				Template parsed = Template.of(template);
+				int count = arguments != null ? arguments.length : 0;
+				Throwable thrown = null;
+				if (count > 0 && arguments[count - 1] instanceof Throwable && parsed.getPlaceholderCount() < count) {
+					thrown = (Throwable) arguments[--count];
+				}
+				Log event = reusableLog();
+				log(config, event != null ? event.set(this, level, parsed, count, null, null, arguments, thrown)
+						: new Log(this, level, parsed, count, null, null, arguments, thrown), result);
+			}
 		}
 	}
 
 	/**
 	 * Logs a <code>LoggerEvent</code> object.
 	 * 
-	 * @param event - Log object.
+	 * @param config   - Effective configuration.
+	 * 
+	 * @param event    - Log object.
+	 * 
+	 * @param decision - Filter decision made before the log was created.
 	 */
-	private void log(Log event) {
-		/*
-		 * Pass log to filter, only progress if the filter returns true.
-		 */
-		if (getFilter().filter(event)) {
+	private void log(Configuration config, Log event, FilterResult decision) {
+		try {
 			/*
-			 * Pass log to formatter and set the formatted message.
+			 * Pass log to filter unless it was already accepted, only progress if the
+			 * filter does not deny it.
 			 */
-			event.setFormattedMessage(getFormatter().format(event));
-			/*
-			 * Cycle through all set appenders and pass log file.
-			 */
-			for (Appender appender : getAppenders()) {
-				appender.append(event);
+			if (decision == FilterResult.ACCEPT || FilterUtils.decide(config.FILTER, event) != FilterResult.DENY) {
+				/*
+				 * Hand the formatter to the log, the message is formatted on first use.
+				 */
+				event.setFormatter(config.FORMATTER);
+				/*
+				 * Hand the log to the dispatcher thread or append it straight away, the
+				 * dispatcher copies reusable logs into its own slots.
+				 */
+				if (config.DISPATCHER != null) {
+					config.DISPATCHER.publish(event);
+				} else {
+					append(config, event);
+				}
+			}
+		} finally {
+			if (event.isReusable()) {
+				event.clear();
+			}
+		}
+	}
+
+	/*
+	 * Returns the reusable log of the calling thread in garbage-free mode, or null
+	 * if the mode is off or the log is already carrying an event further up the
+	 * stack, for example when an appender logs.
+	 */
+	private static Log reusableLog() {
+		if (garbageFree) {
+			Log event = EVENTS.get();
+			if (event.isFree()) {
+				return event;
 			}
 		}
+		return null;
+	}
+
+	/**
+	 * Passes an accepted <code>Log</code> to the current appenders of this logger,
+	 * this is called by the <code>AsyncDispatcher</code> consumer thread.
+	 * 
+	 * @param event - Log object.
+	 */
+	void dispatch(Log event) {
+		append(configuration, event);
+	}
+
+	/*
+	 * Cycles through all set appenders and passes the log, the snapshot array is
+	 * walked directly so nothing is allocated per event and changes made by other
+	 * threads while it is walked only affect the next event.
+	 */
+	private static void append(Configuration config, Log event) {
+		Appender[] appenders = config.APPENDERS;
+		for (int i = 0; i < appenders.length; i++) {
+			appenders[i].append(event);
+		}
 	}
 
 	/**
@@ -257,12 +1122,27 @@ public class Logger {
 	}
 
 	/**
-	 * Sets the logger parent.
+	 * Sets the logger parent, if the specified parent is this logger or one of its
+	 * descendants it will be ignored.
 	 * 
 	 * @param parent - Logger parent.
 	 */
 	public void setParent(Logger parent) {
-		this.parent = parent;
+		synchronized (HIERARCHY) {
+			for (Logger ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+				if (ancestor == this) {
+					return;
+				}
+			}
+			if (this.parent != null) {
+				this.parent.children.remove(this);
+			}
+			this.parent = parent;
+			if (parent != null) {
+				parent.children.add(this);
+			}
+			update();
+		}
 	}
 
 	/**
@@ -280,7 +1160,20 @@ public class Logger {
 	 * @param level - Logger level.
 	 */
 	public void setLevel(Level level) {
-		this.level = level;
+		synchronized (HIERARCHY) {
+			this.level = level;
+			update();
+		}
+	}
+
+	/**
+	 * Returns the effective logger level, this is the parent level when the use
+	 * parent level flag is set.
+	 * 
+	 * @return Effective logger level.
+	 */
+	public Level getEffectiveLevel() {
+		return configuration.LEVEL;
 	}
 
 	/**
@@ -299,7 +1192,10 @@ public class Logger {
 	 * @param useParentLevel - Parent level flag.
 	 */
 	public void setUseParentLevel(boolean useParentLevel) {
-		this.useParentLevel = useParentLevel;
+		synchronized (HIERARCHY) {
+			this.useParentLevel = useParentLevel;
+			update();
+		}
 	}
 
 	/**
@@ -308,12 +1204,7 @@ public class Logger {
 	 * @return Logger filter.
 	 */
 	public Filter getFilter() {
-		if (useParentFilter) {
-			if (getParent() != null) {
-				return parent.getFilter();
-			}
-		}
-		return filter;
+		return configuration.FILTER;
 	}
 
 	/**
@@ -322,7 +1213,10 @@ public class Logger {
 	 * @param filter - Filter instance.
 	 */
 	public void setFilter(Filter filter) {
-		this.filter = filter;
+		synchronized (HIERARCHY) {
+			this.filter = filter;
+			update();
+		}
 	}
 
 	/**
@@ -341,7 +1235,10 @@ public class Logger {
 	 * @param useParentLevel - Parent level flag.
 	 */
 	public void setUseParentFilter(boolean useParentFilter) {
-		this.useParentFilter = useParentFilter;
+		synchronized (HIERARCHY) {
+			this.useParentFilter = useParentFilter;
+			update();
+		}
 	}
 
 	/**
@@ -350,12 +1247,7 @@ public class Logger {
 	 * @return Logger formatter.
 	 */
 	public Formatter getFormatter() {
-		if (useParentFormatter) {
-			if (getParent() != null) {
-				return parent.getFormatter();
-			}
-		}
-		return formatter;
+		return configuration.FORMATTER;
 	}
 
 	/**
@@ -364,7 +1256,10 @@ public class Logger {
 	 * @param formatter - Logger formatter.
 	 */
 	public void setFormatter(Formatter formatter) {
-		this.formatter = formatter;
+		synchronized (HIERARCHY) {
+			this.formatter = formatter;
+			update();
+		}
 	}
 
 	/**
@@ -383,7 +1278,10 @@ public class Logger {
 	 * @param useParentLevel - Parent formatter flag.
 	 */
 	public void setUseParentFormatter(boolean useParentFormatter) {
-		this.useParentFormatter = useParentFormatter;
+		synchronized (HIERARCHY) {
+			this.useParentFormatter = useParentFormatter;
+			update();
+		}
 	}
 
 	/**
@@ -397,7 +1295,14 @@ public class Logger {
 	 */
 	public boolean addAppender(Appender appender) {
 		if (!(appender == null)) {
-			return appenders.add(appender);
+			AppenderRegistry.retain(appender);
+			synchronized (HIERARCHY) {
+				Appender[] added = Arrays.copyOf(appenders, appenders.length + 1);
+				added[appenders.length] = appender;
+				appenders = added;
+				update();
+				return true;
+			}
 		}
 		return false;
 	}
@@ -413,30 +1318,87 @@ public class Logger {
 	 */
 	public boolean removeAppender(Appender appender) {
 		if (!(appender == null)) {
-			return appenders.remove(appender);
+			Appender found = null;
+			synchronized (HIERARCHY) {
+				for (int i = 0; i < appenders.length; i++) {
+					if (appender.equals(appenders[i])) {
+						found = appenders[i];
+						Appender[] removed = new Appender[appenders.length - 1];
+						System.arraycopy(appenders, 0, removed, 0, i);
+						System.arraycopy(appenders, i + 1, removed, i, removed.length - i);
+						appenders = removed;
+						update();
+						break;
+					}
+				}
+			}
+			if (found != null) {
+				AppenderRegistry.release(found);
+				return true;
+			}
 		}
 		return false;
 	}
 
 	/**
-	 * Returns the current logger appenders.
+	 * Adds the appender registered under the specified name to the end of the
+	 * list, if no appender is registered under the name it will be ignored.
+	 * 
+	 * @param name - Registered appender name.
+	 * 
+	 * @return <code>true</code> if the appender was added, <code>false</code>
+	 *         otherwise.
+	 */
+	public boolean addAppender(String name) {
+		return addAppender(AppenderRegistry.get(name));
+	}
+
+	/**
+	 * Returns the current logger appenders, including the appenders reached
+	 * through additivity or the parent appenders flag.
 	 * 
-	 * @return Logger appenders.
+	 * @return Unmodifiable view of the logger appenders.
 	 */
 	public Collection<Appender> getAppenders() {
-		if (useParentAppenders) {
-			if (getParent() != null) {
-				return getParent().getAppenders();
-			}
-		}
-		return Collections.unmodifiableCollection(appenders);
+		return Collections.unmodifiableList(Arrays.asList(configuration.APPENDERS));
 	}
 
 	/**
 	 * Clears the appenders list.
 	 */
 	public void clearAppenders() {
-		appenders.clear();
+		Appender[] cleared;
+		synchronized (HIERARCHY) {
+			cleared = appenders;
+			appenders = NO_APPENDERS;
+			update();
+		}
+		for (Appender appender : cleared) {
+			AppenderRegistry.release(appender);
+		}
+	}
+
+	/**
+	 * Returns the additivity flag.
+	 * 
+	 * @return Additivity flag.
+	 */
+	public boolean getAdditivity() {
+		return additive;
+	}
+
+	/**
+	 * Sets the additivity flag, if this is set to <code>true</code> the logger
+	 * passes its events to the appenders of its ancestors as well as its own,
+	 * each distinct appender once. The parent appenders flag takes precedence.
+	 * 
+	 * @param additive - Additivity flag.
+	 */
+	public void setAdditivity(boolean additive) {
+		synchronized (HIERARCHY) {
+			this.additive = additive;
+			update();
+		}
 	}
 
 	/**
@@ -455,7 +1417,96 @@ public class Logger {
 	 * @param useParentLevel - Parent formatter flag.
 	 */
 	public void setUseParentAppenders(boolean useParentAppenders) {
-		this.useParentAppenders = useParentAppenders;
+		synchronized (HIERARCHY) {
+			this.useParentAppenders = useParentAppenders;
+			update();
+		}
+	}
+
+	/**
+	 * Returns the asynchronous dispatcher set on this logger.
+	 * 
+	 * @return Asynchronous dispatcher or <code>null</code> if none is set.
+	 */
+	public AsyncDispatcher getAsyncDispatcher() {
+		return asyncDispatcher;
+	}
+
+	/**
+	 * Sets the asynchronous dispatcher and starts it if it is not running,
+	 * accepted events are then formatted and appended on the dispatcher thread
+	 * instead of the logging thread. Loggers without a dispatcher of their own
+	 * use the dispatcher of their nearest ancestor which has one, setting
+	 * <code>null</code> restores that. Once the dispatcher is stopped, events are
+	 * appended on the logging thread again.
+	 * 
+	 * @param asyncDispatcher - Asynchronous dispatcher or <code>null</code>.
+	 */
+	public void setAsyncDispatcher(AsyncDispatcher asyncDispatcher) {
+		if (asyncDispatcher != null) {
+			asyncDispatcher.start();
+		}
+		synchronized (HIERARCHY) {
+			this.asyncDispatcher = asyncDispatcher;
+			update();
+		}
+	}
+
+	/**
+	 * Returns the clock used to timestamp new logs.
+	 * 
+	 * @return Log clock.
+	 */
+	public static Clock getClock() {
+		return clock;
+	}
+
+	/**
+	 * Sets the clock used to timestamp new logs, a <code>CachedClock</code> trades
+	 * precision for a cheaper read. If the clock is null it will be ignored.
+	 * 
+	 * @param clock - Log clock.
+	 */
+	public static void setClock(Clock clock) {
+		if (clock != null) {
+			Logger.clock = clock;
+		}
+	}
+
+	/**
+	 * Returns the current time of the log clock.
+	 * 
+	 * @return Milliseconds since the epoch.
+	 */
+	static long currentTimeMillis() {
+		return clock.currentTimeMillis();
+	}
+
+	/**
+	 * Returns the garbage-free mode flag.
+	 * 
+	 * @return Garbage-free mode flag.
+	 */
+	public static boolean isGarbageFree() {
+		return garbageFree;
+	}
+
+	/**
+	 * Sets the garbage-free mode flag, if this is set to <code>true</code> the
+	 * loggers reuse <code>Log</code> instances instead of creating one per event.
+	 * The mode can also be turned on with the <code>logman.garbageFree</code>
+	 * system property.
+	 * 
+	 * Logging allocates nothing for plain messages and for templates with one or
+	 * two arguments which are already objects, such as strings, or with a single
+	 * primitive argument passed to a primitive overload. The compiler boxes
+	 * primitives passed as <code>Object</code> arguments and builds an array for
+	 * three or more arguments, those calls allocate before the logger is reached.
+	 * 
+	 * @param garbageFree - Garbage-free mode flag.
+	 */
+	public static void setGarbageFree(boolean garbageFree) {
+		Logger.garbageFree = garbageFree;
 	}
 
 	/**
@@ -502,22 +1553,115 @@ public class Logger {
 	 * @return <code>Logger</code> instance.
 	 */
 	public static final Logger getLogger(String name) {
-		if (Cache.containsLogger(name)) {
-			return Cache.getLogger(name);
-		} else {
-			Logger logger = new Logger(name);
-			if (name.equals("GLOBAL")) {
-				logger.setParent(null);
-				logger.setUseParentAppenders(false);
-				logger.setUseParentFilter(false);
-				logger.setUseParentFormatter(false);
-				logger.setUseParentLevel(false);
+		Logger logger = Cache.getLogger(name);
+		if (logger != null) {
+			return logger;
+		}
+		synchronized (HIERARCHY) {
+			/*
+			 * Another thread may have registered the same name since the lookup.
+			 */
+			logger = Cache.getLogger(name);
+			if (logger != null) {
+				return logger;
+			}
+			logger = new Logger(name);
+			/*
+			 * The global logger is created first and becomes the root of the tree, it
+			 * holds the shared standard output appender.
+			 */
+			Logger parent = getNearestAncestor(name);
+			if (parent == null) {
+				Appender stdout = AppenderRegistry.register(AppenderRegistry.STDOUT, new StdOutAppender());
+				AppenderRegistry.retain(stdout);
+				logger.appenders = new Appender[] { stdout };
 			} else {
-				logger.setParent(GLOBAL);
+				/*
+				 * Adopt the children of the new parent which sit below this name.
+				 */
+				String prefix = name + '.';
+				for (Iterator<Logger> it = parent.children.iterator(); it.hasNext();) {
+					Logger child = it.next();
+					if (child.name.startsWith(prefix)) {
+						it.remove();
+						child.parent = logger;
+						logger.children.add(child);
+					}
+				}
+				parent.children.add(logger);
 			}
-			logger.addAppender(new StdOutAppender());
+			logger.parent = parent;
+			logger.update();
 			Cache.addLogger(logger);
 			return logger;
 		}
 	}
+
+	/**
+	 * Returns the nearest existing ancestor of the specified name in the Logger
+	 * namespace, if no ancestor exists the global logger is returned.
+	 * 
+	 * @param name - Logger name.
+	 * 
+	 * @return Nearest ancestor logger.
+	 */
+	private static Logger getNearestAncestor(String name) {
+		for (int i = name.lastIndexOf('.'); i > 0; i = name.lastIndexOf('.', i - 1)) {
+			Logger ancestor = Cache.getLogger(name.substring(0, i));
+			if (ancestor != null) {
+				return ancestor;
+			}
+		}
+		return GLOBAL;
+	}
+
+	/*
+	 * Recomputes the effective configuration of this logger from its own settings
+	 * and the configuration of its parent, then pushes the change down to every
+	 * descendant. The caller must hold the hierarchy lock.
+	 */
+	private void update() {
+		Configuration inherited = parent != null ? parent.configuration : null;
+		boolean inherit = inherited != null;
+
+		Appender[] effective = appenders;
+		if (inherit && useParentAppenders) {
+			effective = inherited.APPENDERS;
+		} else if (inherit && additive) {
+			effective = merge(appenders, inherited.APPENDERS);
+		}
+		Configuration config = new Configuration(
+				inherit && useParentLevel ? inherited.LEVEL : level,
+				inherit && useParentFilter ? inherited.FILTER : filter,
+				inherit && useParentFormatter ? inherited.FORMATTER : formatter,
+				effective,
+				asyncDispatcher == null && inherit ? inherited.DISPATCHER : asyncDispatcher);
+		configuration = config;
+		threshold = config.LEVEL.getNumber();
+
+		for (Logger child : children) {
+			child.update();
+		}
+	}
+
+	/*
+	 * Returns the own appenders followed by the inherited appenders which are not
+	 * among them, sharing either array when the other one adds nothing.
+	 */
+	private static Appender[] merge(Appender[] own, Appender[] inherited) {
+		if (own.length == 0) {
+			return inherited;
+		}
+		Appender[] merged = Arrays.copyOf(own, own.length + inherited.length);
+		int size = own.length;
+		outer: for (Appender appender : inherited) {
+			for (int i = 0; i < own.length; i++) {
+				if (own[i] == appender) {
+					continue outer;
+				}
+			}
+			merged[size++] = appender;
+		}
+		return size == own.length ? own : Arrays.copyOf(merged, size);
+	}
 }
\ No newline at end of file
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman;
+
+/**
+ * The <code>OverflowPolicy</code> enum defines what an
+ * <code>AsyncDispatcher</code> does with a new event when its ring buffer is
+ * full.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public enum OverflowPolicy {
+	/**
+	 * The <code>BLOCK</code> policy makes the logging thread wait until the
+	 * consumer has freed a slot, no event is ever lost.
+	 */
+	BLOCK,
+
+	/**
+	 * The <code>DROP</code> policy discards the new event and counts it as
+	 * dropped, the logging thread never waits.
+	 */
+	DROP,
+
+	/**
+	 * The <code>DROP_BELOW_LEVEL</code> policy discards new events below the drop
+	 * level of the dispatcher and blocks for every other event.
+	 */
+	DROP_BELOW_LEVEL;
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman;
+
+/**
+ * The <code>Supplier</code> interface lazily builds a log message, it is only
+ * called once the level and filter of the <code>Logger</code> have accepted the
+ * event and something asks for the message.
+ * 
+ * The interface has a single method so it can be implemented with a lambda
+ * expression on platforms that support them.
+ * 
+ * @param <T> - Message type.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public interface Supplier<T> {
+	/**
+	 * Builds the message.
+	 * 
+	 * @return Message object.
+	 */
+	public T get();
+}
\ No newline at end of file
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The <code>Template</code> class holds a parsed message template, the
+ * positions of the <code>{}</code> placeholders are found once and the parsed
+ * template is cached by the identity of the template string.
+ * 
+ * Template strings are normally literals, which the JVM interns, so each call
+ * site parses its template once instead of once per event. The cache is a
+ * fixed size table indexed by identity hash, colliding templates are placed in
+ * the next free slot within a few probes so the cache never grows and never
+ * takes a lock. Once every probed slot is taken, a template which has not been
+ * used since the slots were last probed makes way for the new one, so
+ * templates built at run time are evicted while those of busy call sites stay
+ * cached.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+final class Template {
+	/*
+	 * Number of cached templates, this must be a power of two.
+	 */
+	private static final int CACHE_SIZE = 4096;
+
+	/*
+	 * Number of slots probed for a template.
+	 */
+	private static final int PROBES = 8;
+
+	/*
+	 * The template cache, indexed by identity hash.
+	 */
+	private static final AtomicReferenceArray<Template> CACHE = new AtomicReferenceArray<Template>(CACHE_SIZE);
+
+	/*
+	 * The template string.
+	 */
+	final String PATTERN;
+
+	/*
+	 * The index of each placeholder within the template string.
+	 */
+	private final int[] PLACEHOLDERS;
+
+	/*
+	 * The use flag, set when the template is found in the cache and cleared when
+	 * its slot is probed by a full cache.
+	 */
+	private volatile boolean isUsed;
+
+	/**
+	 * Constructs a new <code>Template</code> instance by parsing the specified
+	 * template string.
+	 * 
+	 * @param pattern - Template string.
+	 */
+	private Template(String pattern) {
+		PATTERN = pattern;
+		int count = 0;
+		for (int i = pattern.indexOf("{}"); i >= 0; i = pattern.indexOf("{}", i + 2)) {
+			count++;
+		}
+		PLACEHOLDERS = new int[count];
+		count = 0;
+		for (int i = pattern.indexOf("{}"); i >= 0; i = pattern.indexOf("{}", i + 2)) {
+			PLACEHOLDERS[count++] = i;
+		}
+	}
+
+	/**
+	 * Returns the parsed template for the specified template string, parsing it if
+	 * it is not already cached.
+	 * 
+	 * @param pattern - Template string.
+	 * 
+	 * @return Parsed template.
+	 */
+	static Template of(String pattern) {
+		if (pattern == null) {
+			pattern = "null";
+		}
+		int hash = System.identityHashCode(pattern);
+		for (int i = 0; i < PROBES; i++) {
+			int index = hash + i & CACHE_SIZE - 1;
+			Template template = CACHE.get(index);
+			if (template == null) {
+				template = new Template(pattern);
+				if (CACHE.compareAndSet(index, null, template)) {
+					return template;
+				}
+				template = CACHE.get(index);
+			}
+			if (template.PATTERN == pattern) {
+				if (!template.isUsed) {
+					template.isUsed = true;
+				}
+				return template;
+			}
+		}
+		Template template = new Template(pattern);
+		for (int i = 0; i < PROBES; i++) {
+			int index = hash + i & CACHE_SIZE - 1;
+			Template cached = CACHE.get(index);
+			if (cached.isUsed) {
+				cached.isUsed = false;
+			} else if (CACHE.compareAndSet(index, cached, template)) {
+				break;
+			}
+		}
+		return template;
+	}
+
+	/**
+	 * Returns the number of placeholders within the template.
+	 * 
+	 * @return Placeholder count.
+	 */
+	int getPlaceholderCount() {
+		return PLACEHOLDERS.length;
+	}
+
+	/**
+	 * Appends the template to the specified buffer, each placeholder is replaced
+	 * by the matching argument of the log. Placeholders without an argument are
+	 * left as they are and extra arguments are ignored. Primitive arguments are
+	 * appended without boxing them.
+	 * 
+	 * @param out - Output buffer.
+	 * 
+	 * @param log - Log holding the arguments.
+	 */
+	void render(StringBuilder out, Log log) {
+		int count = log.getArgumentCount();
+		int last = 0;
+		for (int i = 0; i < PLACEHOLDERS.length && i < count; i++) {
+			int index = PLACEHOLDERS[i];
+			out.append(PATTERN, last, index);
+			switch (log.getArgumentType(i)) {
+			case LONG:
+				out.append(log.getLongArgument(i));
+				break;
+			case DOUBLE:
+				out.append(log.getDoubleArgument(i));
+				break;
+			case FLOAT:
+				out.append((float) log.getDoubleArgument(i));
+				break;
+			case CHAR:
+				out.append((char) log.getLongArgument(i));
+				break;
+			default:
+				appendValue(out, log.getArgument(i));
+			}
+			last = index + 2;
+		}
+		out.append(PATTERN, last, PATTERN.length());
+	}
+
+	/**
+	 * Appends the specified value to the buffer, boxed primitives and character
+	 * sequences are appended directly so they do not build a temporary string.
+	 * 
+	 * @param out   - Output buffer.
+	 * 
+	 * @param value - Value to append.
+	 */
+	static void appendValue(StringBuilder out, Object value) {
+		if (value instanceof CharSequence) {
+			out.append((CharSequence) value);
+		} else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			out.append(((Number) value).intValue());
+		} else if (value instanceof Long) {
+			out.append(((Long) value).longValue());
+		} else if (value instanceof Double) {
+			out.append(((Double) value).doubleValue());
+		} else if (value instanceof Float) {
+			out.append(((Float) value).floatValue());
+		} else if (value instanceof Boolean) {
+			out.append(((Boolean) value).booleanValue());
+		} else if (value instanceof Character) {
+			out.append(((Character) value).charValue());
+		} else {
+			out.append(value);
+		}
+	}
+}
\ No newline at end of file
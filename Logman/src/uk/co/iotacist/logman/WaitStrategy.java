@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman;
+
+/**
+ * The <code>WaitStrategy</code> enum defines how the threads of an
+ * <code>AsyncDispatcher</code> wait, the consumer waits while the ring buffer
+ * is empty and blocked producers wait while it is full.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public enum WaitStrategy {
+	/**
+	 * The <code>SPIN</code> strategy busy spins, it gives the lowest latency at the
+	 * cost of a fully used core.
+	 */
+	SPIN,
+
+	/**
+	 * The <code>YIELD</code> strategy yields the processor between checks, it keeps
+	 * latency low while letting other threads run.
+	 */
+	YIELD,
+
+	/**
+	 * The <code>PARK</code> strategy parks waiting threads, it uses almost no
+	 * processor time while idle at the cost of a wake up on the next event.
+	 */
+	PARK;
+}
\ No newline at end of file
@@ -0,0 +1,356 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.appender;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import uk.co.iotacist.logman.Log;
+import uk.co.iotacist.logman.formatter.BinaryFormatter;
+
+/**
+ * The <code>BinaryFileAppender</code> class writes logs to a file in the
+ * compact block format of the <code>BinaryFormatter</code>, the file can be
+ * turned back into text with the <code>BinaryLogDecoder</code>.
+ *
+ * Logs are encoded into the current block, which is written to the file once
+ * it is full or once it is older than the flush interval, whichever comes
+ * first. Blocks are never split, so a crash only loses the block being
+ * filled. A log larger than a whole block gets a block of its own. A partial
+ * block left at the end of the file by a crash is cut off when the file is
+ * opened, so new blocks follow the last complete one.
+ *
+ * The interrupt flag of the calling thread is cleared around every write and
+ * force and restored afterwards, as an interrupt would close the channel.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class BinaryFileAppender implements Appender, Closeable {
+	/**
+	 * The default block size in bytes.
+	 */
+	public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+	/**
+	 * The default number of milliseconds a block is kept before it is written.
+	 */
+	public static final long DEFAULT_FLUSH_MILLIS = 1000L;
+
+	/*
+	 * The output file.
+	 */
+	private final File file;
+
+	/*
+	 * The output file channel.
+	 */
+	private FileChannel channel;
+
+	/*
+	 * The block encoder.
+	 */
+	private final BinaryFormatter formatter = new BinaryFormatter();
+
+	/*
+	 * The block size.
+	 */
+	private final int blockSize;
+
+	/*
+	 * The number of nanoseconds a block is kept before it is written.
+	 */
+	private final long flushNanos;
+
+	/*
+	 * The current block, the records follow the space left for the header.
+	 */
+	private ByteBuffer block;
+
+	/*
+	 * The base timestamp of the current block.
+	 */
+	private long baseMillis;
+
+	/*
+	 * The nanosecond time the current block was started, or 0 if it is empty.
+	 */
+	private volatile long startNanos;
+
+	/*
+	 * The closed flag.
+	 */
+	private volatile boolean isClosed;
+
+	/*
+	 * The flusher thread.
+	 */
+	private final Thread flusher;
+
+	/**
+	 * Constructs a new <code>BinaryFileAppender</code> instance which appends to
+	 * the specified file with the default block size and flush interval.
+	 * 
+	 * @param file - Output file.
+	 * 
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public BinaryFileAppender(File file) throws IOException {
+		this(file, DEFAULT_BLOCK_SIZE, DEFAULT_FLUSH_MILLIS);
+	}
+
+	/**
+	 * Constructs a new <code>BinaryFileAppender</code> instance which appends to
+	 * the specified file with the specified block size and flush interval.
+	 * 
+	 * @param file        - Output file.
+	 * 
+	 * @param blockSize   - Block size in bytes, including the header.
+	 * 
+	 * @param flushMillis - Milliseconds a block is kept before it is written.
+	 * 
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public BinaryFileAppender(File file, int blockSize, long flushMillis) throws IOException {
+		this.file = file;
+		this.blockSize = Math.max(BinaryFormatter.HEADER_SIZE + 256, blockSize);
+		this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1L, flushMillis));
+		this.block = ByteBuffer.allocateDirect(this.blockSize);
+		this.block.position(BinaryFormatter.HEADER_SIZE);
+		this.channel = open(file);
+		this.flusher = new Thread(new Flusher(), "Logman-BinaryFileAppender");
+		this.flusher.setDaemon(true);
+		this.flusher.start();
+	}
+
+	/**
+	 * Encodes the specified <code>Log</code> into the current block, writing the
+	 * block first if the log does not fit. Logs appended after the appender has
+	 * been closed are ignored.
+	 * 
+	 * @param log - Log instance.
+	 */
+	@Override
+	public synchronized void append(Log log) {
+		if (isClosed) {
+			return;
+		}
+		boolean interrupted = Thread.interrupted();
+		try {
+			export(log);
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/*
+	 * Encodes the log with the interrupt flag of the calling thread cleared.
+	 */
+	private void export(Log log) {
+		if (startNanos == 0L) {
+			start(log.getTimeMillis());
+		}
+		if (formatter.encode(log, block)) {
+			return;
+		}
+		if (block.position() > BinaryFormatter.HEADER_SIZE) {
+			writeBlock();
+			start(log.getTimeMillis());
+		}
+		while (!formatter.encode(log, block)) {
+			/*
+			 * The log is larger than a block, give it a larger one.
+			 */
+			block = ByteBuffer.allocateDirect(block.capacity() * 2);
+			block.position(BinaryFormatter.HEADER_SIZE);
+		}
+		if (block.capacity() > blockSize) {
+			writeBlock();
+			block = ByteBuffer.allocateDirect(blockSize);
+			block.position(BinaryFormatter.HEADER_SIZE);
+		}
+	}
+
+	/**
+	 * Writes the current block to the file and forces the file to the storage
+	 * device.
+	 */
+	public synchronized void flush() {
+		if (!isClosed) {
+			boolean interrupted = Thread.interrupted();
+			try {
+				writeBlock();
+				channel.force(false);
+			} catch (IOException e) {
+				e.printStackTrace();
+			} finally {
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the current block and closes the file, stopping the flusher thread.
+	 * 
+	 * @throws IOException If the file cannot be closed.
+	 */
+	@Override
+	public void close() throws IOException {
+		synchronized (this) {
+			if (isClosed) {
+				return;
+			}
+			boolean interrupted = Thread.interrupted();
+			try {
+				writeBlock();
+				isClosed = true;
+				channel.force(false);
+			} finally {
+				channel.close();
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+		LockSupport.unpark(flusher);
+	}
+
+	/**
+	 * Returns the output file.
+	 * 
+	 * @return Output file.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the block size.
+	 * 
+	 * @return Block size in bytes.
+	 */
+	public int getBlockSize() {
+		return blockSize;
+	}
+
+	/*
+	 * Starts a new block with the specified base timestamp.
+	 */
+	private void start(long millis) {
+		baseMillis = millis;
+		formatter.startBlock(millis);
+		startNanos = Math.max(1L, System.nanoTime());
+	}
+
+	/*
+	 * Opens the file for appending and cuts off a partial block at its end. A
+	 * corrupt block header before the end is left to the decoder.
+	 */
+	private static FileChannel open(File file) throws IOException {
+		if (file.isFile()) {
+			FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			try {
+				ByteBuffer header = ByteBuffer.allocate(BinaryFormatter.HEADER_SIZE);
+				long size = channel.size();
+				long position = 0;
+				while (position < size) {
+					header.clear();
+					while (header.hasRemaining() && channel.read(header, position + header.position()) > 0) {
+						/*
+						 * Read the rest of the header.
+						 */
+					}
+					if (!header.hasRemaining()
+							&& (header.getInt(0) != BinaryFormatter.MAGIC || header.getInt(4) < 0)) {
+						break;
+					}
+					long end = position + BinaryFormatter.HEADER_SIZE + header.getInt(4);
+					if (header.hasRemaining() || end > size) {
+						System.err.println("Truncating partial block at offset " + position + " of " + file);
+						channel.truncate(position);
+						break;
+					}
+					position = end;
+				}
+			} finally {
+				channel.close();
+			}
+		}
+		return FileAppender.open(file);
+	}
+
+	/*
+	 * Writes the header and the records of the current block to the file and
+	 * empties the block, the caller must hold the lock and have cleared the
+	 * interrupt flag. The file is opened again if an interrupt closed the
+	 * channel, which also cuts off the block it tore.
+	 */
+	private void writeBlock() {
+		if (block.position() > BinaryFormatter.HEADER_SIZE) {
+			BinaryFormatter.writeHeader(block, baseMillis);
+			block.flip();
+			try {
+				if (!channel.isOpen()) {
+					channel = open(file);
+				}
+				while (block.hasRemaining()) {
+					channel.write(block);
+				}
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		block.clear();
+		block.position(BinaryFormatter.HEADER_SIZE);
+		startNanos = 0L;
+	}
+
+	/*
+	 * Writes the current block once it is older than the flush interval.
+	 */
+	private class Flusher implements Runnable {
+		@Override
+		public void run() {
+			while (!isClosed) {
+				long started = startNanos;
+				long remaining = started == 0L ? flushNanos : started + flushNanos - System.nanoTime();
+				if (remaining > 0) {
+					LockSupport.parkNanos(this, remaining);
+				} else {
+					synchronized (BinaryFileAppender.this) {
+						if (!isClosed && startNanos == started) {
+							writeBlock();
+						}
+					}
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
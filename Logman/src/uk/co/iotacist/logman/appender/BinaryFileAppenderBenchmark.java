@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.appender;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import uk.co.iotacist.logman.Logger;
+
+/**
+ * The <code>BinaryFileAppenderBenchmark</code> class compares the throughput
+ * and file size of the <code>BinaryFileAppender</code> with a text
+ * <code>FileAppender</code> using the <code>INTERVAL</code> flush policy. For
+ * each appender a number of threads log a mix of templated messages through a
+ * non-additive logger for a fixed time, and the events per second, megabytes
+ * per second and bytes per event written to the file are reported, the time
+ * includes closing the appender.
+ *
+ * Usage: <code>BinaryFileAppenderBenchmark directory [seconds [threads]]</code>,
+ * the files are written to the specified directory and deleted afterwards.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public final class BinaryFileAppenderBenchmark {
+	/*
+	 * The default number of seconds each appender runs for.
+	 */
+	private static final int DEFAULT_SECONDS = 5;
+
+	/*
+	 * Instances of this class may not be made.
+	 */
+	private BinaryFileAppenderBenchmark() {
+	}
+
+	/**
+	 * Runs the benchmark in the directory given as the first argument for the
+	 * number of seconds and threads given as the optional second and third
+	 * arguments.
+	 * 
+	 * @param args - Directory, optional seconds and optional threads.
+	 * 
+	 * @throws IOException          If a file cannot be written.
+	 * 
+	 * @throws InterruptedException If the benchmark is interrupted.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 1 || args.length > 3) {
+			System.err.println("Usage: BinaryFileAppenderBenchmark directory [seconds [threads]]");
+			System.exit(1);
+		}
+		File directory = new File(args[0]);
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+		System.out.printf("%-8s %8s %14s %10s %12s%n", "Format", "Threads", "Events/s", "MB/s", "Bytes/event");
+		run(directory, false, seconds, threads);
+		run(directory, true, seconds, threads);
+	}
+
+	/*
+	 * Runs one appender and prints its throughput.
+	 */
+	private static void run(File directory, boolean isBinary, int seconds, int threads)
+			throws IOException, InterruptedException {
+		String format = isBinary ? "Binary" : "Text";
+		File file = new File(directory, "benchmark-" + format.toLowerCase() + (isBinary ? ".bin" : ".log"));
+		if (file.exists() && !file.delete()) {
+			throw new IOException("Could not delete " + file);
+		}
+		Appender appender = isBinary ? new BinaryFileAppender(file) : new FileAppender(file, FlushPolicy.INTERVAL);
+		final Logger logger = Logger.getLogger(BinaryFileAppenderBenchmark.class.getName() + "." + format);
+		logger.setAdditivity(false);
+		logger.addAppender(appender);
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		final AtomicLong events = new AtomicLong();
+		final CountDownLatch done = new CountDownLatch(threads);
+		long started = System.nanoTime();
+		for (int i = 0; i < threads; i++) {
+			final String name = "Worker-" + i;
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					long count = 0L;
+					while ((count & 0xFF) != 0 || System.nanoTime() < deadline) {
+						switch ((int) count & 3) {
+						case 0:
+							logger.info("Benchmark event from {} with a payload of typical length", name);
+							break;
+						case 1:
+							logger.info("Request {} served in {} ms", count, count % 1000 * 0.25);
+							break;
+						case 2:
+							logger.info("Queue depth is now {}", count & 0x3FF);
+							break;
+						default:
+							logger.warn("Connection from {} closed after {} bytes", name, count * 7);
+						}
+						count++;
+					}
+					events.addAndGet(count);
+					done.countDown();
+				}
+			}, "Logman-Benchmark-" + i);
+			thread.start();
+		}
+		done.await();
+		logger.removeAppender(appender);
+		((Closeable) appender).close();
+		double elapsed = (System.nanoTime() - started) / 1e9;
+		System.out.printf("%-8s %8d %14.0f %10.2f %12.1f%n", format, threads, events.get() / elapsed,
+				file.length() / elapsed / (1024 * 1024), (double) file.length() / Math.max(1L, events.get()));
+		file.delete();
+	}
+}
\ No newline at end of file
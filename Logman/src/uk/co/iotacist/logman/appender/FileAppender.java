@@ -15,35 +15,617 @@
  */
 package uk.co.iotacist.logman.appender;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 import uk.co.iotacist.logman.Log;
 
 /**
- * The <code>FileAppender</code> class takes <code>LoggerEvent</code> messages
- * from the logger and exports them to the specified file.
- * 
+ * The <code>FileAppender</code> class takes <code>Log</code> messages from the
+ * logger and exports them to the specified file.
+ *
+ * Each formatted message is encoded as UTF-8 straight into a reusable direct
+ * buffer, followed by the line separator, and the buffer is written to a
+ * <code>FileChannel</code> opened in append mode. The flush policy decides
+ * when the buffer is written and the file is forced to the storage device.
+ *
+ * Forcing takes a separate lock from encoding, so logging threads keep filling
+ * the buffer while another thread waits for the device. With the
+ * <code>GROUP_COMMIT</code> policy each thread only forces if no force started
+ * after its event was buffered has already made it durable.
+ *
+ * A <code>FileChannel</code> is closed when a thread which uses it is
+ * interrupted, so the interrupt flag of the calling thread is cleared around
+ * every write and force and restored afterwards. Should the channel still be
+ * closed by an interrupt arriving during a write, the file is opened again for
+ * the next event.
+ *
+ * Subclasses may roll the file over by overriding <code>isRolloverDue</code>
+ * and <code>rollover</code>, the appender then swaps in a spare buffer and the
+ * new channel while the old ones are handed to the subclass. Writing, forcing
+ * and closing the old channel is left to <code>retire</code> on another
+ * thread, so a rollover never forces the file with the write lock held. Until
+ * every replaced channel has been retired, <code>GROUP_COMMIT</code> threads
+ * waiting for their events to become durable wait for the retirement too.
+ *
  * @since 1.0
- * 
- * @version 1.1
- * 
+ *
+ * @version 1.2
+ *
  * @author Iotacist <iotacist@gmail.com>
  */
-public class FileAppender implements Appender {
+public class FileAppender implements Appender, Closeable {
+	/**
+	 * The default size of the direct buffer in bytes.
+	 */
+	public static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The default number of buffered bytes after which the
+	 * <code>INTERVAL</code> policy flushes.
+	 */
+	public static final int DEFAULT_FLUSH_BYTES = 8 * 1024;
+
+	/**
+	 * The default number of milliseconds after which the <code>INTERVAL</code>
+	 * policy flushes.
+	 */
+	public static final long DEFAULT_FLUSH_MILLIS = 1000L;
+
+	/*
+	 * The line separator bytes.
+	 */
+	private static final byte[] LINE_SEPARATOR = System.getProperty("line.separator", "\n")
+			.getBytes(Charset.forName("UTF-8"));
+
+	/*
+	 * The output file.
+	 */
+	private final File file;
+
+	/*
+	 * The flush policy.
+	 */
+	private final FlushPolicy flushPolicy;
+
+	/*
+	 * The number of buffered bytes after which the INTERVAL policy flushes.
+	 */
+	private final int flushBytes;
+
+	/*
+	 * The number of nanoseconds after which the INTERVAL policy flushes.
+	 */
+	private final long flushNanos;
+
+	/*
+	 * Guards the buffer, the channel writes and the event sequence.
+	 */
+	private final Object writeLock = new Object();
+
+	/*
+	 * Guards forcing the channel, always taken before the write lock.
+	 */
+	private final Object forceLock = new Object();
+
+	/*
+	 * The reusable direct buffer.
+	 */
+	private ByteBuffer buffer;
+
+	/*
+	 * The buffer handed back after a rollover, or null.
+	 */
+	private ByteBuffer spareBuffer;
+
+	/*
+	 * The output channel.
+	 */
+	private FileChannel channel;
+
+	/*
+	 * The number of bytes written to the current file, buffered bytes included.
+	 */
+	private long size;
+
+	/*
+	 * The sequence of the last buffered event.
+	 */
+	private long appended;
+
+	/*
+	 * The sequence of the last event known to be durable.
+	 */
+	private volatile long durable;
+
+	/*
+	 * The number of replaced channels not yet retired, guarded by the write lock.
+	 */
+	private int retiring;
+
+	/*
+	 * The sequence of the last event written to a replaced channel.
+	 */
+	private long retired;
+
+	/*
+	 * The time of the last flush.
+	 */
+	private volatile long lastFlushNanos = System.nanoTime();
+
+	/*
+	 * The interval flusher thread, or null.
+	 */
+	private Thread flusher;
+
+	/*
+	 * The closed flag.
+	 */
+	private volatile boolean isClosed;
+
+	/*
+	 * The closing flag, it stops the interval flusher.
+	 */
+	private volatile boolean isClosing;
+
+	/**
+	 * Constructs a new <code>FileAppender</code> instance which flushes every 8 KB
+	 * or every second.
+	 *
+	 * @param output - Output file.
+	 *
+	 * @throws IOException If the file could not be opened.
+	 */
+	public FileAppender(File output) throws IOException {
+		this(output, FlushPolicy.INTERVAL);
+	}
+
+	/**
+	 * Constructs a new <code>FileAppender</code> instance with the specified flush
+	 * policy and the default interval limits.
+	 *
+	 * @param output      - Output file.
+	 *
+	 * @param flushPolicy - Flush policy.
+	 *
+	 * @throws IOException If the file could not be opened.
+	 */
+	public FileAppender(File output, FlushPolicy flushPolicy) throws IOException {
+		this(output, flushPolicy, DEFAULT_FLUSH_BYTES, DEFAULT_FLUSH_MILLIS);
+	}
+
+	/**
+	 * Constructs a new <code>FileAppender</code> instance with the specified flush
+	 * policy and interval limits, the limits are only used by the
+	 * <code>INTERVAL</code> policy.
+	 *
+	 * @param output      - Output file.
+	 *
+	 * @param flushPolicy - Flush policy.
+	 *
+	 * @param flushBytes  - Buffered bytes after which the file is flushed.
+	 *
+	 * @param flushMillis - Milliseconds after which the file is flushed, or 0 to
+	 *                    flush on size only.
+	 *
+	 * @throws IOException If the file could not be opened.
+	 */
+	public FileAppender(File output, FlushPolicy flushPolicy, int flushBytes, long flushMillis)
+			throws IOException {
+		this.file = output;
+		this.flushPolicy = flushPolicy == null ? FlushPolicy.INTERVAL : flushPolicy;
+		this.flushBytes = Math.max(1, Math.min(flushBytes, BUFFER_SIZE));
+		this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, flushMillis));
+		this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+		this.channel = open(output);
+		this.size = channel.size();
+		if (this.flushPolicy == FlushPolicy.INTERVAL && flushNanos > 0) {
+			flusher = new Thread(new Flusher(), "Logman-FileAppender-" + output.getName());
+			flusher.setDaemon(true);
+			flusher.start();
+		}
+	}
+
 	/**
-	 * Constructs a new <code>FileHandler</code> instance.
+	 * Opens the specified file for appending, creating it and its parent
+	 * directories if needed.
+	 *
+	 * @param output - Output file.
+	 *
+	 * @return File channel.
+	 *
+	 * @throws IOException If the file could not be opened.
 	 */
-	public FileAppender(File output) {
+	protected static FileChannel open(File output) throws IOException {
+		File parent = output.getAbsoluteFile().getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+			throw new IOException("Could not create directory " + parent);
+		}
+		return FileChannel.open(output.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
 	}
 
 	/**
-	 * Exports the specified <code>Log</code> to the specified file.
-	 * 
-	 * @param log
-	 *            - Log instance.
+	 * Exports the specified <code>Log</code> to the specified file, depending on
+	 * the flush policy this returns once the message is buffered or once it is
+	 * durable. Logs appended after the appender has been closed are ignored.
+	 *
+	 * @param log - Log instance.
 	 */
 	@Override
 	public void append(Log log) {
+		boolean interrupted = Thread.interrupted();
+		try {
+			export(log);
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/*
+	 * Exports the log with the interrupt flag of the calling thread cleared.
+	 */
+	private void export(Log log) {
+		long sequence;
+		boolean isDue;
+		synchronized (writeLock) {
+			if (isClosed) {
+				return;
+			}
+			try {
+				reopen();
+				if (isRolloverDue(log, size)) {
+					roll();
+				}
+				write(log);
+				sequence = ++appended;
+				switch (flushPolicy) {
+				case EVERY_EVENT:
+					drain();
+					channel.force(false);
+					durable = sequence;
+					return;
+				case INTERVAL:
+					isDue = buffer.position() >= flushBytes
+							|| (flushNanos > 0 && System.nanoTime() - lastFlushNanos >= flushNanos);
+					break;
+				default:
+					isDue = true;
+				}
+			} catch (IOException e) {
+				buffer.clear();
+				e.printStackTrace();
+				return;
+			}
+		}
+		if (isDue) {
+			commit(sequence);
+		}
+	}
+
+	/**
+	 * Writes every buffered message to the file and forces it to the storage
+	 * device.
+	 */
+	public void flush() {
+		boolean interrupted = Thread.interrupted();
+		try {
+			long sequence;
+			synchronized (writeLock) {
+				sequence = appended;
+			}
+			commit(sequence);
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
 
+	/**
+	 * Flushes the file and closes it, stopping the interval flusher. Logs appended
+	 * afterwards are ignored.
+	 */
+	@Override
+	public void close() {
+		Thread thread;
+		synchronized (writeLock) {
+			if (isClosed) {
+				return;
+			}
+			thread = flusher;
+			flusher = null;
+			isClosing = true;
+		}
+		if (thread != null) {
+			LockSupport.unpark(thread);
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		flush();
+		synchronized (forceLock) {
+			synchronized (writeLock) {
+				isClosed = true;
+				try {
+					channel.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the file should be rolled over before the specified log is
+	 * written, this is called with the write lock held for every log. The default
+	 * implementation never rolls over.
+	 *
+	 * @param log  - Log instance.
+	 *
+	 * @param size - Bytes written to the current file, buffered bytes included.
+	 *
+	 * @return <code>true</code> if the file should be rolled over.
+	 */
+	protected boolean isRolloverDue(Log log, long size) {
+		return false;
+	}
+
+	/**
+	 * Replaces the current file, this is called with the write lock held so it
+	 * should do no more than move the file aside and open the new one. The pending
+	 * buffer holds the bytes not yet written to the old channel, the old channel
+	 * and the pending buffer should be passed to <code>retire</code> from another
+	 * thread. The default implementation writes the pending bytes and keeps the
+	 * current channel.
+	 *
+	 * @param channel - Current channel.
+	 *
+	 * @param pending - Bytes not yet written to the current channel.
+	 *
+	 * @return New channel.
+	 *
+	 * @throws IOException If the file could not be replaced.
+	 */
+	protected FileChannel rollover(FileChannel channel, ByteBuffer pending) throws IOException {
+		while (pending.hasRemaining()) {
+			channel.write(pending);
+		}
+		recycle(pending);
+		return channel;
+	}
+
+	/**
+	 * Writes the pending bytes to a channel replaced by <code>rollover</code>,
+	 * forces and closes it and keeps the buffer for the next rollover. Once every
+	 * replaced channel has been retired, the events written to them are durable
+	 * and threads waiting for them are released. This must not be called with the
+	 * write lock held, and must be called exactly once for every replaced
+	 * channel.
+	 *
+	 * @param channel - Replaced channel.
+	 *
+	 * @param pending - Bytes not yet written to the replaced channel.
+	 *
+	 * @throws IOException If the channel could not be written or closed.
+	 */
+	protected final void retire(FileChannel channel, ByteBuffer pending) throws IOException {
+		boolean interrupted = Thread.interrupted();
+		boolean isForced = false;
+		synchronized (forceLock) {
+			try {
+				while (pending.hasRemaining()) {
+					channel.write(pending);
+				}
+				channel.force(false);
+				isForced = true;
+			} finally {
+				channel.close();
+				synchronized (writeLock) {
+					pending.clear();
+					spareBuffer = pending;
+					if (--retiring == 0 && isForced && durable < retired) {
+						durable = retired;
+					}
+				}
+				forceLock.notifyAll();
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	/*
+	 * Opens the file again if the channel was closed by an interrupt, the caller
+	 * holds the write lock. The bytes of the interrupted write are lost.
+	 */
+	private void reopen() throws IOException {
+		if (!channel.isOpen()) {
+			buffer.clear();
+			channel = open(file);
+			size = channel.size();
+		}
+	}
+
+	/*
+	 * Keeps the specified buffer as the spare for the next rollover.
+	 */
+	private void recycle(ByteBuffer pending) {
+		synchronized (writeLock) {
+			pending.clear();
+			spareBuffer = pending;
+		}
+	}
+
+	/*
+	 * Swaps in the spare buffer and the channel returned by rollover. A replaced
+	 * channel is counted until it is retired, as the events still buffered for it
+	 * only become durable then.
+	 */
+	private void roll() throws IOException {
+		FileChannel current = channel;
+		ByteBuffer pending = buffer;
+		pending.flip();
+		buffer = spareBuffer != null ? spareBuffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+		spareBuffer = null;
+		try {
+			channel = rollover(channel, pending);
+		} catch (IOException e) {
+			spareBuffer = buffer;
+			buffer = pending;
+			buffer.position(buffer.limit()).limit(buffer.capacity());
+			throw e;
+		}
+		if (channel != current) {
+			retiring++;
+			retired = appended;
+		}
+		size = channel.size();
+	}
+
+	/*
+	 * Encodes the formatted message and the line separator into the buffer,
+	 * writing the buffer out first whenever it runs out of space. A message larger
+	 * than the whole buffer is encoded on its own and written straight through.
+	 */
+	private void write(Log log) throws IOException {
+		int position = buffer.position();
+		if (!log.encodeTo(buffer)) {
+			drain();
+			position = 0;
+			if (!log.encodeTo(buffer)) {
+				ByteBuffer large = ByteBuffer
+						.wrap(String.valueOf(log.getFormattedMessage()).getBytes(Charset.forName("UTF-8")));
+				size += large.remaining();
+				while (large.hasRemaining()) {
+					channel.write(large);
+				}
+			}
+		}
+		size += buffer.position() - position;
+		if (buffer.remaining() < LINE_SEPARATOR.length) {
+			drain();
+		}
+		buffer.put(LINE_SEPARATOR);
+		size += LINE_SEPARATOR.length;
+	}
+
+	/*
+	 * Writes the buffer to the channel, the caller holds the write lock.
+	 */
+	private void drain() throws IOException {
+		buffer.flip();
+		try {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		} finally {
+			buffer.clear();
+		}
+	}
+
+	/*
+	 * Makes every event up to the specified sequence durable. A thread which finds
+	 * the sequence already covered by a force that finished while it waited for
+	 * the force lock returns straight away, otherwise it writes out everything
+	 * buffered so far and forces once on behalf of all of it. While a replaced
+	 * channel is being retired the thread waits for the retirement first, as a
+	 * force of the current channel does not cover the events written to it.
+	 */
+	private void commit(long sequence) {
+		if (durable >= sequence) {
+			return;
+		}
+		synchronized (forceLock) {
+			boolean interrupted = false;
+			try {
+				long target;
+				FileChannel output;
+				for (;;) {
+					synchronized (writeLock) {
+						if (isClosed || durable >= sequence) {
+							return;
+						}
+						if (retiring == 0) {
+							target = appended;
+							try {
+								reopen();
+								output = channel;
+								drain();
+							} catch (IOException e) {
+								e.printStackTrace();
+								return;
+							}
+							break;
+						}
+					}
+					try {
+						forceLock.wait();
+					} catch (InterruptedException e) {
+						interrupted = true;
+					}
+				}
+				try {
+					output.force(false);
+					durable = target;
+					lastFlushNanos = System.nanoTime();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			} finally {
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the output file of this <code>FileAppender</code> instance.
+	 *
+	 * @return Output file.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the flush policy of this <code>FileAppender</code> instance.
+	 *
+	 * @return Flush policy.
+	 */
+	public FlushPolicy getFlushPolicy() {
+		return flushPolicy;
+	}
+
+	/*
+	 * Flushes the file of the INTERVAL policy once the interval has passed without
+	 * a flush triggered by size.
+	 */
+	private class Flusher implements Runnable {
+		@Override
+		public void run() {
+			while (!isClosing) {
+				long remaining = lastFlushNanos + flushNanos - System.nanoTime();
+				if (remaining > 0) {
+					LockSupport.parkNanos(this, remaining);
+				} else {
+					flush();
+					lastFlushNanos = System.nanoTime();
+				}
+			}
+		}
 	}
 }
\ No newline at end of file
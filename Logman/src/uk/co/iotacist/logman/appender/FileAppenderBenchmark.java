@@ -0,0 +1,121 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.appender;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import uk.co.iotacist.logman.Logger;
+
+/**
+ * The <code>FileAppenderBenchmark</code> class measures the throughput of the
+ * <code>FileAppender</code> under every flush policy. For each policy a number
+ * of threads log a short templated message through a non-additive logger for a
+ * fixed time, and the events per second and megabytes per second written to
+ * the file are reported.
+ *
+ * Usage: <code>FileAppenderBenchmark directory [seconds [threads]]</code>, the
+ * files are written to the specified directory and deleted afterwards.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public final class FileAppenderBenchmark {
+	/*
+	 * The default number of seconds each policy runs for.
+	 */
+	private static final int DEFAULT_SECONDS = 5;
+
+	/*
+	 * Instances of this class may not be made.
+	 */
+	private FileAppenderBenchmark() {
+	}
+
+	/**
+	 * Runs the benchmark in the directory given as the first argument for the
+	 * number of seconds and threads given as the optional second and third
+	 * arguments.
+	 * 
+	 * @param args - Directory, optional seconds and optional threads.
+	 * 
+	 * @throws IOException          If a file cannot be written.
+	 * 
+	 * @throws InterruptedException If the benchmark is interrupted.
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		if (args.length < 1 || args.length > 3) {
+			System.err.println("Usage: FileAppenderBenchmark directory [seconds [threads]]");
+			System.exit(1);
+		}
+		File directory = new File(args[0]);
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_SECONDS;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+		System.out.printf("%-12s %8s %14s %10s%n", "Policy", "Threads", "Events/s", "MB/s");
+		for (FlushPolicy policy : FlushPolicy.values()) {
+			run(directory, policy, seconds, threads);
+		}
+	}
+
+	/*
+	 * Runs one policy and prints its throughput.
+	 */
+	private static void run(File directory, FlushPolicy policy, int seconds, int threads)
+			throws IOException, InterruptedException {
+		File file = new File(directory, "benchmark-" + policy.name().toLowerCase() + ".log");
+		if (file.exists() && !file.delete()) {
+			throw new IOException("Could not delete " + file);
+		}
+		FileAppender appender = new FileAppender(file, policy);
+		final Logger logger = Logger.getLogger(FileAppenderBenchmark.class.getName() + "." + policy.name());
+		logger.setAdditivity(false);
+		logger.addAppender(appender);
+		final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		final AtomicLong events = new AtomicLong();
+		final CountDownLatch done = new CountDownLatch(threads);
+		long started = System.nanoTime();
+		for (int i = 0; i < threads; i++) {
+			final String name = "Worker-" + i;
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					long count = 0L;
+					while ((count & 0xFF) != 0 || System.nanoTime() < deadline) {
+						logger.info("Benchmark event from {} with a payload of typical length", name);
+						count++;
+					}
+					events.addAndGet(count);
+					done.countDown();
+				}
+			}, "Logman-Benchmark-" + i);
+			thread.start();
+		}
+		done.await();
+		appender.flush();
+		double elapsed = (System.nanoTime() - started) / 1e9;
+		logger.removeAppender(appender);
+		appender.close();
+		System.out.printf("%-12s %8d %14.0f %10.2f%n", policy, threads, events.get() / elapsed,
+				file.length() / elapsed / (1024 * 1024));
+		file.delete();
+	}
+}
\ No newline at end of file
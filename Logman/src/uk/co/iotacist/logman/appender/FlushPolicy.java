@@ -0,0 +1,48 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.appender;
+
+/**
+ * The <code>FlushPolicy</code> enum defines when a <code>FileAppender</code>
+ * writes its buffer to the file and forces the file to the storage device.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public enum FlushPolicy {
+	/**
+	 * The <code>EVERY_EVENT</code> policy writes and forces the file after every
+	 * event, the logging thread returns once its event is durable.
+	 */
+	EVERY_EVENT,
+
+	/**
+	 * The <code>INTERVAL</code> policy writes and forces the file once a number of
+	 * bytes has been buffered or a number of milliseconds has passed, whichever
+	 * comes first. Events logged since the last flush may be lost on a crash.
+	 */
+	INTERVAL,
+
+	/**
+	 * The <code>GROUP_COMMIT</code> policy gives the same guarantee as
+	 * <code>EVERY_EVENT</code>, but logging threads which arrive while the file
+	 * is being forced are made durable together by the next single force.
+	 */
+	GROUP_COMMIT;
+}
\ No newline at end of file
@@ -0,0 +1,623 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.appender;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import uk.co.iotacist.logman.Log;
+
+/**
+ * The <code>MappedFileAppender</code> class takes <code>Log</code> messages
+ * from the logger and exports them to a sequence of memory mapped segment
+ * files named after the specified file, <code>app.log.1</code>,
+ * <code>app.log.2</code> and so on.
+ *
+ * Each segment is mapped at its full size up front. A logging thread encodes
+ * its message into a buffer of its own, reserves space in the active segment
+ * with an atomic add on the reserved position and copies the bytes into the
+ * mapping, so no system call is made per event. Once the bytes are in the
+ * mapping they are in the page cache and survive a crash of the JVM, though
+ * not of the operating system.
+ *
+ * The thread whose reservation no longer fits switches the logger to the next
+ * segment, which a background thread maps ahead of time. The background
+ * thread then seals the full segment by truncating the file to the bytes
+ * actually written and closing it.
+ *
+ * Writers publish their bytes in reservation order, so the published position
+ * of the active segment is a watermark below which every byte is complete.
+ * Readers tail the active segment by reading up to that position, bytes past
+ * it are zero until written. <code>getPublished</code> returns the active
+ * segment file and its published position from the same segment.
+ *
+ * Each thread writes through its own view of the segment mapping, the views
+ * of a segment are dropped when it is sealed so the mapping can be released
+ * without waiting for every thread which wrote to it to write again.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class MappedFileAppender implements Appender, Closeable {
+	/**
+	 * The default segment size in bytes.
+	 */
+	public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+	/*
+	 * The line separator bytes.
+	 */
+	private static final byte[] LINE_SEPARATOR = System.getProperty("line.separator", "\n")
+			.getBytes(Charset.forName("UTF-8"));
+
+	/*
+	 * The time the background thread waits for writers to finish a segment.
+	 */
+	private static final long SEAL_PARK_NANOS = 100000L;
+
+	/*
+	 * The time the background thread waits before mapping again after a failure.
+	 */
+	private static final long RETRY_MILLIS = 1000L;
+
+	/*
+	 * The base file.
+	 */
+	private final File file;
+
+	/*
+	 * The segment size.
+	 */
+	private final int segmentSize;
+
+	/*
+	 * The encoding buffer and segment view of each thread.
+	 */
+	private final ThreadLocal<Writer> writers = new ThreadLocal<Writer>() {
+		@Override
+		protected Writer initialValue() {
+			Writer writer = new Writer();
+			synchronized (allWriters) {
+				allWriters.put(writer, Boolean.TRUE);
+			}
+			return writer;
+		}
+	};
+
+	/*
+	 * The writer of every thread which has appended, held weakly so the writers
+	 * of finished threads can be collected. Guarded by itself.
+	 */
+	private final Map<Writer, Boolean> allWriters = new WeakHashMap<Writer, Boolean>();
+
+	/*
+	 * Guards switching segments, the spare segment and the seal queue.
+	 */
+	private final Object lock = new Object();
+
+	/*
+	 * The full segments waiting to be sealed.
+	 */
+	private final ArrayDeque<Segment> sealQueue = new ArrayDeque<Segment>();
+
+	/*
+	 * The number of dropped events.
+	 */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/*
+	 * The active segment.
+	 */
+	private volatile Segment current;
+
+	/*
+	 * The segment mapped ahead of time, or null.
+	 */
+	private Segment spare;
+
+	/*
+	 * The index of the next segment to map.
+	 */
+	private long nextIndex;
+
+	/*
+	 * The background thread.
+	 */
+	private final Thread worker;
+
+	/*
+	 * The closed flag.
+	 */
+	private volatile boolean isClosed;
+
+	/**
+	 * Constructs a new <code>MappedFileAppender</code> instance with 64 MB
+	 * segments.
+	 *
+	 * @param output - Base file.
+	 *
+	 * @throws IOException If the first segment could not be mapped.
+	 */
+	public MappedFileAppender(File output) throws IOException {
+		this(output, DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * Constructs a new <code>MappedFileAppender</code> instance with the specified
+	 * segment size. Segment numbering carries on after the highest segment of the
+	 * base file already on disk.
+	 *
+	 * @param output      - Base file.
+	 *
+	 * @param segmentSize - Segment size in bytes.
+	 *
+	 * @throws IOException If the first segment could not be mapped.
+	 */
+	public MappedFileAppender(File output, int segmentSize) throws IOException {
+		this.file = output.getAbsoluteFile();
+		this.segmentSize = Math.max(4096, segmentSize);
+		File parent = file.getParentFile();
+		if (parent != null && !parent.isDirectory() && !parent.mkdirs() && !parent.isDirectory()) {
+			throw new IOException("Could not create directory " + parent);
+		}
+		this.nextIndex = findNextIndex();
+		this.current = map(nextIndex++);
+		this.worker = new Thread(new Worker(), "Logman-MappedFileAppender-" + file.getName());
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/*
+	 * Returns the index following the highest existing segment of the base file.
+	 */
+	private long findNextIndex() {
+		long index = 0;
+		String prefix = file.getName() + ".";
+		String[] names = file.getParentFile().list();
+		if (names != null) {
+			for (String name : names) {
+				if (name.startsWith(prefix)) {
+					try {
+						index = Math.max(index, Long.parseLong(name.substring(prefix.length())));
+					} catch (NumberFormatException e) {
+					}
+				}
+			}
+		}
+		return index + 1;
+	}
+
+	/*
+	 * Creates and maps the segment with the specified index, with the interrupt
+	 * flag of the calling thread cleared as an interrupt would close the channel.
+	 */
+	private Segment map(long index) throws IOException {
+		File segmentFile = new File(file.getPath() + "." + index);
+		boolean interrupted = Thread.interrupted();
+		FileChannel channel = FileChannel.open(segmentFile.toPath(), StandardOpenOption.CREATE_NEW,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			return new Segment(segmentFile, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize));
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Exports the specified <code>Log</code> to the active segment. Logs appended
+	 * after the appender has been closed, or larger than a whole segment, are
+	 * dropped.
+	 *
+	 * @param log - Log instance.
+	 */
+	@Override
+	public void append(Log log) {
+		if (isClosed) {
+			return;
+		}
+		Writer writer = writers.get();
+		ByteBuffer bytes = writer.encode(log);
+		if (bytes == null) {
+			dropped.incrementAndGet();
+			return;
+		}
+		int length = bytes.remaining();
+		for (;;) {
+			Segment segment = current;
+			long offset = segment.reserved.getAndAdd(length);
+			if (offset + length <= segmentSize) {
+				ByteBuffer view = writer.view(segment);
+				view.position((int) offset);
+				view.put(bytes);
+				segment.publish(offset, length);
+				return;
+			}
+			segment.markEnd(offset);
+			if (!next(segment)) {
+				dropped.incrementAndGet();
+				return;
+			}
+		}
+	}
+
+	/*
+	 * Switches from the specified full segment to the spare one, mapping it here if
+	 * the background thread has not done so yet. Returns false if the appender has
+	 * been closed or no segment could be mapped.
+	 */
+	private boolean next(Segment full) {
+		synchronized (lock) {
+			if (isClosed) {
+				return false;
+			}
+			if (current != full) {
+				return true;
+			}
+			Segment segment = spare;
+			spare = null;
+			if (segment == null) {
+				try {
+					segment = map(nextIndex++);
+				} catch (IOException e) {
+					e.printStackTrace();
+					return false;
+				}
+			}
+			current = segment;
+			sealQueue.add(full);
+			lock.notifyAll();
+			return true;
+		}
+	}
+
+	/**
+	 * Seals the active segment once every reserved event has been written and
+	 * deletes the spare segment and an empty active one, stopping the background
+	 * thread. Logs appended
+	 * afterwards are dropped.
+	 */
+	@Override
+	public void close() {
+		Segment last;
+		Segment unused;
+		synchronized (lock) {
+			if (isClosed) {
+				return;
+			}
+			isClosed = true;
+			last = current;
+			unused = spare;
+			spare = null;
+			lock.notifyAll();
+		}
+		try {
+			worker.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		last.markEnd(last.reserved.getAndAdd(segmentSize + 1L));
+		last.seal();
+		release(last);
+		if (last.published.get() == 0) {
+			last.file.delete();
+		}
+		if (unused != null) {
+			unused.close();
+			unused.file.delete();
+		}
+	}
+
+	/**
+	 * Returns the base file of this <code>MappedFileAppender</code> instance.
+	 *
+	 * @return Base file.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the segment size of this <code>MappedFileAppender</code> instance.
+	 *
+	 * @return Segment size in bytes.
+	 */
+	public int getSegmentSize() {
+		return segmentSize;
+	}
+
+	/**
+	 * Returns the file of the active segment and its published position, both
+	 * taken from the same segment.
+	 *
+	 * @return Published position of the active segment.
+	 */
+	public PublishedPosition getPublished() {
+		Segment segment = current;
+		return new PublishedPosition(segment.file, segment.published.get());
+	}
+
+	/**
+	 * Returns the file of the active segment, readers tail it up to the published
+	 * position. The active segment may change between this call and
+	 * <code>getPublishedPosition</code>, <code>getPublished</code> returns both
+	 * from the same segment.
+	 *
+	 * @return Active segment file.
+	 */
+	public File getActiveFile() {
+		return current.file;
+	}
+
+	/**
+	 * Returns the published position of the active segment, every byte below it
+	 * has been written. Once the active segment changes the previous one is
+	 * complete up to its file length. <code>getPublished</code> returns the
+	 * position together with the file of the same segment.
+	 *
+	 * @return Published position in bytes.
+	 */
+	public long getPublishedPosition() {
+		return current.published.get();
+	}
+
+	/**
+	 * Returns the number of dropped events.
+	 *
+	 * @return Dropped event count.
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/*
+	 * A mapped segment file.
+	 */
+	private static final class Segment {
+		/*
+		 * The segment file.
+		 */
+		private final File file;
+
+		/*
+		 * The segment channel.
+		 */
+		private final FileChannel channel;
+
+		/*
+		 * The segment mapping.
+		 */
+		private final MappedByteBuffer buffer;
+
+		/*
+		 * The next position a writer will reserve.
+		 */
+		private final AtomicLong reserved = new AtomicLong();
+
+		/*
+		 * The position below which every reserved byte has been written.
+		 */
+		private final AtomicLong published = new AtomicLong();
+
+		/*
+		 * The first reservation which did not fit, or -1.
+		 */
+		private final AtomicLong end = new AtomicLong(-1L);
+
+		Segment(File file, FileChannel channel, MappedByteBuffer buffer) {
+			this.file = file;
+			this.channel = channel;
+			this.buffer = buffer;
+		}
+
+		/*
+		 * Publishes the written range once every earlier range has been published.
+		 */
+		void publish(long offset, long length) {
+			while (published.get() != offset) {
+				Thread.yield();
+			}
+			published.set(offset + length);
+		}
+
+		/*
+		 * Records a reservation which did not fit, reservations only grow so the
+		 * smallest one is where the written bytes end.
+		 */
+		void markEnd(long offset) {
+			long value = end.get();
+			while ((value < 0 || offset < value) && !end.compareAndSet(value, offset)) {
+				value = end.get();
+			}
+		}
+
+		/*
+		 * Checks whether every byte below the end has been published.
+		 */
+		boolean isComplete() {
+			long value = end.get();
+			return value >= 0 && published.get() >= value;
+		}
+
+		/*
+		 * Waits for the writers, then truncates the file to the written bytes and
+		 * closes it.
+		 */
+		void seal() {
+			while (!isComplete()) {
+				LockSupport.parkNanos(SEAL_PARK_NANOS);
+			}
+			boolean interrupted = Thread.interrupted();
+			try {
+				channel.truncate(published.get());
+			} catch (IOException e) {
+				/*
+				 * Some platforms refuse to truncate a mapped file, the zero tail is
+				 * left in place.
+				 */
+			} finally {
+				if (interrupted) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			close();
+		}
+
+		/*
+		 * Closes the channel, the mapping is released once it is unreachable.
+		 */
+		void close() {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/*
+	 * The encoding buffer of a thread and its view of the segment it last wrote.
+	 */
+	private final class Writer {
+		/*
+		 * The encoding buffer.
+		 */
+		private ByteBuffer bytes = ByteBuffer.allocate(1024);
+
+		/*
+		 * The segment of the view, cleared when the segment is sealed.
+		 */
+		private volatile Segment segment;
+
+		/*
+		 * The view of the segment mapping, cleared when the segment is sealed.
+		 */
+		private volatile ByteBuffer view;
+
+		/*
+		 * Encodes the formatted message and the line separator, growing the buffer
+		 * as needed. Returns null if they do not fit a segment.
+		 */
+		ByteBuffer encode(Log log) {
+			for (;;) {
+				bytes.clear();
+				if (log.encodeTo(bytes) && bytes.remaining() >= LINE_SEPARATOR.length) {
+					bytes.put(LINE_SEPARATOR);
+					bytes.flip();
+					return bytes;
+				}
+				if (bytes.capacity() >= segmentSize) {
+					return null;
+				}
+				bytes = ByteBuffer.allocate((int) Math.min(segmentSize, bytes.capacity() * 2L));
+			}
+		}
+
+		/*
+		 * Returns the view of the specified segment.
+		 */
+		ByteBuffer view(Segment segment) {
+			ByteBuffer current = view;
+			if (this.segment != segment || current == null) {
+				current = segment.buffer.duplicate();
+				this.segment = segment;
+				this.view = current;
+			}
+			return current;
+		}
+
+		/*
+		 * Drops the view if it is of the specified sealed segment, no write to a
+		 * sealed segment is in progress so the view is no longer used.
+		 */
+		void release(Segment sealed) {
+			if (segment == sealed) {
+				segment = null;
+				view = null;
+			}
+		}
+	}
+
+	/*
+	 * Drops the views of the specified sealed segment held by the writers.
+	 */
+	private void release(Segment segment) {
+		synchronized (allWriters) {
+			for (Writer writer : allWriters.keySet()) {
+				writer.release(segment);
+			}
+		}
+	}
+
+	/*
+	 * Maps the spare segment ahead of time and seals full segments.
+	 */
+	private final class Worker implements Runnable {
+		@Override
+		public void run() {
+			for (;;) {
+				Segment full;
+				synchronized (lock) {
+					while (!isClosed && spare != null && sealQueue.isEmpty()) {
+						try {
+							lock.wait();
+						} catch (InterruptedException e) {
+							return;
+						}
+					}
+					if (spare == null && !isClosed) {
+						try {
+							spare = map(nextIndex++);
+						} catch (IOException e) {
+							e.printStackTrace();
+							try {
+								lock.wait(RETRY_MILLIS);
+							} catch (InterruptedException ie) {
+								return;
+							}
+						}
+					}
+					full = sealQueue.poll();
+					if (full == null && isClosed) {
+						return;
+					}
+				}
+				if (full != null) {
+					full.seal();
+					release(full);
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
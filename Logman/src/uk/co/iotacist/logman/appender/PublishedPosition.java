@@ -0,0 +1,74 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.appender;
+
+import java.io.File;
+
+/**
+ * The <code>PublishedPosition</code> class is a snapshot of the active segment
+ * of a <code>MappedFileAppender</code>, the segment file and the position below
+ * which every byte of it has been written. Both are read from the same segment,
+ * so a reader tailing the file never pairs one segment with the position of
+ * another.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public final class PublishedPosition {
+	/*
+	 * The segment file.
+	 */
+	private final File file;
+
+	/*
+	 * The published position.
+	 */
+	private final long position;
+
+	/**
+	 * Constructs a new <code>PublishedPosition</code> instance.
+	 *
+	 * @param file     - Segment file.
+	 *
+	 * @param position - Published position in bytes.
+	 */
+	public PublishedPosition(File file, long position) {
+		this.file = file;
+		this.position = position;
+	}
+
+	/**
+	 * Returns the segment file.
+	 *
+	 * @return Segment file.
+	 */
+	public File getFile() {
+		return file;
+	}
+
+	/**
+	 * Returns the published position, every byte of the segment file below it has
+	 * been written.
+	 *
+	 * @return Published position in bytes.
+	 */
+	public long getPosition() {
+		return position;
+	}
+}
\ No newline at end of file
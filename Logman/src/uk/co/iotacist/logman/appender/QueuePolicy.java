@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.appender;
+
+/**
+ * The <code>QueuePolicy</code> enum defines what a <code>QueuedAppender</code>
+ * does with a new event when its queue is full.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public enum QueuePolicy {
+	/**
+	 * The <code>BLOCK</code> policy makes the logging thread wait for a free slot,
+	 * up to the timeout of the appender, and drops the new event if none frees
+	 * up in time.
+	 */
+	BLOCK,
+
+	/**
+	 * The <code>DROP_OLDEST</code> policy discards the oldest queued event to make
+	 * room for the new one, the logging thread never waits.
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * The <code>DROP_NEWEST</code> policy discards the new event, the logging
+	 * thread never waits.
+	 */
+	DROP_NEWEST;
+}
\ No newline at end of file
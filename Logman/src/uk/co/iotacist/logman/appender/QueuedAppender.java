@@ -0,0 +1,338 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.appender;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import uk.co.iotacist.logman.Log;
+
+/**
+ * The <code>QueuedAppender</code> class isolates a slow appender from the
+ * logging threads and from the other appenders of a logger. Events are put
+ * into a bounded queue and appended by a worker thread of their own, so a
+ * stalled appender only fills its own queue, and the queue policy decides
+ * what happens to new events once it is full.
+ *
+ * Reusable logs are queued as immutable copies. Events logged by the worker
+ * thread itself, for example by an appender that logs, are appended straight
+ * away so the worker can never wait on its own queue. The appender reports its
+ * queue depth, the events it dropped and the time spent in the wrapped
+ * appender.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class QueuedAppender implements Appender, Closeable {
+	/**
+	 * The default queue capacity.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * The default number of milliseconds the <code>BLOCK</code> policy waits for a
+	 * free slot.
+	 */
+	public static final long DEFAULT_TIMEOUT_MILLIS = 100L;
+
+	/*
+	 * The number of milliseconds the worker waits for an event before checking
+	 * whether the appender has been closed.
+	 */
+	private static final long POLL_MILLIS = 100L;
+
+	/*
+	 * The wrapped appender.
+	 */
+	private final Appender appender;
+
+	/*
+	 * The event queue.
+	 */
+	private final ArrayBlockingQueue<Log> queue;
+
+	/*
+	 * The queue policy.
+	 */
+	private final QueuePolicy policy;
+
+	/*
+	 * The number of nanoseconds the BLOCK policy waits for a free slot.
+	 */
+	private final long timeoutNanos;
+
+	/*
+	 * The number of events dropped.
+	 */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/*
+	 * The number of events appended by the wrapped appender.
+	 */
+	private final AtomicLong appended = new AtomicLong();
+
+	/*
+	 * The nanoseconds spent in the wrapped appender.
+	 */
+	private final AtomicLong appendNanos = new AtomicLong();
+
+	/*
+	 * The highest number of queued events seen.
+	 */
+	private final AtomicLong peak = new AtomicLong();
+
+	/*
+	 * The worker thread.
+	 */
+	private final Thread worker;
+
+	/*
+	 * The closed flag.
+	 */
+	private volatile boolean closed;
+
+	/**
+	 * Constructs a new <code>QueuedAppender</code> instance around the specified
+	 * appender with a queue of <code>DEFAULT_CAPACITY</code> events and the
+	 * <code>BLOCK</code> policy.
+	 * 
+	 * @param appender - Wrapped appender.
+	 */
+	public QueuedAppender(Appender appender) {
+		this(appender, DEFAULT_CAPACITY, QueuePolicy.BLOCK, DEFAULT_TIMEOUT_MILLIS);
+	}
+
+	/**
+	 * Constructs a new <code>QueuedAppender</code> instance around the specified
+	 * appender with the specified queue capacity and policy.
+	 * 
+	 * @param appender      - Wrapped appender.
+	 * 
+	 * @param capacity      - Queue capacity, at least 1.
+	 * 
+	 * @param policy        - Queue policy.
+	 * 
+	 * @param timeoutMillis - Milliseconds the <code>BLOCK</code> policy waits for
+	 *                      a free slot.
+	 */
+	public QueuedAppender(Appender appender, int capacity, QueuePolicy policy, long timeoutMillis) {
+		if (appender == null || policy == null) {
+			throw new IllegalArgumentException("Appender and policy must not be null");
+		}
+		this.appender = appender;
+		this.queue = new ArrayBlockingQueue<Log>(Math.max(1, capacity));
+		this.policy = policy;
+		this.timeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, timeoutMillis));
+		this.worker = new Thread(new Worker(), "Logman-QueuedAppender");
+		this.worker.setDaemon(true);
+		this.worker.start();
+	}
+
+	/**
+	 * Queues the specified <code>Log</code> for the wrapped appender, if the queue
+	 * is full the queue policy decides which event is dropped.
+	 * 
+	 * @param log - Log instance.
+	 */
+	@Override
+	public void append(Log log) {
+		if (Thread.currentThread() == worker) {
+			deliver(log);
+			return;
+		}
+		if (closed) {
+			dropped.incrementAndGet();
+			return;
+		}
+		Log event = log.toImmutable();
+		if (!queue.offer(event)) {
+			switch (policy) {
+			case BLOCK:
+				try {
+					if (!queue.offer(event, timeoutNanos, TimeUnit.NANOSECONDS)) {
+						dropped.incrementAndGet();
+						return;
+					}
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					dropped.incrementAndGet();
+					return;
+				}
+				break;
+			case DROP_OLDEST:
+				while (!queue.offer(event)) {
+					if (queue.poll() != null) {
+						dropped.incrementAndGet();
+					}
+				}
+				break;
+			default:
+				dropped.incrementAndGet();
+				return;
+			}
+		}
+		int size = queue.size();
+		long current = peak.get();
+		while (size > current && !peak.compareAndSet(current, size)) {
+			current = peak.get();
+		}
+	}
+
+	/**
+	 * Stops the worker once every queued event has been appended, then closes the
+	 * wrapped appender if it is <code>Closeable</code>. Events appended afterwards
+	 * are dropped.
+	 * 
+	 * @throws IOException If the wrapped appender fails to close.
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		if (Thread.currentThread() != worker) {
+			try {
+				worker.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		/*
+		 * Append the events queued by threads which raced with the closed flag.
+		 */
+		for (Log event = queue.poll(); event != null; event = queue.poll()) {
+			deliver(event);
+		}
+		if (appender instanceof Closeable) {
+			((Closeable) appender).close();
+		}
+	}
+
+	/**
+	 * Returns the wrapped appender.
+	 * 
+	 * @return Appender instance.
+	 */
+	public Appender getAppender() {
+		return appender;
+	}
+
+	/**
+	 * Returns the queue policy.
+	 * 
+	 * @return Queue policy.
+	 */
+	public QueuePolicy getQueuePolicy() {
+		return policy;
+	}
+
+	/**
+	 * Returns the queue capacity.
+	 * 
+	 * @return Queue capacity.
+	 */
+	public int getCapacity() {
+		return queue.size() + queue.remainingCapacity();
+	}
+
+	/**
+	 * Returns the number of events waiting in the queue.
+	 * 
+	 * @return Queue depth.
+	 */
+	public int getSize() {
+		return queue.size();
+	}
+
+	/**
+	 * Returns the highest number of events seen waiting in the queue.
+	 * 
+	 * @return Peak queue depth.
+	 */
+	public int getPeakSize() {
+		return (int) peak.get();
+	}
+
+	/**
+	 * Returns the number of events dropped because the queue was full or the
+	 * appender was closed.
+	 * 
+	 * @return Dropped event count.
+	 */
+	public long getDroppedCount() {
+		return dropped.get();
+	}
+
+	/**
+	 * Returns the number of events passed to the wrapped appender.
+	 * 
+	 * @return Appended event count.
+	 */
+	public long getAppendedCount() {
+		return appended.get();
+	}
+
+	/**
+	 * Returns the time spent in the <code>append</code> method of the wrapped
+	 * appender.
+	 * 
+	 * @return Nanoseconds.
+	 */
+	public long getAppendNanos() {
+		return appendNanos.get();
+	}
+
+	/*
+	 * Passes an event to the wrapped appender and measures the call.
+	 */
+	private void deliver(Log event) {
+		long start = System.nanoTime();
+		try {
+			appender.append(event);
+		} catch (RuntimeException e) {
+			e.printStackTrace();
+		}
+		appendNanos.addAndGet(System.nanoTime() - start);
+		appended.incrementAndGet();
+	}
+
+	/*
+	 * The Worker class appends the queued events until the appender is closed and
+	 * the queue has been drained.
+	 */
+	private class Worker implements Runnable {
+		@Override
+		public void run() {
+			for (;;) {
+				Log event;
+				try {
+					event = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+				} catch (InterruptedException e) {
+					event = queue.poll();
+				}
+				if (event != null) {
+					deliver(event);
+				} else if (closed) {
+					return;
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,454 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.appender;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+import uk.co.iotacist.logman.Log;
+
+/**
+ * The <code>RollingFileAppender</code> class is a <code>FileAppender</code>
+ * which rolls its file over once it reaches a size or once a time period,
+ * aligned to local midnight, has passed. The current file always has the
+ * specified name, rolled files are named after it with an increasing index,
+ * <code>app.log.1.gz</code>, <code>app.log.2.gz</code> and so on.
+ *
+ * The logging thread which finds a rollover due does no more than move the
+ * current file aside, open a new one and swap in a spare buffer. Writing the
+ * old buffer, forcing and closing the old file, compressing it and deleting
+ * rolled files over the disk budget or age limit all happen on a background
+ * thread.
+ *
+ * The worst-case append latency during a rollover is therefore one rename and
+ * one open of the file system, on top of the latency of the flush policy, as
+ * nothing is written or forced with the write lock held. Logs arriving
+ * meanwhile wait for the write lock for the same time. With the
+ * <code>GROUP_COMMIT</code> policy, threads waiting for their logs to become
+ * durable also wait for the background thread to write and force the old file,
+ * one buffer write and one force, plus the compression of an earlier rolled
+ * file still in progress. <code>RollingFileAppenderBenchmark</code> measures
+ * these latencies.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class RollingFileAppender extends FileAppender {
+	/*
+	 * The suffix of compressed files.
+	 */
+	private static final String GZIP_SUFFIX = ".gz";
+
+	/*
+	 * Stops the background thread.
+	 */
+	private static final Rolled STOP = new Rolled(null, null, null);
+
+	/*
+	 * The size after which the file is rolled over, or 0.
+	 */
+	private final long maxFileSize;
+
+	/*
+	 * The period after which the file is rolled over, or 0.
+	 */
+	private final long rolloverMillis;
+
+	/*
+	 * The rolled files waiting for the background thread.
+	 */
+	private final LinkedBlockingQueue<Rolled> queue = new LinkedBlockingQueue<Rolled>();
+
+	/*
+	 * The background thread.
+	 */
+	private final Thread worker;
+
+	/*
+	 * The time of the next time based rollover.
+	 */
+	private long nextRolloverMillis;
+
+	/*
+	 * The index of the next rolled file.
+	 */
+	private long nextIndex;
+
+	/*
+	 * The compression flag.
+	 */
+	private volatile boolean compress = true;
+
+	/*
+	 * The disk budget of the rolled files, or 0.
+	 */
+	private volatile long maxTotalSize;
+
+	/*
+	 * The age after which rolled files are deleted, or 0.
+	 */
+	private volatile long maxAgeMillis;
+
+	/**
+	 * Constructs a new <code>RollingFileAppender</code> instance with the
+	 * <code>INTERVAL</code> flush policy.
+	 *
+	 * @param output         - Output file.
+	 *
+	 * @param maxFileSize    - Size in bytes after which the file is rolled over,
+	 *                       or 0.
+	 *
+	 * @param rolloverMillis - Period in milliseconds after which the file is
+	 *                       rolled over, or 0.
+	 *
+	 * @throws IOException If the file could not be opened.
+	 */
+	public RollingFileAppender(File output, long maxFileSize, long rolloverMillis) throws IOException {
+		this(output, FlushPolicy.INTERVAL, maxFileSize, rolloverMillis);
+	}
+
+	/**
+	 * Constructs a new <code>RollingFileAppender</code> instance with the
+	 * specified flush policy. Rolled file numbering carries on after the highest
+	 * rolled file already on disk.
+	 *
+	 * @param output         - Output file.
+	 *
+	 * @param flushPolicy    - Flush policy.
+	 *
+	 * @param maxFileSize    - Size in bytes after which the file is rolled over,
+	 *                       or 0.
+	 *
+	 * @param rolloverMillis - Period in milliseconds after which the file is
+	 *                       rolled over, or 0.
+	 *
+	 * @throws IOException If the file could not be opened.
+	 */
+	public RollingFileAppender(File output, FlushPolicy flushPolicy, long maxFileSize, long rolloverMillis)
+			throws IOException {
+		super(output.getAbsoluteFile(), flushPolicy);
+		this.maxFileSize = Math.max(0L, maxFileSize);
+		this.rolloverMillis = Math.max(0L, rolloverMillis);
+		this.nextRolloverMillis = nextBoundary(System.currentTimeMillis());
+		long index = 0;
+		for (File file : listRolled()) {
+			index = Math.max(index, indexOf(file));
+		}
+		this.nextIndex = index + 1;
+		this.worker = new Thread(new Worker(), "Logman-RollingFileAppender-" + output.getName());
+		worker.setDaemon(true);
+		worker.start();
+	}
+
+	/*
+	 * Returns the first period boundary after the specified time.
+	 */
+	private long nextBoundary(long millis) {
+		if (rolloverMillis == 0) {
+			return Long.MAX_VALUE;
+		}
+		long offset = TimeZone.getDefault().getOffset(millis);
+		return ((millis + offset) / rolloverMillis + 1) * rolloverMillis - offset;
+	}
+
+	/**
+	 * Checks whether the file has reached its size or its period has ended, an
+	 * empty file is never rolled over.
+	 *
+	 * @param log  - Log instance.
+	 *
+	 * @param size - Bytes written to the current file, buffered bytes included.
+	 *
+	 * @return <code>true</code> if the file should be rolled over.
+	 */
+	@Override
+	protected boolean isRolloverDue(Log log, long size) {
+		boolean isDue = maxFileSize > 0 && size >= maxFileSize;
+		if (log.getTimeMillis() >= nextRolloverMillis) {
+			nextRolloverMillis = nextBoundary(log.getTimeMillis());
+			isDue = true;
+		}
+		return isDue && size > 0;
+	}
+
+	/**
+	 * Moves the current file aside under the next index, opens a new file and
+	 * queues the old channel for the background thread.
+	 *
+	 * @param channel - Current channel.
+	 *
+	 * @param pending - Bytes not yet written to the current channel.
+	 *
+	 * @return New channel.
+	 *
+	 * @throws IOException If the file could not be moved or opened.
+	 */
+	@Override
+	protected FileChannel rollover(FileChannel channel, ByteBuffer pending) throws IOException {
+		File rolled = new File(getFile().getPath() + "." + nextIndex++);
+		Files.move(getFile().toPath(), rolled.toPath());
+		FileChannel next;
+		try {
+			next = open(getFile());
+		} catch (IOException e) {
+			Files.move(rolled.toPath(), getFile().toPath());
+			nextIndex--;
+			throw e;
+		}
+		queue.add(new Rolled(rolled, channel, pending));
+		return next;
+	}
+
+	/**
+	 * Closes the file and waits for the background thread to finish the rolled
+	 * files.
+	 */
+	@Override
+	public void close() {
+		super.close();
+		if (worker.isAlive()) {
+			queue.add(STOP);
+			try {
+				worker.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Returns whether rolled files are compressed with gzip.
+	 *
+	 * @return Compression flag.
+	 */
+	public boolean isCompress() {
+		return compress;
+	}
+
+	/**
+	 * Sets whether rolled files are compressed with gzip, by default they are.
+	 *
+	 * @param compress - Compression flag.
+	 */
+	public void setCompress(boolean compress) {
+		this.compress = compress;
+	}
+
+	/**
+	 * Returns the disk budget of the rolled files.
+	 *
+	 * @return Budget in bytes, or 0 for no budget.
+	 */
+	public long getMaxTotalSize() {
+		return maxTotalSize;
+	}
+
+	/**
+	 * Sets the disk budget of the rolled files, the oldest rolled files are
+	 * deleted until the rest fit.
+	 *
+	 * @param maxTotalSize - Budget in bytes, or 0 for no budget.
+	 */
+	public void setMaxTotalSize(long maxTotalSize) {
+		this.maxTotalSize = Math.max(0L, maxTotalSize);
+	}
+
+	/**
+	 * Returns the age after which rolled files are deleted.
+	 *
+	 * @return Age in milliseconds, or 0 for no limit.
+	 */
+	public long getMaxAge() {
+		return maxAgeMillis;
+	}
+
+	/**
+	 * Sets the age after which rolled files are deleted, measured from their last
+	 * modification.
+	 *
+	 * @param maxAgeMillis - Age in milliseconds, or 0 for no limit.
+	 */
+	public void setMaxAge(long maxAgeMillis) {
+		this.maxAgeMillis = Math.max(0L, maxAgeMillis);
+	}
+
+	/*
+	 * Returns the rolled files of the output file, oldest first.
+	 */
+	private List<File> listRolled() {
+		List<File> rolled = new ArrayList<File>();
+		File[] files = getFile().getParentFile().listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (indexOf(file) > 0) {
+					rolled.add(file);
+				}
+			}
+		}
+		Collections.sort(rolled, new Comparator<File>() {
+			@Override
+			public int compare(File a, File b) {
+				long x = indexOf(a);
+				long y = indexOf(b);
+				return x < y ? -1 : (x == y ? 0 : 1);
+			}
+		});
+		return rolled;
+	}
+
+	/*
+	 * Returns the index of the specified rolled file, or -1 if it is not one.
+	 */
+	private long indexOf(File file) {
+		String prefix = getFile().getName() + ".";
+		String name = file.getName();
+		if (!name.startsWith(prefix)) {
+			return -1;
+		}
+		name = name.substring(prefix.length());
+		if (name.endsWith(GZIP_SUFFIX)) {
+			name = name.substring(0, name.length() - GZIP_SUFFIX.length());
+		}
+		try {
+			return Long.parseLong(name);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	/*
+	 * Compresses the specified file next to it and deletes the original.
+	 */
+	private static void gzip(File file) throws IOException {
+		File target = new File(file.getPath() + GZIP_SUFFIX);
+		InputStream in = new FileInputStream(file);
+		try {
+			OutputStream out = new GZIPOutputStream(new FileOutputStream(target), 64 * 1024);
+			try {
+				byte[] bytes = new byte[64 * 1024];
+				int count;
+				while ((count = in.read(bytes)) >= 0) {
+					out.write(bytes, 0, count);
+				}
+			} finally {
+				out.close();
+			}
+		} finally {
+			in.close();
+		}
+		if (!file.delete()) {
+			throw new IOException("Could not delete " + file);
+		}
+	}
+
+	/*
+	 * Deletes the finished rolled files up to the specified index which are over
+	 * the age limit or, oldest first, over the disk budget. Files with a higher
+	 * index are still queued for the background thread.
+	 */
+	private void applyRetention(long lastIndex) {
+		long maxTotalSize = this.maxTotalSize;
+		long maxAgeMillis = this.maxAgeMillis;
+		if (maxTotalSize == 0 && maxAgeMillis == 0) {
+			return;
+		}
+		List<File> rolled = listRolled();
+		long oldest = maxAgeMillis == 0 ? Long.MIN_VALUE : System.currentTimeMillis() - maxAgeMillis;
+		long total = 0;
+		for (int i = rolled.size() - 1; i >= 0; i--) {
+			File file = rolled.get(i);
+			if (indexOf(file) > lastIndex) {
+				continue;
+			}
+			total += file.length();
+			if (file.lastModified() < oldest || (maxTotalSize > 0 && total > maxTotalSize)) {
+				file.delete();
+			}
+		}
+	}
+
+	/*
+	 * A rolled file with its old channel and pending bytes.
+	 */
+	private static final class Rolled {
+		/*
+		 * The rolled file.
+		 */
+		private final File file;
+
+		/*
+		 * The old channel.
+		 */
+		private final FileChannel channel;
+
+		/*
+		 * The bytes not yet written to the old channel.
+		 */
+		private final ByteBuffer pending;
+
+		Rolled(File file, FileChannel channel, ByteBuffer pending) {
+			this.file = file;
+			this.channel = channel;
+			this.pending = pending;
+		}
+	}
+
+	/*
+	 * Finishes, compresses and prunes rolled files.
+	 */
+	private final class Worker implements Runnable {
+		@Override
+		public void run() {
+			for (;;) {
+				Rolled rolled;
+				try {
+					rolled = queue.take();
+				} catch (InterruptedException e) {
+					return;
+				}
+				if (rolled == STOP) {
+					return;
+				}
+				try {
+					retire(rolled.channel, rolled.pending);
+					if (compress) {
+						gzip(rolled.file);
+					}
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+				applyRetention(indexOf(rolled.file));
+			}
+		}
+	}
+}
\ No newline at end of file
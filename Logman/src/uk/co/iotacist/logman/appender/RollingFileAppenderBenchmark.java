@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.appender;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+import uk.co.iotacist.logman.Logger;
+
+/**
+ * The <code>RollingFileAppenderBenchmark</code> class measures the append latency of
+ * the <code>RollingFileAppender</code> under every flush policy while the file
+ * is rolled over every few hundred kilobytes. A single thread logs a fixed
+ * number of events through a non-additive logger, timing each call. The
+ * median, 99.9th percentile and maximum latencies of all appends are reported
+ * together with the number of rollovers and the maximum latency of an append
+ * which rolled the file over.
+ *
+ * Usage: <code>RollingFileAppenderBenchmark directory [events [maxFileSize]]</code>,
+ * the files are written to the specified directory and deleted afterwards.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public final class RollingFileAppenderBenchmark {
+	/*
+	 * The default number of events logged for each policy.
+	 */
+	private static final int DEFAULT_EVENTS = 50000;
+
+	/*
+	 * The default size in bytes after which the file is rolled over.
+	 */
+	private static final long DEFAULT_MAX_FILE_SIZE = 256 * 1024;
+
+	/*
+	 * Instances of this class may not be made.
+	 */
+	private RollingFileAppenderBenchmark() {
+	}
+
+	/**
+	 * Runs the benchmark in the directory given as the first argument with the
+	 * number of events and the file size given as the optional second and third
+	 * arguments.
+	 * 
+	 * @param args - Directory, optional events and optional file size.
+	 * 
+	 * @throws IOException If a file cannot be written.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1 || args.length > 3) {
+			System.err.println("Usage: RollingFileAppenderBenchmark directory [events [maxFileSize]]");
+			System.exit(1);
+		}
+		File directory = new File(args[0]);
+		int events = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_EVENTS;
+		long maxFileSize = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_MAX_FILE_SIZE;
+		System.out.printf("%-12s %9s %12s %12s %12s %12s%n", "Policy", "Rollovers", "Median us", "99.9% us",
+				"Max us", "Rollover us");
+		for (FlushPolicy policy : FlushPolicy.values()) {
+			run(directory, policy, events, maxFileSize);
+		}
+	}
+
+	/*
+	 * Runs one policy and prints its latencies.
+	 */
+	private static void run(File directory, FlushPolicy policy, int events, long maxFileSize)
+			throws IOException {
+		final String name = "rolling-" + policy.name().toLowerCase() + ".log";
+		File file = new File(directory, name);
+		delete(directory, name);
+		Probe appender = new Probe(file, policy, maxFileSize);
+		Logger logger = Logger.getLogger(RollingFileAppenderBenchmark.class.getName() + "." + policy.name());
+		logger.setAdditivity(false);
+		logger.addAppender(appender);
+		long[] latencies = new long[events];
+		long rolloverLatency = 0L;
+		for (int i = 0; i < events; i++) {
+			int rollovers = appender.rollovers;
+			long started = System.nanoTime();
+			logger.info("Benchmark event with a payload of typical length from {}", name);
+			latencies[i] = System.nanoTime() - started;
+			if (appender.rollovers != rollovers) {
+				rolloverLatency = Math.max(rolloverLatency, latencies[i]);
+			}
+		}
+		logger.removeAppender(appender);
+		appender.close();
+		delete(directory, name);
+		Arrays.sort(latencies);
+		System.out.printf("%-12s %9d %12.1f %12.1f %12.1f %12.1f%n", policy, appender.rollovers,
+				latencies[events / 2] / 1e3, latencies[(int) (events * 0.999)] / 1e3, latencies[events - 1] / 1e3,
+				rolloverLatency / 1e3);
+	}
+
+	/*
+	 * Counts the rollovers of the appender, on the logging thread.
+	 */
+	private static final class Probe extends RollingFileAppender {
+		/*
+		 * The number of rollovers.
+		 */
+		private int rollovers;
+
+		/*
+		 * Constructs a new probe rolling over on size only.
+		 */
+		Probe(File output, FlushPolicy flushPolicy, long maxFileSize) throws IOException {
+			super(output, flushPolicy, maxFileSize, 0L);
+			setCompress(false);
+		}
+
+		@Override
+		protected FileChannel rollover(FileChannel channel, ByteBuffer pending) throws IOException {
+			FileChannel next = super.rollover(channel, pending);
+			rollovers++;
+			return next;
+		}
+	}
+
+	/*
+	 * Deletes the file with the specified name and its rolled files, returning the
+	 * number of files deleted.
+	 */
+	private static int delete(File directory, String name) {
+		int count = 0;
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if ((file.getName().equals(name) || file.getName().startsWith(name + ".")) && file.delete()) {
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+}
\ No newline at end of file
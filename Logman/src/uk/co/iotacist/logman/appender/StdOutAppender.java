@@ -15,20 +15,86 @@
  */
 package uk.co.iotacist.logman.appender;
 
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
 import uk.co.iotacist.logman.Level;
 import uk.co.iotacist.logman.Log;
 
 /**
  * The <code>StdOutAppender</code> class takes <code>Log</code> messages from
- * the logger and exports them to the System.out and System.err print streams.
+ * the logger and exports them to the standard output and standard error
+ * streams.
+ * 
+ * Messages are encoded as UTF-8 into a buffer for each stream, shared by every
+ * <code>StdOutAppender</code> instance, and written to the
+ * <code>FileDescriptor.out</code> and <code>FileDescriptor.err</code> streams
+ * in batches. A stream is written once its buffer holds 8 KB, every 50
+ * milliseconds by a daemon thread, at shutdown, and straight away for
+ * <code>SEVERE</code> messages. As the streams are written directly,
+ * <code>System.setOut</code> and <code>System.setErr</code> do not redirect
+ * these messages. The streams are written through a
+ * <code>FileOutputStream</code> rather than its channel, as an interruptible
+ * channel would close the descriptor when an interrupted thread logs.
  * 
  * @since 1.0
  * 
- * @version 1.1
+ * @version 1.2
  * 
  * @author Iotacist <iotacist@gmail.com>
  */
 public class StdOutAppender implements Appender {
+	/*
+	 * The number of buffered bytes after which a stream is written.
+	 */
+	private static final int FLUSH_BYTES = 8 * 1024;
+
+	/*
+	 * The time after which buffered bytes are written.
+	 */
+	private static final long FLUSH_NANOS = TimeUnit.MILLISECONDS.toNanos(50L);
+
+	/*
+	 * The line separator bytes.
+	 */
+	private static final byte[] LINE_SEPARATOR = System.getProperty("line.separator", "\n")
+			.getBytes(Charset.forName("UTF-8"));
+
+	/*
+	 * The standard output stream.
+	 */
+	private static final Stream OUT = new Stream(FileDescriptor.out);
+
+	/*
+	 * The standard error stream.
+	 */
+	private static final Stream ERR = new Stream(FileDescriptor.err);
+
+	static {
+		Thread flusher = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				for (;;) {
+					LockSupport.parkNanos(FLUSH_NANOS);
+					flush();
+				}
+			}
+		}, "Logman-StdOutAppender");
+		flusher.setDaemon(true);
+		flusher.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+			@Override
+			public void run() {
+				flush();
+			}
+		}, "Logman-StdOutAppender-Shutdown"));
+	}
+
 	/**
 	 * Constructs a new <code>StdOutAppender</code> instance.
 	 */
@@ -38,18 +104,115 @@ public class StdOutAppender implements Appender {
 	/**
 	 * Exports the specified <code>Log</code> to the system streams, if the level of
 	 * this <code>Log</code> is either <code>WARN</code> or <code>SEVERE</code> the
-	 * formatted message will be printed to the <code>System.err</code> output
-	 * stream, otherwise the formatted message will be printed to the
-	 * <code>System.out</code> output stream.
+	 * formatted message will be written to the standard error stream, otherwise
+	 * the formatted message will be written to the standard output stream. A
+	 * <code>SEVERE</code> message is written before this returns, together with
+	 * everything buffered for standard output before it.
 	 * 
-	 * @param event - Log instance.
+	 * @param log - Log instance.
 	 */
 	@Override
 	public void append(Log log) {
-		if (log.getLevel() == Level.WARN || log.getLevel() == Level.SEVERE) {
-			System.err.println(log.getFormattedMessage());
+		Level level = log.getLevel();
+		if (level == Level.SEVERE) {
+			OUT.flush();
+			ERR.append(log, true);
+		} else if (level == Level.WARN) {
+			ERR.append(log, false);
 		} else {
-			System.out.println(log.getFormattedMessage());
+			OUT.append(log, false);
+		}
+	}
+
+	/**
+	 * Writes every buffered message to the standard output and standard error
+	 * streams.
+	 */
+	public static void flush() {
+		OUT.flush();
+		ERR.flush();
+	}
+
+	/*
+	 * A system stream with its buffer.
+	 */
+	private static final class Stream {
+		/*
+		 * The system stream, it is never closed.
+		 */
+		private final FileOutputStream stream;
+
+		/*
+		 * The buffered bytes, kept on the heap so they can be written to the stream.
+		 */
+		private final ByteBuffer buffer = ByteBuffer.allocate(2 * FLUSH_BYTES);
+
+		Stream(FileDescriptor descriptor) {
+			this.stream = new FileOutputStream(descriptor);
+		}
+
+		/*
+		 * Encodes the formatted message and the line separator into the buffer,
+		 * writing the buffer first whenever it runs out of space. A message larger
+		 * than the whole buffer is written straight through.
+		 */
+		synchronized void append(Log log, boolean flush) {
+			try {
+				if (!log.encodeTo(buffer)) {
+					drain();
+					if (!log.encodeTo(buffer)) {
+						write(ByteBuffer
+								.wrap(String.valueOf(log.getFormattedMessage()).getBytes(Charset.forName("UTF-8"))));
+					}
+				}
+				if (buffer.remaining() < LINE_SEPARATOR.length) {
+					drain();
+				}
+				buffer.put(LINE_SEPARATOR);
+				if (flush || buffer.position() >= FLUSH_BYTES) {
+					drain();
+				}
+			} catch (IOException e) {
+				/*
+				 * The system stream has failed, there is nowhere left to report it.
+				 */
+				buffer.clear();
+			}
+		}
+
+		/*
+		 * Writes the buffered bytes.
+		 */
+		synchronized void flush() {
+			if (buffer.position() > 0) {
+				try {
+					drain();
+				} catch (IOException e) {
+					/*
+					 * The system stream has failed, there is nowhere left to report it.
+					 */
+				}
+			}
+		}
+
+		/*
+		 * Writes the buffer to the stream, the caller holds the stream lock.
+		 */
+		private void drain() throws IOException {
+			buffer.flip();
+			try {
+				write(buffer);
+			} finally {
+				buffer.clear();
+			}
+		}
+
+		/*
+		 * Writes the specified heap bytes to the stream.
+		 */
+		private void write(ByteBuffer bytes) throws IOException {
+			stream.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+			bytes.position(bytes.limit());
 		}
 	}
 }
\ No newline at end of file
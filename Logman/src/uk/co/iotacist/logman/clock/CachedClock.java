@@ -0,0 +1,107 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.clock;
+
+/**
+ * The <code>CachedClock</code> class is a coarse clock, a background thread
+ * reads the system time once per tick and loggers only read the cached value,
+ * which is a single volatile field read.
+ * 
+ * Timestamps are at most one tick behind the system time, the default tick is
+ * one millisecond.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class CachedClock implements Clock, Runnable {
+	/*
+	 * The cached time.
+	 */
+	private volatile long millis = System.currentTimeMillis();
+
+	/*
+	 * The tick interval in milliseconds.
+	 */
+	private final long tickMillis;
+
+	/*
+	 * The ticking thread.
+	 */
+	private final Thread ticker;
+
+	/*
+	 * The ticking flag.
+	 */
+	private volatile boolean isRunning = true;
+
+	/**
+	 * Constructs a new <code>CachedClock</code> instance which ticks every
+	 * millisecond.
+	 */
+	public CachedClock() {
+		this(1);
+	}
+
+	/**
+	 * Constructs a new <code>CachedClock</code> instance which ticks at the
+	 * specified interval, the ticking thread is a daemon and starts straight away.
+	 * 
+	 * @param tickMillis - Tick interval in milliseconds.
+	 */
+	public CachedClock(long tickMillis) {
+		this.tickMillis = Math.max(1, tickMillis);
+		this.ticker = new Thread(this, "Logman-CachedClock");
+		this.ticker.setDaemon(true);
+		this.ticker.start();
+	}
+
+	/**
+	 * Returns the cached time.
+	 * 
+	 * @return Milliseconds since the epoch.
+	 */
+	@Override
+	public long currentTimeMillis() {
+		return millis;
+	}
+
+	/**
+	 * Updates the cached time once per tick until the clock is stopped.
+	 */
+	@Override
+	public void run() {
+		while (isRunning) {
+			millis = System.currentTimeMillis();
+			try {
+				Thread.sleep(tickMillis);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Stops the ticking thread, the cached time is no longer updated.
+	 */
+	public void stop() {
+		isRunning = false;
+		ticker.interrupt();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.clock;
+
+/**
+ * The <code>SystemClock</code> class reads the time from
+ * <code>System.currentTimeMillis()</code> on every call.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class SystemClock implements Clock {
+	/**
+	 * Constructs a new <code>SystemClock</code> instance.
+	 */
+	public SystemClock() {
+	}
+
+	/**
+	 * Returns the current system time.
+	 * 
+	 * @return Milliseconds since the epoch.
+	 */
+	@Override
+	public long currentTimeMillis() {
+		return System.currentTimeMillis();
+	}
+}
\ No newline at end of file
@@ -20,19 +20,33 @@ import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.awt.event.AdjustmentEvent;
 import java.awt.event.AdjustmentListener;
+import java.awt.event.ItemEvent;
+import java.awt.event.ItemListener;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.swing.BoundedRangeModel;
+import javax.swing.BoxLayout;
 import javax.swing.DefaultListCellRenderer;
-import javax.swing.DefaultListModel;
+import javax.swing.JComboBox;
+import javax.swing.JLabel;
 import javax.swing.JList;
 import javax.swing.JPanel;
 import javax.swing.JScrollBar;
 import javax.swing.JScrollPane;
+import javax.swing.JTextField;
 import javax.swing.SwingUtilities;
+import javax.swing.Timer;
 import javax.swing.text.DefaultCaret;
 import javax.swing.text.JTextComponent;
 
@@ -45,17 +59,103 @@ import uk.co.iotacist.logman.appender.Appender;
  * The <code>Console</code> class takes <code>LoggerEvent</code> messages from
  * the logger and exports them to a console window.
  * 
+ * Logging threads only add logs to a lock-free staging queue. The queue is
+ * drained on the Event Dispatch Thread at most once per frame, each drain adds
+ * the whole batch to the model and scrolls once. The model keeps a bounded
+ * number of lines and evicts the oldest ones.
+ * 
+ * Every row has the same height, measured once from a prototype line, and the
+ * same width, estimated from the message length of the widest retained line,
+ * so the list never measures its logs and only the visible rows are rendered
+ * however long the history is.
+ * 
+ * A search bar above the list filters it by level, logger name and text. The
+ * filtered view reads its logs from the same model through the per-level and
+ * per-logger posting lists of a <code>ConsoleIndex</code>.
+ * 
  * @since 1.0
  * 
- * @version 1.0
+ * @version 1.2
  * 
  * @author Iotacist <iotacist@gmail.com>
  */
 public class Console extends JPanel implements Appender {
+	/**
+	 * Default maximum number of lines kept by the console.
+	 */
+	public static final int DEFAULT_CAPACITY = 10000;
+
+	/**
+	 * Line measured to size every row of the console.
+	 */
+	protected static final String PROTOTYPE_LINE = "[00/00/0000 00:00:00][Prototype][SEVERE] "
+			+ "The quick brown fox jumps over the lazy dog, the quick brown fox jumps over the lazy dog.";
+
+	/**
+	 * Time between two drains of the staging queue, about one frame.
+	 */
+	protected static final int FRAME_MILLIS = 16;
+
 	/**
 	 * Log list model.
 	 */
-	protected final DefaultListModel<Log> CONSOLE_LOG_MODEL;
+	protected final ConsoleListModel<Log> CONSOLE_LOG_MODEL;
+
+	/**
+	 * Logs waiting to be added to the model.
+	 */
+	protected final ConcurrentLinkedQueue<Log> CONSOLE_LOG_STAGING = new ConcurrentLinkedQueue<Log>();
+
+	/**
+	 * Number of logs waiting in the staging queue.
+	 */
+	protected final AtomicInteger CONSOLE_LOG_STAGED = new AtomicInteger();
+
+	/**
+	 * Set while a drain of the staging queue is scheduled.
+	 */
+	protected final AtomicBoolean CONSOLE_LOG_SCHEDULED = new AtomicBoolean();
+
+	/**
+	 * Drains the staging queue on the Event Dispatch Thread.
+	 */
+	protected final Timer CONSOLE_LOG_TIMER;
+
+	/**
+	 * Batch of logs drained from the staging queue, only used on the Event
+	 * Dispatch Thread.
+	 */
+	protected final ArrayList<Log> CONSOLE_LOG_BATCH = new ArrayList<Log>();
+
+	/**
+	 * Level and logger posting lists of the log list model.
+	 */
+	protected final ConsoleIndex CONSOLE_LOG_INDEX;
+
+	/**
+	 * Filtered view of the log list model.
+	 */
+	protected final ConsoleView CONSOLE_LOG_VIEW;
+
+	/**
+	 * Search bar.
+	 */
+	protected final JPanel CONSOLE_SEARCH_BAR;
+
+	/**
+	 * Search bar level filter, the first item matches every level.
+	 */
+	protected final JComboBox<Object> CONSOLE_SEARCH_LEVEL;
+
+	/**
+	 * Search bar logger name filter.
+	 */
+	protected final JTextField CONSOLE_SEARCH_LOGGER;
+
+	/**
+	 * Search bar text filter.
+	 */
+	protected final JTextField CONSOLE_SEARCH_TEXT;
 
 	/**
 	 * Log list.
@@ -77,6 +177,35 @@ public class Console extends JPanel implements Appender {
 	 */
 	protected final SmartScroller CONSOLE_LOG_SMART_CONTROLLER;
 
+	/**
+	 * Width of the list cells, the estimated width of the widest retained line
+	 * and at least the width of the prototype line.
+	 */
+	protected int cellWidth = 1;
+
+	/**
+	 * Width of the prototype line, the narrowest the cells get.
+	 */
+	protected int cellMinimumWidth = 1;
+
+	/**
+	 * Advance of the widest character in the level fonts, used to estimate line
+	 * widths from their length.
+	 */
+	protected int cellCharWidth = 1;
+
+	/**
+	 * Width the renderer adds around the text of a line.
+	 */
+	protected int cellPadding;
+
+	/*
+	 * Sequence numbers of the retained lines wider than every later line, the
+	 * first one is the widest retained line. Only used on the Event Dispatch
+	 * Thread.
+	 */
+	private final PostingList widest = new PostingList();
+
 	/**
 	 * Severe log text foreground color.
 	 * 
@@ -159,12 +288,13 @@ public class Console extends JPanel implements Appender {
 		/*
 		 * Setup logger list.
 		 */
-		CONSOLE_LOG_MODEL = new DefaultListModel<Log>();
+		CONSOLE_LOG_MODEL = new ConsoleListModel<Log>(DEFAULT_CAPACITY);
 		CONSOLE_LOG = new JList<Log>(CONSOLE_LOG_MODEL);
 		CONSOLE_LOG.setValueIsAdjusting(true);
 		CONSOLE_LOG.setFont(font);
 		CONSOLE_LOG.setCellRenderer(CONSOLE_LOG_RENDERER);
 		CONSOLE_LOG.setLayoutOrientation(JList.VERTICAL);
+		updateCellSize();
 		/*
 		 * Setup scroll bar.
 		 */
@@ -176,11 +306,60 @@ public class Console extends JPanel implements Appender {
 		CONSOLE_LOG_SCROLLBAR.setVisible(true);
 		CONSOLE_LOG_SMART_CONTROLLER = new SmartScroller(CONSOLE_LOG_SCROLLBAR, SmartScroller.VERTICAL,
 				SmartScroller.END);
+		/*
+		 * Setup staging queue drain.
+		 */
+		CONSOLE_LOG_TIMER = new Timer(FRAME_MILLIS, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				drain();
+			}
+		});
+		/*
+		 * Drains are coalesced by the scheduled flag, a coalescing timer could drop
+		 * the drain scheduled while the previous one is running.
+		 */
+		CONSOLE_LOG_TIMER.setRepeats(false);
+		CONSOLE_LOG_TIMER.setCoalesce(false);
+		/*
+		 * Setup index, filtered view and search bar.
+		 */
+		CONSOLE_LOG_INDEX = new ConsoleIndex(CONSOLE_LOG_MODEL);
+		CONSOLE_LOG_VIEW = new ConsoleView(CONSOLE_LOG_MODEL, CONSOLE_LOG_INDEX);
+		CONSOLE_SEARCH_LEVEL = new JComboBox<Object>(
+				new Object[] { "All", Level.SEVERE, Level.WARN, Level.INFO, Level.DEBUG });
+		CONSOLE_SEARCH_LOGGER = new JTextField(12);
+		CONSOLE_SEARCH_TEXT = new JTextField(20);
+		ActionListener search = new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				applyFilter();
+			}
+		};
+		CONSOLE_SEARCH_LEVEL.addItemListener(new ItemListener() {
+			@Override
+			public void itemStateChanged(ItemEvent e) {
+				if (e.getStateChange() == ItemEvent.SELECTED) {
+					applyFilter();
+				}
+			}
+		});
+		CONSOLE_SEARCH_LOGGER.addActionListener(search);
+		CONSOLE_SEARCH_TEXT.addActionListener(search);
+		CONSOLE_SEARCH_BAR = new JPanel();
+		CONSOLE_SEARCH_BAR.setLayout(new BoxLayout(CONSOLE_SEARCH_BAR, BoxLayout.X_AXIS));
+		CONSOLE_SEARCH_BAR.add(new JLabel(" Level "));
+		CONSOLE_SEARCH_BAR.add(CONSOLE_SEARCH_LEVEL);
+		CONSOLE_SEARCH_BAR.add(new JLabel(" Logger "));
+		CONSOLE_SEARCH_BAR.add(CONSOLE_SEARCH_LOGGER);
+		CONSOLE_SEARCH_BAR.add(new JLabel(" Search "));
+		CONSOLE_SEARCH_BAR.add(CONSOLE_SEARCH_TEXT);
 		/*
 		 * Init JPanel.
 		 */
 		setLayout(new BorderLayout());
 		add(CONSOLE_LOG_SCROLLBAR, BorderLayout.CENTER);
+		add(CONSOLE_SEARCH_BAR, BorderLayout.NORTH);
 		setPreferredSize(dim);
 		setBackground(background);
 		/*
@@ -197,16 +376,227 @@ public class Console extends JPanel implements Appender {
 		}
 	}
 
+	/**
+	 * Sets the text colour of the specified level, if either is null it will be
+	 * ignored.
+	 * 
+	 * @param level - Log level.
+	 * 
+	 * @param color - Text colour.
+	 */
+	public void setLevelColor(Level level, Color color) {
+		CONSOLE_LOG_RENDERER.setColor(level, color);
+		CONSOLE_LOG.repaint();
+	}
+
+	/**
+	 * Sets the font of the specified level, a null font makes the level use the
+	 * console font again. If the level is null it will be ignored.
+	 * 
+	 * @param level - Log level.
+	 * 
+	 * @param font  - Font.
+	 */
+	public void setLevelFont(Level level, Font font) {
+		CONSOLE_LOG_RENDERER.setFont(level, font);
+		updateCellSize();
+	}
+
+	/**
+	 * Measures the prototype line in every level font and fixes the row height of
+	 * the list to the largest result. The font metrics used to estimate line
+	 * widths are cached and the cell width is estimated again from every
+	 * retained line, so long lines are not clipped.
+	 */
+	protected void updateCellSize() {
+		int width = 1;
+		int height = 1;
+		int charWidth = 1;
+		int padding = 0;
+		for (Level level : Level.values()) {
+			Component c = CONSOLE_LOG_RENDERER.getListCellRendererComponent(CONSOLE_LOG, PROTOTYPE_LINE, 0, false,
+					false);
+			Font font = CONSOLE_LOG_RENDERER.FONTS.get(level);
+			if (font != null) {
+				c.setFont(font);
+			}
+			Dimension size = c.getPreferredSize();
+			FontMetrics metrics = c.getFontMetrics(c.getFont());
+			width = Math.max(width, size.width);
+			height = Math.max(height, size.height);
+			charWidth = Math.max(charWidth, metrics.charWidth('W'));
+			padding = Math.max(padding, size.width - metrics.stringWidth(PROTOTYPE_LINE));
+		}
+		cellMinimumWidth = width;
+		cellCharWidth = charWidth;
+		cellPadding = padding;
+		widest.clear();
+		updateCellWidth(CONSOLE_LOG_MODEL.getFirstSequence());
+		CONSOLE_LOG.setFixedCellHeight(height);
+	}
+
+	/**
+	 * Tracks the lines added from the specified sequence number on and fixes the
+	 * cell width to the widest retained line. The lines wider than every later
+	 * line are kept in order, so once the widest line is evicted the next widest
+	 * one is already known and the cells shrink.
+	 * 
+	 * @param from - Sequence number of the first line to track.
+	 */
+	protected void updateCellWidth(long from) {
+		long first = CONSOLE_LOG_MODEL.getFirstSequence();
+		long next = CONSOLE_LOG_MODEL.getNextSequence();
+		widest.trimBelow(first);
+		for (long sequence = Math.max(from, first); sequence < next; sequence++) {
+			int width = measure(CONSOLE_LOG_MODEL.getElementBySequence(sequence));
+			while (widest.size() > 0
+					&& measure(CONSOLE_LOG_MODEL.getElementBySequence(widest.get(widest.size() - 1))) <= width) {
+				widest.removeLast();
+			}
+			widest.add(sequence);
+		}
+		int width = cellMinimumWidth;
+		if (widest.size() > 0) {
+			width = Math.max(width, measure(CONSOLE_LOG_MODEL.getElementBySequence(widest.get(0))));
+		}
+		if (width != cellWidth) {
+			cellWidth = width;
+			CONSOLE_LOG.setFixedCellWidth(width);
+		}
+	}
+
+	/**
+	 * Estimates the width of the specified log from the length of its message
+	 * and the cached font metrics, without calling the renderer. Every character
+	 * is taken to be as wide as the widest one, so lines are not clipped.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @return Estimated width.
+	 */
+	protected int measure(Log log) {
+		return cellPadding + cellCharWidth * String.valueOf(log.getFormattedMessage()).length();
+	}
+
 	public void setSelectedBackground(Color selected) {
 		if (selected != null) {
 			consoleSelectedColor = selected;
 		}
 	}
 
+	/**
+	 * Sets the maximum number of lines kept by the console, the oldest lines are
+	 * evicted first.
+	 * 
+	 * @param capacity - Maximum number of lines.
+	 */
+	public void setCapacity(final int capacity) {
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				CONSOLE_LOG_MODEL.setCapacity(capacity);
+				updateCellWidth(CONSOLE_LOG_MODEL.getNextSequence());
+				CONSOLE_LOG_INDEX.update();
+				if (CONSOLE_LOG_VIEW.isFiltered()) {
+					CONSOLE_LOG_VIEW.update();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Stages the specified <code>Log</code> and schedules a drain of the staging
+	 * queue if none is pending. This may be called from any thread. If more logs
+	 * are staged than the console can show the oldest staged ones are discarded.
+	 * 
+	 * @param log - Log instance.
+	 */
 	@Override
 	public void append(Log log) {
-		CONSOLE_LOG_MODEL.addElement(log);
-		CONSOLE_LOG.ensureIndexIsVisible(CONSOLE_LOG_MODEL.getSize());
+		/*
+		 * The console keeps its logs, so reusable ones must be copied.
+		 */
+		CONSOLE_LOG_STAGING.offer(log.toImmutable());
+		if (CONSOLE_LOG_STAGED.incrementAndGet() > CONSOLE_LOG_MODEL.getCapacity()
+				&& CONSOLE_LOG_STAGING.poll() != null) {
+			CONSOLE_LOG_STAGED.decrementAndGet();
+		}
+		if (CONSOLE_LOG_SCHEDULED.compareAndSet(false, true)) {
+			CONSOLE_LOG_TIMER.restart();
+		}
+	}
+
+	/**
+	 * Moves every staged log to the model in a single batch and scrolls to the
+	 * newest line once if the view was already at the end, so a user reading
+	 * older lines is not moved. This runs on the Event Dispatch Thread.
+	 */
+	protected void drain() {
+		CONSOLE_LOG_SCHEDULED.set(false);
+		/*
+		 * Logs staged while draining are left for the next frame.
+		 */
+		Log log;
+		for (int i = CONSOLE_LOG_STAGED.get(); i > 0 && (log = CONSOLE_LOG_STAGING.poll()) != null; i--) {
+			CONSOLE_LOG_STAGED.decrementAndGet();
+			CONSOLE_LOG_BATCH.add(log);
+		}
+		if (!CONSOLE_LOG_STAGING.isEmpty() && CONSOLE_LOG_SCHEDULED.compareAndSet(false, true)) {
+			CONSOLE_LOG_TIMER.restart();
+		}
+		if (!CONSOLE_LOG_BATCH.isEmpty()) {
+			boolean isAtEnd = isAtEnd();
+			long from = CONSOLE_LOG_MODEL.getNextSequence();
+			CONSOLE_LOG_MODEL.addAll(CONSOLE_LOG_BATCH);
+			CONSOLE_LOG_BATCH.clear();
+			/*
+			 * Resize the cells to the widest retained line, the list then only lays out
+			 * the fixed size instead of measuring every row.
+			 */
+			updateCellWidth(from);
+			CONSOLE_LOG_INDEX.update();
+			if (CONSOLE_LOG_VIEW.isFiltered()) {
+				CONSOLE_LOG_VIEW.update();
+			}
+			if (isAtEnd) {
+				CONSOLE_LOG.ensureIndexIsVisible(CONSOLE_LOG.getModel().getSize() - 1);
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the console is scrolled to its newest line. Once the console
+	 * is full, adding lines evicts as many old ones and leaves the scroll range
+	 * unchanged, so the <code>SmartScroller</code> does not see them and the
+	 * console follows the newest line itself.
+	 * 
+	 * @return <code>true</code> if the newest line is in view.
+	 */
+	protected boolean isAtEnd() {
+		BoundedRangeModel range = CONSOLE_LOG_SCROLLBAR.getVerticalScrollBar().getModel();
+		return range.getValue() + range.getExtent() >= range.getMaximum();
+	}
+
+	/**
+	 * Filters the console by the level, logger name and text of the search bar,
+	 * with an empty search bar the console shows every log again. The newest line
+	 * is kept in view if it was before. This runs on the Event Dispatch Thread.
+	 */
+	protected void applyFilter() {
+		boolean isAtEnd = isAtEnd();
+		Object level = CONSOLE_SEARCH_LEVEL.getSelectedItem();
+		CONSOLE_LOG_VIEW.setFilter(level instanceof Level ? (Level) level : null,
+				CONSOLE_SEARCH_LOGGER.getText().trim(), CONSOLE_SEARCH_TEXT.getText());
+		if (CONSOLE_LOG_VIEW.isFiltered()) {
+			if (CONSOLE_LOG.getModel() != CONSOLE_LOG_VIEW) {
+				CONSOLE_LOG.setModel(CONSOLE_LOG_VIEW);
+			}
+		} else if (CONSOLE_LOG.getModel() != CONSOLE_LOG_MODEL) {
+			CONSOLE_LOG.setModel(CONSOLE_LOG_MODEL);
+		}
+		if (isAtEnd) {
+			CONSOLE_LOG.ensureIndexIsVisible(CONSOLE_LOG.getModel().getSize() - 1);
+		}
 	}
 
 	@Override
@@ -216,31 +606,20 @@ public class Console extends JPanel implements Appender {
 		g2d.dispose();
 	}
 
+	/**
+	 * The <code>ConsoleCellRenderer</code> class renders each <code>Log</code> as
+	 * its formatted message, with the colour and font of its level looked up in an
+	 * <code>EnumMap</code>.
+	 */
 	protected static class ConsoleCellRenderer extends DefaultListCellRenderer {
 		/**
-		 * Severe log text foreground color.
-		 * 
-		 * Boston University Red.
-		 */
-		protected Color severeColor = new Color(204, 0, 0);
-		/**
-		 * Warn log text foreground color.
-		 * 
-		 * Tangelo.
+		 * Text foreground colour of each level.
 		 */
-		protected Color warnColor = new Color(230, 76, 0);
+		protected final EnumMap<Level, Color> COLORS = new EnumMap<Level, Color>(Level.class);
 		/**
-		 * Info log text foreground color.
-		 * 
-		 * Electric Green.
+		 * Font of each level, levels without one use the list font.
 		 */
-		protected Color infoColor = new Color(0, 230, 0);
-		/**
-		 * Debug log text foreground color.
-		 * 
-		 * Ultramarine Blue.
-		 */
-		protected Color debugColor = new Color(51, 85, 255);
+		protected final EnumMap<Level, Font> FONTS = new EnumMap<Level, Font>(Level.class);
 		/**
 		 * Log text foreground color.
 		 * 
@@ -264,7 +643,8 @@ public class Console extends JPanel implements Appender {
 		private static final long serialVersionUID = -3059877184559013726L;
 
 		/**
-		 * Creates a new <code>ConsoleCellRenderer</code> with the specified colours.
+		 * Creates a new <code>ConsoleCellRenderer</code> with the specified colours,
+		 * null colours keep their defaults.
 		 * 
 		 * @param severe     - Text colour of <code>Level.SEVERE</code> log events.
 		 * @param warn       - Text colour of <code>Level.WARN</code> log events.
@@ -276,26 +656,20 @@ public class Console extends JPanel implements Appender {
 		 */
 		protected ConsoleCellRenderer(Color severe, Color warn, Color info, Color debug, Color log, Color background,
 				Color selected) {
-			/** Checking severe color is not null **/
-			if (severe != null) {
-				severeColor = severe;
-				/** Checking warn color is not null **/
-			} else if (warn != null) {
-				warnColor = warn;
-				/** Checking info color is not null **/
-			} else if (info != null) {
-				infoColor = info;
-				/** Checking debug color is not null **/
-			} else if (debug != null) {
-				debugColor = debug;
-				/** Checking log color is not null **/
-			} else if (log != null) {
+			/*
+			 * Boston University Red, Tangelo, Electric Green and Ultramarine Blue.
+			 */
+			COLORS.put(Level.SEVERE, severe != null ? severe : new Color(204, 0, 0));
+			COLORS.put(Level.WARN, warn != null ? warn : new Color(230, 76, 0));
+			COLORS.put(Level.INFO, info != null ? info : new Color(0, 230, 0));
+			COLORS.put(Level.DEBUG, debug != null ? debug : new Color(51, 85, 255));
+			if (log != null) {
 				logColor = log;
-				/** Checking background color is not null **/
-			} else if (background != null) {
+			}
+			if (background != null) {
 				backgroundColor = background;
-				/** Checking selected color is not null **/
-			} else if (selected != null) {
+			}
+			if (selected != null) {
 				selectedColor = selected;
 			}
 			/**
@@ -305,30 +679,56 @@ public class Console extends JPanel implements Appender {
 		}
 
 		protected Color lookup(Level level) {
-			if (level.equals(Level.SEVERE)) {
-				return severeColor;
-			}
-			if (level.equals(Level.WARN)) {
-				return warnColor;
-			}
-			if (level.equals(Level.INFO)) {
-				return infoColor;
+			Color color = level == null ? null : COLORS.get(level);
+			return color != null ? color : logColor;
+		}
+
+		/**
+		 * Sets the text colour of the specified level, if either is null it will be
+		 * ignored.
+		 * 
+		 * @param level - Log level.
+		 * @param color - Text colour.
+		 */
+		protected void setColor(Level level, Color color) {
+			if (level != null && color != null) {
+				COLORS.put(level, color);
 			}
-			if (level.equals(Level.DEBUG)) {
-				return debugColor;
+		}
+
+		/**
+		 * Sets the font of the specified level, a null font makes the level use the
+		 * list font again. If the level is null it will be ignored.
+		 * 
+		 * @param level - Log level.
+		 * @param font  - Font.
+		 */
+		protected void setFont(Level level, Font font) {
+			if (level != null) {
+				if (font != null) {
+					FONTS.put(level, font);
+				} else {
+					FONTS.remove(level);
+				}
 			}
-			return logColor;
 		}
 
 		@Override
 		public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected,
 				boolean cellHasFocus) {
-			Log log = (Log) value;
-			value = log.getFormattedMessage();
-
+			Level level = null;
+			if (value instanceof Log) {
+				Log log = (Log) value;
+				level = log.getLevel();
+				value = log.getFormattedMessage();
+			}
 			Component c = super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
-			c.setForeground(lookup(log.getLevel()));
+			c.setForeground(lookup(level));
 			c.setBackground(isSelected ? selectedColor : backgroundColor);
+			Font font = level == null ? null : FONTS.get(level);
+			if (font != null) {
+				c.setFont(font);
+			}
 			return c;
 		}
 	}
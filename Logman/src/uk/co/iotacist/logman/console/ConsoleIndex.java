@@ -0,0 +1,158 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.console;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import uk.co.iotacist.logman.Level;
+import uk.co.iotacist.logman.Log;
+
+/**
+ * The <code>ConsoleIndex</code> class keeps a posting list of sequence numbers
+ * for each level and each logger name of the logs in a
+ * <code>ConsoleListModel</code>, so filtered views can find their logs without
+ * scanning the whole model.
+ *
+ * The index is brought up to date after each batch added to the model, only
+ * the new logs are indexed and evicted ones are trimmed from the front of the
+ * lists. Like the model it must only be used on the Event Dispatch Thread.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class ConsoleIndex {
+	/*
+	 * The indexed model.
+	 */
+	private final ConsoleListModel<Log> store;
+
+	/*
+	 * The posting list of each level.
+	 */
+	private final EnumMap<Level, PostingList> levels = new EnumMap<Level, PostingList>(Level.class);
+
+	/*
+	 * The posting list of each logger name.
+	 */
+	private final HashMap<String, PostingList> loggers = new HashMap<String, PostingList>();
+
+	/*
+	 * The sequence number of the next log to index.
+	 */
+	private long indexed;
+
+	/**
+	 * Constructs a new <code>ConsoleIndex</code> instance over the specified
+	 * model.
+	 *
+	 * @param store - Indexed model.
+	 */
+	public ConsoleIndex(ConsoleListModel<Log> store) {
+		this.store = store;
+		this.indexed = store.getFirstSequence();
+		for (Level level : Level.values()) {
+			levels.put(level, new PostingList());
+		}
+	}
+
+	/**
+	 * Indexes the logs added to the model since the last update and trims the
+	 * evicted ones.
+	 */
+	public void update() {
+		long first = store.getFirstSequence();
+		long next = store.getNextSequence();
+		for (long sequence = Math.max(indexed, first); sequence < next; sequence++) {
+			Log log = store.getElementBySequence(sequence);
+			if (log.getLevel() != null) {
+				levels.get(log.getLevel()).add(sequence);
+			}
+			String name = log.getLogger() == null ? null : log.getLogger().getName();
+			PostingList list = loggers.get(name);
+			if (list == null) {
+				list = new PostingList();
+				loggers.put(name, list);
+			}
+			list.add(sequence);
+		}
+		indexed = next;
+		for (PostingList list : levels.values()) {
+			list.trimBelow(first);
+		}
+		Iterator<Map.Entry<String, PostingList>> entries = loggers.entrySet().iterator();
+		while (entries.hasNext()) {
+			PostingList list = entries.next().getValue();
+			list.trimBelow(first);
+			if (list.size() == 0) {
+				entries.remove();
+			}
+		}
+	}
+
+	/**
+	 * Returns the logger names with logs in the model.
+	 *
+	 * @return Logger names.
+	 */
+	public Set<String> getLoggerNames() {
+		return Collections.unmodifiableSet(loggers.keySet());
+	}
+
+	/**
+	 * Returns the number of logs of the specified level in the model.
+	 *
+	 * @param level - Log level.
+	 *
+	 * @return Log count.
+	 */
+	public int count(Level level) {
+		return level == null ? 0 : levels.get(level).size();
+	}
+
+	/**
+	 * Returns the number of logs of the specified logger in the model.
+	 *
+	 * @param logger - Logger name.
+	 *
+	 * @return Log count.
+	 */
+	public int count(String logger) {
+		PostingList list = loggers.get(logger);
+		return list == null ? 0 : list.size();
+	}
+
+	/*
+	 * Returns the posting list of the specified level.
+	 */
+	PostingList get(Level level) {
+		return levels.get(level);
+	}
+
+	/*
+	 * Returns the posting list of the specified logger name, or null.
+	 */
+	PostingList get(String logger) {
+		return loggers.get(logger);
+	}
+}
\ No newline at end of file
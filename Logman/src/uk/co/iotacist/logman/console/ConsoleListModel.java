@@ -0,0 +1,247 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.console;
+
+import java.util.List;
+
+import javax.swing.AbstractListModel;
+
+/**
+ * The <code>ConsoleListModel</code> class is a list model backed by a ring
+ * buffer with a fixed capacity, once it is full adding elements evicts the
+ * oldest ones.
+ *
+ * Elements are added in batches, each batch fires at most one removal event
+ * for the evicted elements and one addition event for the new ones. Like every
+ * Swing model it must only be used on the Event Dispatch Thread.
+ *
+ * Every element added is given the next sequence number, which keeps
+ * identifying it while older elements are evicted, so indexes and views over
+ * the model can refer to elements without copying them.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ *
+ * @param <E> - Element type.
+ */
+public class ConsoleListModel<E> extends AbstractListModel<E> {
+	/*
+	 * The ring buffer.
+	 */
+	private Object[] elements;
+
+	/*
+	 * The ring buffer index of the oldest element.
+	 */
+	private int head;
+
+	/*
+	 * The number of elements.
+	 */
+	private int size;
+
+	/*
+	 * The sequence number of the next element added.
+	 */
+	private long nextSequence;
+
+	/**
+	 * The serialization runtime associates with each serializable class a version
+	 * number, called a serialVersionUID, which is used during deserialization to
+	 * verify that the sender and receiver of a serialized object have loaded
+	 * classes for that object that are compatible with respect to serialization.
+	 */
+	private static final long serialVersionUID = 2967450127305946853L;
+
+	/**
+	 * Constructs a new <code>ConsoleListModel</code> instance with the specified
+	 * capacity.
+	 *
+	 * @param capacity - Maximum number of elements, at least 1.
+	 */
+	public ConsoleListModel(int capacity) {
+		this.elements = new Object[Math.max(1, capacity)];
+	}
+
+	/**
+	 * Returns the number of elements.
+	 *
+	 * @return Element count.
+	 */
+	@Override
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * Returns the element at the specified index, the oldest element is at index
+	 * 0.
+	 *
+	 * @param index - Element index.
+	 *
+	 * @return Element.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public E getElementAt(int index) {
+		if (index < 0 || index >= size) {
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+		return (E) elements[(head + index) % elements.length];
+	}
+
+	/**
+	 * Returns the element with the specified sequence number.
+	 *
+	 * @param sequence - Sequence number.
+	 *
+	 * @return Element, or <code>null</code> if it has been evicted or not yet
+	 *         been added.
+	 */
+	@SuppressWarnings("unchecked")
+	public E getElementBySequence(long sequence) {
+		long first = nextSequence - size;
+		if (sequence < first || sequence >= nextSequence) {
+			return null;
+		}
+		return (E) elements[(int) ((head + (sequence - first)) % elements.length)];
+	}
+
+	/**
+	 * Returns the sequence number of the oldest element.
+	 *
+	 * @return Sequence number, equal to the next one if the model is empty.
+	 */
+	public long getFirstSequence() {
+		return nextSequence - size;
+	}
+
+	/**
+	 * Returns the sequence number the next element added will be given.
+	 *
+	 * @return Sequence number.
+	 */
+	public long getNextSequence() {
+		return nextSequence;
+	}
+
+	/**
+	 * Returns the maximum number of elements.
+	 *
+	 * @return Capacity.
+	 */
+	public int getCapacity() {
+		return elements.length;
+	}
+
+	/**
+	 * Sets the maximum number of elements, the oldest elements are evicted if
+	 * there are more.
+	 *
+	 * @param capacity - Maximum number of elements, at least 1.
+	 */
+	public void setCapacity(int capacity) {
+		capacity = Math.max(1, capacity);
+		int evicted = Math.max(0, size - capacity);
+		Object[] resized = new Object[capacity];
+		for (int i = evicted; i < size; i++) {
+			resized[i - evicted] = elements[(head + i) % elements.length];
+		}
+		elements = resized;
+		head = 0;
+		size -= evicted;
+		if (evicted > 0) {
+			fireIntervalRemoved(this, 0, evicted - 1);
+		}
+	}
+
+	/**
+	 * Adds the specified element, evicting the oldest element if the model is
+	 * full.
+	 *
+	 * @param element - Element.
+	 */
+	public void add(E element) {
+		int evicted = size == elements.length ? 1 : 0;
+		put(element);
+		fire(evicted, 1);
+	}
+
+	/**
+	 * Adds the specified elements in order, evicting as many of the oldest
+	 * elements as needed. If there are more elements than the capacity only the
+	 * newest ones are kept.
+	 *
+	 * @param batch - Elements.
+	 */
+	public void addAll(List<? extends E> batch) {
+		int count = batch.size();
+		if (count == 0) {
+			return;
+		}
+		int first = Math.max(0, count - elements.length);
+		nextSequence += first;
+		int added = count - first;
+		int evicted = Math.max(0, size + added - elements.length);
+		for (int i = first; i < count; i++) {
+			put(batch.get(i));
+		}
+		fire(evicted, added);
+	}
+
+	/**
+	 * Removes every element.
+	 */
+	public void clear() {
+		int removed = size;
+		for (int i = 0; i < size; i++) {
+			elements[(head + i) % elements.length] = null;
+		}
+		head = 0;
+		size = 0;
+		if (removed > 0) {
+			fireIntervalRemoved(this, 0, removed - 1);
+		}
+	}
+
+	/*
+	 * Stores the specified element after the newest one, overwriting the oldest
+	 * one if the ring buffer is full.
+	 */
+	private void put(E element) {
+		nextSequence++;
+		if (size == elements.length) {
+			elements[head] = element;
+			head = (head + 1) % elements.length;
+		} else {
+			elements[(head + size) % elements.length] = element;
+			size++;
+		}
+	}
+
+	/*
+	 * Fires the events of a batch which evicted and added the specified counts.
+	 */
+	private void fire(int evicted, int added) {
+		if (evicted > 0) {
+			fireIntervalRemoved(this, 0, evicted - 1);
+		}
+		fireIntervalAdded(this, size - added, size - 1);
+	}
+}
\ No newline at end of file
@@ -0,0 +1,243 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.console;
+
+import javax.swing.AbstractListModel;
+
+import uk.co.iotacist.logman.Level;
+import uk.co.iotacist.logman.Log;
+
+/**
+ * The <code>ConsoleView</code> class is a filtered list model over the logs of
+ * a <code>ConsoleListModel</code>, it holds only the sequence numbers of the
+ * matching logs and reads the logs from the shared model.
+ *
+ * A log matches if it has the level and the logger name of the filter, when
+ * they are set, and its formatted message contains the search text ignoring
+ * case. Setting the filter walks the shorter of the level and logger posting
+ * lists of the <code>ConsoleIndex</code>, only a text search on its own scans
+ * the whole model. Afterwards each update only checks the new logs. Like the
+ * model it must only be used on the Event Dispatch Thread.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class ConsoleView extends AbstractListModel<Log> {
+	/*
+	 * The shared model.
+	 */
+	private final ConsoleListModel<Log> store;
+
+	/*
+	 * The index of the shared model.
+	 */
+	private final ConsoleIndex index;
+
+	/*
+	 * The sequence numbers of the matching logs.
+	 */
+	private final PostingList matches = new PostingList();
+
+	/*
+	 * The level filter, or null.
+	 */
+	private Level level;
+
+	/*
+	 * The logger name filter, or null.
+	 */
+	private String logger;
+
+	/*
+	 * The search text, or null.
+	 */
+	private String text;
+
+	/*
+	 * The sequence number of the next log to check.
+	 */
+	private long checked;
+
+	/**
+	 * The serialization runtime associates with each serializable class a version
+	 * number, called a serialVersionUID, which is used during deserialization to
+	 * verify that the sender and receiver of a serialized object have loaded
+	 * classes for that object that are compatible with respect to serialization.
+	 */
+	private static final long serialVersionUID = -1805324946018436516L;
+
+	/**
+	 * Constructs a new <code>ConsoleView</code> instance over the specified model
+	 * and index, without a filter.
+	 *
+	 * @param store - Shared model.
+	 *
+	 * @param index - Index of the shared model.
+	 */
+	public ConsoleView(ConsoleListModel<Log> store, ConsoleIndex index) {
+		this.store = store;
+		this.index = index;
+		rebuild();
+	}
+
+	/**
+	 * Sets the filter of this view and finds the matching logs again, null or
+	 * empty values match every log.
+	 *
+	 * @param level  - Log level.
+	 *
+	 * @param logger - Logger name.
+	 *
+	 * @param text   - Search text.
+	 */
+	public void setFilter(Level level, String logger, String text) {
+		this.level = level;
+		this.logger = logger == null || logger.isEmpty() ? null : logger;
+		this.text = text == null || text.isEmpty() ? null : text;
+		int removed = matches.size();
+		matches.clear();
+		if (removed > 0) {
+			fireIntervalRemoved(this, 0, removed - 1);
+		}
+		rebuild();
+		if (matches.size() > 0) {
+			fireIntervalAdded(this, 0, matches.size() - 1);
+		}
+	}
+
+	/**
+	 * Checks whether this view has a filter.
+	 *
+	 * @return <code>true</code> if some logs may not match.
+	 */
+	public boolean isFiltered() {
+		return level != null || logger != null || text != null;
+	}
+
+	/**
+	 * Checks the logs added to the model since the last update and drops the
+	 * evicted ones, the index must have been updated first.
+	 */
+	public void update() {
+		int removed = matches.trimBelow(store.getFirstSequence());
+		if (removed > 0) {
+			fireIntervalRemoved(this, 0, removed - 1);
+		}
+		int size = matches.size();
+		long next = store.getNextSequence();
+		for (long sequence = Math.max(checked, store.getFirstSequence()); sequence < next; sequence++) {
+			if (matches(store.getElementBySequence(sequence))) {
+				matches.add(sequence);
+			}
+		}
+		checked = next;
+		if (matches.size() > size) {
+			fireIntervalAdded(this, size, matches.size() - 1);
+		}
+	}
+
+	/**
+	 * Returns the number of matching logs.
+	 *
+	 * @return Log count.
+	 */
+	@Override
+	public int getSize() {
+		return matches.size();
+	}
+
+	/**
+	 * Returns the matching log at the specified index, the oldest match is at
+	 * index 0.
+	 *
+	 * @param index - Log index.
+	 *
+	 * @return Log instance.
+	 */
+	@Override
+	public Log getElementAt(int index) {
+		if (index < 0 || index >= matches.size()) {
+			throw new ArrayIndexOutOfBoundsException(index);
+		}
+		return store.getElementBySequence(matches.get(index));
+	}
+
+	/*
+	 * Finds the matching logs from the shorter posting list of the filter, or the
+	 * whole model when neither the level nor the logger name is set.
+	 */
+	private void rebuild() {
+		long first = store.getFirstSequence();
+		long next = store.getNextSequence();
+		PostingList candidates = null;
+		if (level != null) {
+			candidates = index.get(level);
+		}
+		if (logger != null) {
+			PostingList list = index.get(logger);
+			if (list == null) {
+				checked = next;
+				return;
+			}
+			if (candidates == null || list.size() < candidates.size()) {
+				candidates = list;
+			}
+		}
+		if (candidates != null) {
+			for (int i = 0; i < candidates.size(); i++) {
+				long sequence = candidates.get(i);
+				if (sequence >= first && sequence < next && matches(store.getElementBySequence(sequence))) {
+					matches.add(sequence);
+				}
+			}
+		} else {
+			for (long sequence = first; sequence < next; sequence++) {
+				if (matches(store.getElementBySequence(sequence))) {
+					matches.add(sequence);
+				}
+			}
+		}
+		checked = next;
+	}
+
+	/*
+	 * Checks whether the specified log matches the filter.
+	 */
+	private boolean matches(Log log) {
+		if (level != null && log.getLevel() != level) {
+			return false;
+		}
+		if (logger != null && (log.getLogger() == null || !logger.equals(log.getLogger().getName()))) {
+			return false;
+		}
+		return text == null || containsIgnoreCase(String.valueOf(log.getFormattedMessage()), text);
+	}
+
+	/*
+	 * Checks whether the specified string contains the text ignoring case.
+	 */
+	private static boolean containsIgnoreCase(String string, String text) {
+		for (int i = 0, last = string.length() - text.length(); i <= last; i++) {
+			if (string.regionMatches(true, i, text, 0, text.length())) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.console;
+
+import java.util.Arrays;
+
+/**
+ * The <code>PostingList</code> class is an ascending list of sequence numbers
+ * backed by a growable array, sequence numbers are appended at the end and
+ * trimmed from the front once their elements have been evicted.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+final class PostingList {
+	/*
+	 * The sequence numbers, the live ones start at the head.
+	 */
+	private long[] sequences = new long[16];
+
+	/*
+	 * The index of the first live sequence number.
+	 */
+	private int head;
+
+	/*
+	 * The index after the last live sequence number.
+	 */
+	private int tail;
+
+	/**
+	 * Returns the number of sequence numbers.
+	 *
+	 * @return Size.
+	 */
+	int size() {
+		return tail - head;
+	}
+
+	/**
+	 * Returns the sequence number at the specified index.
+	 *
+	 * @param index - Index, from 0 to size - 1.
+	 *
+	 * @return Sequence number.
+	 */
+	long get(int index) {
+		return sequences[head + index];
+	}
+
+	/**
+	 * Appends the specified sequence number, it must be greater than the last one.
+	 *
+	 * @param sequence - Sequence number.
+	 */
+	void add(long sequence) {
+		if (tail == sequences.length) {
+			int size = size();
+			if (size < sequences.length / 2) {
+				System.arraycopy(sequences, head, sequences, 0, size);
+			} else {
+				sequences = Arrays.copyOfRange(sequences, head, head + Math.max(16, size * 2));
+			}
+			head = 0;
+			tail = size;
+		}
+		sequences[tail++] = sequence;
+	}
+
+	/**
+	 * Removes the last sequence number, the list must not be empty.
+	 */
+	void removeLast() {
+		if (--tail == head) {
+			head = 0;
+			tail = 0;
+		}
+	}
+
+	/**
+	 * Removes the sequence numbers below the specified one.
+	 *
+	 * @param sequence - First sequence number to keep.
+	 *
+	 * @return Number of sequence numbers removed.
+	 */
+	int trimBelow(long sequence) {
+		if (head == tail || sequences[head] >= sequence) {
+			return 0;
+		}
+		int index = Arrays.binarySearch(sequences, head, tail, sequence);
+		if (index < 0) {
+			index = -index - 1;
+		}
+		int removed = index - head;
+		head = index;
+		if (head == tail) {
+			head = 0;
+			tail = 0;
+		}
+		return removed;
+	}
+
+	/**
+	 * Removes every sequence number.
+	 */
+	void clear() {
+		head = 0;
+		tail = 0;
+	}
+}
\ No newline at end of file
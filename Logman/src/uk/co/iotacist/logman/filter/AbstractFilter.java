@@ -0,0 +1,268 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.filter;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import uk.co.iotacist.logman.Level;
+import uk.co.iotacist.logman.Log;
+import uk.co.iotacist.logman.Logger;
+
+/**
+ * The <code>AbstractFilter</code> class is the base of most filters, both of
+ * its decisions are <code>NEUTRAL</code> and the <code>filter</code> method
+ * passes any log which is not denied.
+ *
+ * Filters which suppress events can report how many they suppressed with the
+ * <code>report</code> method, the report is logged through the logger of the
+ * suppressed events and is never itself suppressed by a filter which checks
+ * <code>isReporting</code> first. Reports which must not wait for the next
+ * event can be made from <code>expire</code>, which a shared daemon thread
+ * calls periodically once <code>scheduleExpiry</code> has been called.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public abstract class AbstractFilter implements DecidingFilter {
+	/*
+	 * The number of threads reporting, the report flag is only looked up while
+	 * there are any.
+	 */
+	private static final AtomicInteger REPORTERS = new AtomicInteger();
+
+	/*
+	 * The report flag of the calling thread, set while it logs a report.
+	 */
+	private static final ThreadLocal<boolean[]> REPORTING = new ThreadLocal<boolean[]>() {
+		@Override
+		protected boolean[] initialValue() {
+			return new boolean[1];
+		}
+	};
+
+	/*
+	 * The timer thread shared by the filters which expire their state.
+	 */
+	private static final ScheduledExecutorService TIMER = Executors
+			.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "Logman-FilterTimer");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
+	/*
+	 * Set once the expiry of this filter has been scheduled.
+	 */
+	private final AtomicBoolean isScheduled = new AtomicBoolean();
+
+	/**
+	 * Constructs a new <code>AbstractFilter</code> instance.
+	 */
+	protected AbstractFilter() {
+	}
+
+	/**
+	 * Checks whether the <code>Log</code> parameter is not denied by the
+	 * <code>decide</code> method.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @return <code>true</code> if the log should be logged, <code>false</code>
+	 *         otherwise.
+	 */
+	@Override
+	public boolean filter(Log log) {
+		return decide(log) != FilterResult.DENY;
+	}
+
+	/**
+	 * Returns <code>NEUTRAL</code>, subclasses which can decide from the logger
+	 * and level alone should override this method.
+	 * 
+	 * @param logger - Logger instance.
+	 * 
+	 * @param level  - Log level.
+	 * 
+	 * @return Filter result.
+	 */
+	@Override
+	public FilterResult decide(Logger logger, Level level) {
+		return FilterResult.NEUTRAL;
+	}
+
+	/**
+	 * Returns <code>NEUTRAL</code>, subclasses which need the complete
+	 * <code>Log</code> should override this method.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @return Filter result.
+	 */
+	@Override
+	public FilterResult decide(Log log) {
+		return FilterResult.NEUTRAL;
+	}
+
+	/**
+	 * Returns <code>false</code>, subclasses which override
+	 * <code>decide(Log)</code> to deny or record logs the first decision has not
+	 * seen should return <code>true</code>.
+	 * 
+	 * @return <code>true</code> if the second decision of this filter must not be
+	 *         skipped.
+	 */
+	@Override
+	public boolean isLogNeeded() {
+		return false;
+	}
+
+	/**
+	 * Schedules <code>expire</code> to be called with the specified period on the
+	 * shared timer thread, for as long as this filter is referenced elsewhere.
+	 * Only the first call schedules anything.
+	 * 
+	 * @param periodNanos - Nanoseconds between calls, at least a millisecond.
+	 */
+	protected final void scheduleExpiry(long periodNanos) {
+		if (isScheduled.compareAndSet(false, true)) {
+			long period = Math.max(1000000L, periodNanos);
+			Expiry expiry = new Expiry(this);
+			expiry.future = TIMER.scheduleWithFixedDelay(expiry, period, period, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	/**
+	 * Does nothing, subclasses which have called <code>scheduleExpiry</code>
+	 * should override this method to report the state which has expired.
+	 * 
+	 * @param now - Current nanosecond time.
+	 */
+	protected void expire(long now) {
+	}
+
+	/**
+	 * Checks whether the calling thread is logging a report, filters which
+	 * suppress events should leave reports to the next filter.
+	 * 
+	 * @return <code>true</code> if the calling thread is logging a report.
+	 */
+	protected static boolean isReporting() {
+		return REPORTERS.get() > 0 && REPORTING.get()[0];
+	}
+
+	/**
+	 * Logs a report of suppressed events through the specified logger and level.
+	 * 
+	 * @param logger   - Logger instance.
+	 * 
+	 * @param level    - Log level.
+	 * 
+	 * @param template - Message template, with one placeholder for the count.
+	 * 
+	 * @param count    - Number of suppressed events.
+	 */
+	protected static void report(Logger logger, Level level, String template, long count) {
+		boolean[] flag = REPORTING.get();
+		REPORTERS.incrementAndGet();
+		flag[0] = true;
+		try {
+			logger.log(level, template, count);
+		} finally {
+			flag[0] = false;
+			REPORTERS.decrementAndGet();
+		}
+	}
+
+	/**
+	 * Logs a report of suppressed events with one more argument through the
+	 * specified logger and level.
+	 * 
+	 * @param logger   - Logger instance.
+	 * 
+	 * @param level    - Log level.
+	 * 
+	 * @param template - Message template, with placeholders for the count and
+	 *                 then the argument.
+	 * 
+	 * @param count    - Number of suppressed events.
+	 * 
+	 * @param argument - Template argument.
+	 */
+	protected static void report(Logger logger, Level level, String template, long count, Object argument) {
+		boolean[] flag = REPORTING.get();
+		REPORTERS.incrementAndGet();
+		flag[0] = true;
+		try {
+			logger.log(level, template, Long.valueOf(count), argument);
+		} finally {
+			flag[0] = false;
+			REPORTERS.decrementAndGet();
+		}
+	}
+
+	/*
+	 * The Expiry class calls expire on a filter from the timer thread, it only
+	 * holds the filter weakly and cancels itself once the filter is gone.
+	 */
+	private static final class Expiry implements Runnable {
+		/*
+		 * The filter.
+		 */
+		private final WeakReference<AbstractFilter> filter;
+
+		/*
+		 * The scheduled task, set once it has been scheduled.
+		 */
+		volatile ScheduledFuture<?> future;
+
+		/*
+		 * Constructs a new expiry of the specified filter.
+		 */
+		Expiry(AbstractFilter filter) {
+			this.filter = new WeakReference<AbstractFilter>(filter);
+		}
+
+		@Override
+		public void run() {
+			AbstractFilter current = filter.get();
+			if (current == null) {
+				ScheduledFuture<?> scheduled = future;
+				if (scheduled != null) {
+					scheduled.cancel(false);
+				}
+				return;
+			}
+			try {
+				current.expire(System.nanoTime());
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+}
\ No newline at end of file
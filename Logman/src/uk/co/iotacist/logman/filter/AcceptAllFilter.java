@@ -15,19 +15,23 @@
  */
 package uk.co.iotacist.logman.filter;
 
+import uk.co.iotacist.logman.Level;
 import uk.co.iotacist.logman.Log;
+import uk.co.iotacist.logman.Logger;
 
 /**
  * The <code>AcceptAllFilter</code> class does not perform any filtering, the
- * <code>filter</code> method always returns <code>true</code>.
+ * <code>filter</code> method always returns <code>true</code> and both
+ * decisions are <code>ACCEPT</code>, so a logger using it never creates a
+ * <code>Log</code> only to be asked about it again.
  * 
  * @since 1.0
  * 
- * @version 1.1
+ * @version 1.2
  * 
  * @author Iotacist <iotacist@gmail.com>
  */
-public class AcceptAllFilter implements Filter {
+public class AcceptAllFilter extends AbstractFilter {
 	/**
 	 * Constructs a new <code>AcceptAllFilter</code> instance.
 	 */
@@ -46,4 +50,30 @@ public class AcceptAllFilter implements Filter {
 	public boolean filter(Log log) {
 		return true;
 	}
+
+	/**
+	 * Accepts every event.
+	 * 
+	 * @param logger - Logger instance.
+	 * 
+	 * @param level  - Log level.
+	 * 
+	 * @return <code>ACCEPT</code>.
+	 */
+	@Override
+	public FilterResult decide(Logger logger, Level level) {
+		return FilterResult.ACCEPT;
+	}
+
+	/**
+	 * Accepts every log.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @return <code>ACCEPT</code>.
+	 */
+	@Override
+	public FilterResult decide(Log log) {
+		return FilterResult.ACCEPT;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.filter;
+
+import uk.co.iotacist.logman.Level;
+import uk.co.iotacist.logman.Log;
+import uk.co.iotacist.logman.Logger;
+
+/**
+ * The <code>DecidingFilter</code> interface extends the <code>Filter</code>
+ * contract with tri-state decisions, a filter returns <code>ACCEPT</code>,
+ * <code>DENY</code> or <code>NEUTRAL</code> to leave the event to the next
+ * filter.
+ * 
+ * A <code>Logger</code> asks a deciding filter twice. The first decision is
+ * made on the logger and level alone before any <code>Log</code> is created,
+ * so events denied there cost no allocation. Unless that decision accepts the
+ * event the filter is then asked again with the complete <code>Log</code>.
+ * Filters can be combined with a <code>FilterChain</code>, the first filter
+ * which does not return <code>NEUTRAL</code> decides. Most filters should
+ * extend <code>AbstractFilter</code>, which is neutral by default.
+ * 
+ * Plain <code>Filter</code> implementations keep working, the
+ * <code>FilterUtils</code> bridge methods treat them as neutral before the
+ * <code>Log</code> is created and then call <code>filter(Log)</code>.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public interface DecidingFilter extends Filter {
+	/**
+	 * Decides on an event from its logger and level alone, before the
+	 * <code>Log</code> is created.
+	 * 
+	 * @param logger - Logger instance.
+	 * 
+	 * @param level  - Log level.
+	 * 
+	 * @return Filter result.
+	 */
+	public FilterResult decide(Logger logger, Level level);
+
+	/**
+	 * Decides on a <code>Log</code> which has not been accepted by the first
+	 * decision.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @return Filter result.
+	 */
+	public FilterResult decide(Log log);
+
+	/**
+	 * Checks whether this filter needs the complete <code>Log</code> to decide,
+	 * a <code>FilterChain</code> then defers the acceptance of a later filter to
+	 * the second decision so this filter is still asked.
+	 * 
+	 * @return <code>true</code> if the second decision of this filter must not be
+	 *         skipped.
+	 */
+	public boolean isLogNeeded();
+}
\ No newline at end of file
@@ -15,19 +15,22 @@
  */
 package uk.co.iotacist.logman.filter;
 
+import uk.co.iotacist.logman.Level;
 import uk.co.iotacist.logman.Log;
+import uk.co.iotacist.logman.Logger;
 
 /**
  * The <code>DenyAllFilter</code> class does not perform any filtering, the
- * <code>filter</code> method always returns <code>false</code>.
+ * <code>filter</code> method always returns <code>false</code> and both
+ * decisions are <code>DENY</code>, so no <code>Log</code> is ever created.
  * 
  * @since 1.0
  * 
- * @version 1.1
+ * @version 1.2
  * 
  * @author Iotacist <iotacist@gmail.com>
  */
-public class DenyAllFilter implements Filter {
+public class DenyAllFilter extends AbstractFilter {
 	/**
 	 * Constructs a new <code>DenyAllFilter</code> instance.
 	 */
@@ -46,4 +49,30 @@ public class DenyAllFilter implements Filter {
 	public boolean filter(Log event) {
 		return false;
 	}
+
+	/**
+	 * Denies every event.
+	 * 
+	 * @param logger - Logger instance.
+	 * 
+	 * @param level  - Log level.
+	 * 
+	 * @return <code>DENY</code>.
+	 */
+	@Override
+	public FilterResult decide(Logger logger, Level level) {
+		return FilterResult.DENY;
+	}
+
+	/**
+	 * Denies every log.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @return <code>DENY</code>.
+	 */
+	@Override
+	public FilterResult decide(Log log) {
+		return FilterResult.DENY;
+	}
 }
\ No newline at end of file
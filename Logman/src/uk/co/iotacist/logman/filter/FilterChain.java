@@ -0,0 +1,173 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.filter;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import uk.co.iotacist.logman.Level;
+import uk.co.iotacist.logman.Log;
+import uk.co.iotacist.logman.Logger;
+
+/**
+ * The <code>FilterChain</code> class combines filters, each decision asks the
+ * filters in order and the first one which does not return
+ * <code>NEUTRAL</code> decides. If every filter is neutral so is the chain.
+ *
+ * Both decisions keep the order of the filters. Plain filters, and filters
+ * which need the complete <code>Log</code>, can only decide in the second
+ * decision, so the acceptance of a later filter in the first decision is
+ * returned as <code>NEUTRAL</code> and made again in the second decision
+ * after them. The filters are held in an array which is copied whenever a
+ * filter is added or removed, so the decisions never lock.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class FilterChain extends AbstractFilter {
+	/*
+	 * The filters, the array is replaced instead of modified.
+	 */
+	private volatile Filter[] filters;
+
+	/**
+	 * Constructs a new <code>FilterChain</code> instance with the specified
+	 * filters, null filters are ignored.
+	 * 
+	 * @param filters - Filter instances, in the order they are asked.
+	 */
+	public FilterChain(Filter... filters) {
+		this.filters = new Filter[0];
+		if (filters != null) {
+			for (Filter filter : filters) {
+				addFilter(filter);
+			}
+		}
+	}
+
+	/**
+	 * Returns the filters of this chain.
+	 * 
+	 * @return Unmodifiable list of filters, in the order they are asked.
+	 */
+	public List<Filter> getFilters() {
+		return Collections.unmodifiableList(Arrays.asList(filters));
+	}
+
+	/**
+	 * Adds a filter at the end of this chain.
+	 * 
+	 * @param filter - Filter instance.
+	 */
+	public synchronized void addFilter(Filter filter) {
+		if (filter != null) {
+			Filter[] current = filters;
+			Filter[] added = Arrays.copyOf(current, current.length + 1);
+			added[current.length] = filter;
+			filters = added;
+		}
+	}
+
+	/**
+	 * Removes the first occurrence of a filter from this chain.
+	 * 
+	 * @param filter - Filter instance.
+	 */
+	public synchronized void removeFilter(Filter filter) {
+		Filter[] current = filters;
+		for (int i = 0; i < current.length; i++) {
+			if (current[i] == filter) {
+				Filter[] removed = new Filter[current.length - 1];
+				System.arraycopy(current, 0, removed, 0, i);
+				System.arraycopy(current, i + 1, removed, i, removed.length - i);
+				filters = removed;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Asks the filters in order to decide on an event from its logger and level.
+	 * An acceptance which follows a filter needing the complete
+	 * <code>Log</code> is returned as <code>NEUTRAL</code>, as that filter may
+	 * still deny the log.
+	 * 
+	 * @param logger - Logger instance.
+	 * 
+	 * @param level  - Log level.
+	 * 
+	 * @return Decision of the first filter which is not neutral, or
+	 *         <code>NEUTRAL</code>.
+	 */
+	@Override
+	public FilterResult decide(Logger logger, Level level) {
+		Filter[] current = filters;
+		boolean isDeferred = false;
+		for (int i = 0; i < current.length; i++) {
+			FilterResult result = FilterUtils.decide(current[i], logger, level);
+			if (result == FilterResult.DENY) {
+				return result;
+			}
+			if (result == FilterResult.ACCEPT) {
+				return isDeferred ? FilterResult.NEUTRAL : result;
+			}
+			isDeferred |= FilterUtils.isLogNeeded(current[i]);
+		}
+		return FilterResult.NEUTRAL;
+	}
+
+	/**
+	 * Asks the filters in order to decide on a <code>Log</code>.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @return Decision of the first filter which is not neutral, or
+	 *         <code>NEUTRAL</code>.
+	 */
+	@Override
+	public FilterResult decide(Log log) {
+		Filter[] current = filters;
+		for (int i = 0; i < current.length; i++) {
+			FilterResult result = FilterUtils.decide(current[i], log);
+			if (result != FilterResult.NEUTRAL) {
+				return result;
+			}
+		}
+		return FilterResult.NEUTRAL;
+	}
+
+	/**
+	 * Checks whether any filter of this chain needs the complete
+	 * <code>Log</code>.
+	 * 
+	 * @return <code>true</code> if the second decision of this chain must not be
+	 *         skipped.
+	 */
+	@Override
+	public boolean isLogNeeded() {
+		Filter[] current = filters;
+		for (int i = 0; i < current.length; i++) {
+			if (FilterUtils.isLogNeeded(current[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.filter;
+
+/**
+ * The <code>FilterResult</code> enum defines the decisions a
+ * <code>Filter</code> can make about a log.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public enum FilterResult {
+	/**
+	 * The <code>ACCEPT</code> result logs the event straight away, the filters
+	 * after this one in a <code>FilterChain</code> are not asked.
+	 */
+	ACCEPT,
+
+	/**
+	 * The <code>DENY</code> result drops the event straight away, the filters
+	 * after this one in a <code>FilterChain</code> are not asked.
+	 */
+	DENY,
+
+	/**
+	 * The <code>NEUTRAL</code> result leaves the decision to the next filter in
+	 * a <code>FilterChain</code>, the event is logged if no filter decides.
+	 */
+	NEUTRAL;
+}
\ No newline at end of file
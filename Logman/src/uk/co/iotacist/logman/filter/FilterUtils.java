@@ -0,0 +1,91 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.filter;
+
+import uk.co.iotacist.logman.Level;
+import uk.co.iotacist.logman.Log;
+import uk.co.iotacist.logman.Logger;
+
+/**
+ * The <code>FilterUtils</code> class bridges plain <code>Filter</code>
+ * implementations to the tri-state decisions of <code>DecidingFilter</code>.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public final class FilterUtils {
+	/*
+	 * Instances of this class may not be made.
+	 */
+	private FilterUtils() {
+	}
+
+	/**
+	 * Decides on an event from its logger and level alone with the specified
+	 * filter, plain filters are neutral as they need the complete
+	 * <code>Log</code>.
+	 * 
+	 * @param filter - Filter instance.
+	 * 
+	 * @param logger - Logger instance.
+	 * 
+	 * @param level  - Log level.
+	 * 
+	 * @return Filter result.
+	 */
+	public static FilterResult decide(Filter filter, Logger logger, Level level) {
+		if (filter instanceof DecidingFilter) {
+			return ((DecidingFilter) filter).decide(logger, level);
+		}
+		return FilterResult.NEUTRAL;
+	}
+
+	/**
+	 * Checks whether the specified filter needs the complete <code>Log</code> to
+	 * decide, plain filters always do.
+	 * 
+	 * @param filter - Filter instance.
+	 * 
+	 * @return <code>true</code> if the second decision of the filter must not be
+	 *         skipped.
+	 */
+	public static boolean isLogNeeded(Filter filter) {
+		if (filter instanceof DecidingFilter) {
+			return ((DecidingFilter) filter).isLogNeeded();
+		}
+		return true;
+	}
+
+	/**
+	 * Decides on a <code>Log</code> with the specified filter, plain filters are
+	 * called through <code>filter(Log)</code> and deny the logs they reject.
+	 * 
+	 * @param filter - Filter instance.
+	 * 
+	 * @param log    - Log instance.
+	 * 
+	 * @return Filter result.
+	 */
+	public static FilterResult decide(Filter filter, Log log) {
+		if (filter instanceof DecidingFilter) {
+			return ((DecidingFilter) filter).decide(log);
+		}
+		return filter.filter(log) ? FilterResult.NEUTRAL : FilterResult.DENY;
+	}
+}
\ No newline at end of file
@@ -17,19 +17,24 @@ package uk.co.iotacist.logman.filter;
 
 import uk.co.iotacist.logman.Level;
 import uk.co.iotacist.logman.Log;
+import uk.co.iotacist.logman.Logger;
 
 /**
  * The <code>LevelRangeFilter</code> class performs a check to see if the level
  * of the <code>Log</code> is between or equal to a set minimum and maximum
  * level.
  * 
+ * Within a <code>FilterChain</code> it denies the levels outside the range and
+ * leaves the levels within it to the next filter, the range is checked before
+ * the <code>Log</code> is created.
+ * 
  * @since 1.0
  * 
- * @version 1.1
+ * @version 1.2
  * 
  * @author Iotacist <iotacist@gmail.com>
  */
-public class LevelRangeFilter implements Filter {
+public class LevelRangeFilter extends AbstractFilter {
 	/*
 	 * Minimum level.
 	 */
@@ -100,7 +105,43 @@ public class LevelRangeFilter implements Filter {
 	 */
 	@Override
 	public boolean filter(Log event) {
-		int eventLevel = event.getLevel().getNumber();
+		return isInRange(event.getLevel());
+	}
+
+	/**
+	 * Denies the levels outside the range.
+	 * 
+	 * @param logger - Logger instance.
+	 * 
+	 * @param level  - Log level.
+	 * 
+	 * @return <code>NEUTRAL</code> if the level is between or equal to the set
+	 *         minimum and maximum level, <code>DENY</code> otherwise.
+	 */
+	@Override
+	public FilterResult decide(Logger logger, Level level) {
+		return isInRange(level) ? FilterResult.NEUTRAL : FilterResult.DENY;
+	}
+
+	/**
+	 * Denies the logs with a level outside the range.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @return <code>NEUTRAL</code> if the log level is between or equal to the set
+	 *         minimum and maximum level, <code>DENY</code> otherwise.
+	 */
+	@Override
+	public FilterResult decide(Log log) {
+		return isInRange(log.getLevel()) ? FilterResult.NEUTRAL : FilterResult.DENY;
+	}
+
+	/*
+	 * Checks whether the specified level is between or equal to the set minimum
+	 * and maximum level.
+	 */
+	private boolean isInRange(Level level) {
+		int eventLevel = level.getNumber();
 		int minLevel = minimumLevel.getNumber();
 		int maxLevel = maximumLevel.getNumber();
 		/*
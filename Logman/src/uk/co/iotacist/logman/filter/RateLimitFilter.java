@@ -0,0 +1,289 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.filter;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import uk.co.iotacist.logman.Level;
+import uk.co.iotacist.logman.Logger;
+
+/**
+ * The <code>RateLimitFilter</code> class denies the events of a logger and
+ * level which arrive faster than a sustained rate, after allowing an initial
+ * burst. It decides before the <code>Log</code> is created, so suppressed
+ * events cost no allocation.
+ *
+ * Each logger and level has its own token bucket, kept as the time at which
+ * the bucket will be full again. The bucket is refilled lazily from the time
+ * of each event and updated with compare-and-set only, so logging threads
+ * never lock. Events within the rate are left to the next filter.
+ *
+ * The number of suppressed events is reported through the same logger and
+ * level as an <code>"N events suppressed"</code> log, at most once per report
+ * interval. The report is made by the next event of that logger and level
+ * once the interval has passed, or by a shared timer thread which checks every
+ * report interval, so a storm which stops is still reported.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class RateLimitFilter extends AbstractFilter {
+	/**
+	 * The default number of milliseconds between suppression reports.
+	 */
+	public static final long DEFAULT_REPORT_MILLIS = 10000L;
+
+	/*
+	 * The message template of the suppression reports.
+	 */
+	private static final String REPORT_TEMPLATE = "{} events suppressed by the rate limit";
+
+	/*
+	 * The levels, indexed by ordinal.
+	 */
+	private static final Level[] LEVEL_VALUES = Level.values();
+
+	/*
+	 * The number of levels.
+	 */
+	private static final int LEVELS = LEVEL_VALUES.length;
+
+	/*
+	 * The buckets of each logger, indexed by level.
+	 */
+	private final ConcurrentMap<Logger, Bucket[]> buckets = new ConcurrentHashMap<Logger, Bucket[]>();
+
+	/*
+	 * The total number of suppressed events.
+	 */
+	private final AtomicLong suppressed = new AtomicLong();
+
+	/*
+	 * The burst size.
+	 */
+	private final int burst;
+
+	/*
+	 * The sustained rate, in events per second.
+	 */
+	private final double rate;
+
+	/*
+	 * The nanoseconds it takes to refill one token.
+	 */
+	private final long intervalNanos;
+
+	/*
+	 * The nanoseconds it takes to refill the whole bucket.
+	 */
+	private final long capacityNanos;
+
+	/*
+	 * The nanoseconds between suppression reports.
+	 */
+	private final long reportNanos;
+
+	/**
+	 * Constructs a new <code>RateLimitFilter</code> instance with the specified
+	 * burst size and sustained rate, reporting suppressed events every
+	 * <code>DEFAULT_REPORT_MILLIS</code> milliseconds.
+	 * 
+	 * @param burst - Number of events allowed at once, at least 1.
+	 * 
+	 * @param rate  - Sustained number of events allowed per second.
+	 */
+	public RateLimitFilter(int burst, double rate) {
+		this(burst, rate, DEFAULT_REPORT_MILLIS);
+	}
+
+	/**
+	 * Constructs a new <code>RateLimitFilter</code> instance with the specified
+	 * burst size, sustained rate and report interval.
+	 * 
+	 * @param burst        - Number of events allowed at once, at least 1.
+	 * 
+	 * @param rate         - Sustained number of events allowed per second.
+	 * 
+	 * @param reportMillis - Minimum milliseconds between suppression reports.
+	 */
+	public RateLimitFilter(int burst, double rate, long reportMillis) {
+		if (burst < 1) {
+			throw new IllegalArgumentException("Burst must be at least 1: " + burst);
+		}
+		if (!(rate > 0)) {
+			throw new IllegalArgumentException("Rate must be positive: " + rate);
+		}
+		this.burst = burst;
+		this.rate = rate;
+		this.intervalNanos = Math.max(1L, (long) (1000000000L / rate));
+		this.capacityNanos = intervalNanos * burst;
+		this.reportNanos = Math.max(0L, reportMillis) * 1000000L;
+	}
+
+	/**
+	 * Returns the burst size.
+	 * 
+	 * @return Number of events allowed at once.
+	 */
+	public int getBurst() {
+		return burst;
+	}
+
+	/**
+	 * Returns the sustained rate.
+	 * 
+	 * @return Number of events allowed per second.
+	 */
+	public double getRate() {
+		return rate;
+	}
+
+	/**
+	 * Returns the total number of events suppressed by this filter.
+	 * 
+	 * @return Suppressed event count.
+	 */
+	public long getSuppressedCount() {
+		return suppressed.get();
+	}
+
+	/**
+	 * Takes a token from the bucket of the logger and level, denying the event if
+	 * the bucket is empty. Suppression reports are left to the next filter.
+	 * 
+	 * @param logger - Logger instance.
+	 * 
+	 * @param level  - Log level.
+	 * 
+	 * @return <code>NEUTRAL</code> if the event is within the rate,
+	 *         <code>DENY</code> otherwise.
+	 */
+	@Override
+	public FilterResult decide(Logger logger, Level level) {
+		if (isReporting()) {
+			return FilterResult.NEUTRAL;
+		}
+		long now = System.nanoTime();
+		Bucket bucket = bucket(logger, level, now);
+		FilterResult result = FilterResult.NEUTRAL;
+		for (;;) {
+			long full = bucket.full.get();
+			long next = (full - now > 0 ? full : now) + intervalNanos;
+			if (next - now > capacityNanos) {
+				if (bucket.suppressed.getAndIncrement() == 0L) {
+					scheduleExpiry(reportNanos);
+				}
+				suppressed.incrementAndGet();
+				result = FilterResult.DENY;
+				break;
+			}
+			if (bucket.full.compareAndSet(full, next)) {
+				break;
+			}
+		}
+		if (now - bucket.reported.get() >= reportNanos && bucket.suppressed.get() > 0) {
+			report(logger, level, bucket, now);
+		}
+		return result;
+	}
+
+	/**
+	 * Reports the events suppressed by every logger and level whose report
+	 * interval has passed.
+	 * 
+	 * @param now - Current nanosecond time.
+	 */
+	@Override
+	protected void expire(long now) {
+		for (Map.Entry<Logger, Bucket[]> entry : buckets.entrySet()) {
+			Bucket[] levels = entry.getValue();
+			for (int i = 0; i < LEVELS; i++) {
+				if (levels[i].suppressed.get() > 0 && now - levels[i].reported.get() >= reportNanos) {
+					report(entry.getKey(), LEVEL_VALUES[i], levels[i], now);
+				}
+			}
+		}
+	}
+
+	/*
+	 * Returns the bucket of the specified logger and level, creating the buckets
+	 * of the logger on its first event.
+	 */
+	private Bucket bucket(Logger logger, Level level, long now) {
+		Bucket[] levels = buckets.get(logger);
+		if (levels == null) {
+			levels = new Bucket[LEVELS];
+			for (int i = 0; i < LEVELS; i++) {
+				levels[i] = new Bucket(now);
+			}
+			Bucket[] existing = buckets.putIfAbsent(logger, levels);
+			if (existing != null) {
+				levels = existing;
+			}
+		}
+		return levels[level.ordinal()];
+	}
+
+	/*
+	 * Logs the number of events suppressed since the last report, unless another
+	 * thread has just claimed the report.
+	 */
+	private void report(Logger logger, Level level, Bucket bucket, long now) {
+		long reported = bucket.reported.get();
+		if (now - reported < reportNanos || !bucket.reported.compareAndSet(reported, now)) {
+			return;
+		}
+		long count = bucket.suppressed.getAndSet(0L);
+		if (count > 0) {
+			report(logger, level, REPORT_TEMPLATE, count);
+		}
+	}
+
+	/*
+	 * The Bucket class is the token bucket of one logger and level.
+	 */
+	private static final class Bucket {
+		/*
+		 * The nanosecond time at which the bucket will be full, the bucket has a token
+		 * while this is less than one capacity ahead of the current time.
+		 */
+		final AtomicLong full;
+
+		/*
+		 * The number of events suppressed since the last report.
+		 */
+		final AtomicLong suppressed = new AtomicLong();
+
+		/*
+		 * The nanosecond time of the last report.
+		 */
+		final AtomicLong reported;
+
+		/*
+		 * Constructs a full bucket at the specified nanosecond time.
+		 */
+		Bucket(long now) {
+			this.full = new AtomicLong(now);
+			this.reported = new AtomicLong(now);
+		}
+	}
+}
\ No newline at end of file
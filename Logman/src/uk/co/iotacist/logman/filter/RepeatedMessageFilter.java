@@ -0,0 +1,329 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import uk.co.iotacist.logman.Level;
+import uk.co.iotacist.logman.Log;
+import uk.co.iotacist.logman.Logger;
+
+/**
+ * The <code>RepeatedMessageFilter</code> class collapses a message which is
+ * logged again and again by the same logger with the same level. The first
+ * occurrence within a time window is left to the next filter, the repeats are
+ * denied and counted, and the count is reported as a
+ * <code>"last message repeated N times: message"</code> log.
+ *
+ * Messages are identified by their text, a template is filled in with its
+ * arguments first, so events of one call site with different arguments are
+ * not taken for repeats. Each message is hashed into a fixed size table of
+ * reusable slots, a message which hashes to the slot of another one takes it
+ * over, so the memory used is bounded. Each slot is locked on its own while it
+ * is compared and updated.
+ *
+ * The count is reported as soon as another message takes the slot, or by a
+ * shared timer thread once the window of the message has ended, so the last
+ * repeats are never held back for longer than about a window and a half.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class RepeatedMessageFilter extends AbstractFilter {
+	/**
+	 * The default number of slots in the table.
+	 */
+	public static final int DEFAULT_TABLE_SIZE = 1024;
+
+	/**
+	 * The default window length, in milliseconds.
+	 */
+	public static final long DEFAULT_WINDOW_MILLIS = 10000L;
+
+	/*
+	 * The message template of the repeat reports.
+	 */
+	private static final String REPORT_TEMPLATE = "last message repeated {} times: {}";
+
+	/*
+	 * The reusable message buffer of each thread.
+	 */
+	private static final ThreadLocal<StringBuilder> BUFFERS = new ThreadLocal<StringBuilder>() {
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder(256);
+		}
+	};
+
+	/*
+	 * The slots of the table, each holding the last message which hashed to it.
+	 */
+	private final Entry[] table;
+
+	/*
+	 * The mask of a hash to a slot index.
+	 */
+	private final int mask;
+
+	/*
+	 * The window length, in nanoseconds.
+	 */
+	private final long windowNanos;
+
+	/*
+	 * The total number of suppressed repeats.
+	 */
+	private final AtomicLong suppressed = new AtomicLong();
+
+	/**
+	 * Constructs a new <code>RepeatedMessageFilter</code> instance with a table of
+	 * <code>DEFAULT_TABLE_SIZE</code> slots and a window of
+	 * <code>DEFAULT_WINDOW_MILLIS</code> milliseconds.
+	 */
+	public RepeatedMessageFilter() {
+		this(DEFAULT_TABLE_SIZE, DEFAULT_WINDOW_MILLIS);
+	}
+
+	/**
+	 * Constructs a new <code>RepeatedMessageFilter</code> instance with the
+	 * specified table size and window length.
+	 * 
+	 * @param tableSize    - Number of slots, rounded up to a power of two.
+	 * 
+	 * @param windowMillis - Window length in milliseconds.
+	 */
+	public RepeatedMessageFilter(int tableSize, long windowMillis) {
+		if (tableSize < 1 || tableSize > 1 << 30) {
+			throw new IllegalArgumentException("Invalid table size: " + tableSize);
+		}
+		int size = Integer.highestOneBit(tableSize);
+		if (size < tableSize) {
+			size <<= 1;
+		}
+		this.table = new Entry[size];
+		for (int i = 0; i < size; i++) {
+			table[i] = new Entry();
+		}
+		this.mask = size - 1;
+		this.windowNanos = Math.max(0L, windowMillis) * 1000000L;
+	}
+
+	/**
+	 * Returns the number of slots in the table.
+	 * 
+	 * @return Table size.
+	 */
+	public int getTableSize() {
+		return table.length;
+	}
+
+	/**
+	 * Returns the window length.
+	 * 
+	 * @return Window length in milliseconds.
+	 */
+	public long getWindowMillis() {
+		return windowNanos / 1000000L;
+	}
+
+	/**
+	 * Returns the total number of repeats suppressed by this filter.
+	 * 
+	 * @return Suppressed event count.
+	 */
+	public long getSuppressedCount() {
+		return suppressed.get();
+	}
+
+	/**
+	 * Denies the log if it repeats the last message of its slot within the
+	 * window, otherwise makes it the last message and reports the repeats of the
+	 * message it replaces.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @return <code>DENY</code> if the log is a repeat, <code>NEUTRAL</code>
+	 *         otherwise.
+	 */
+	@Override
+	public FilterResult decide(Log log) {
+		if (isReporting() || windowNanos == 0L) {
+			return FilterResult.NEUTRAL;
+		}
+		Logger logger = log.getLogger();
+		Level level = log.getLevel();
+		/*
+		 * The buffer is taken out of its slot, an argument which logs while it is
+		 * rendered finds the slot empty and uses a fresh buffer.
+		 */
+		StringBuilder text = BUFFERS.get();
+		BUFFERS.set(null);
+		if (text == null) {
+			text = new StringBuilder(256);
+		}
+		try {
+			text.setLength(0);
+			log.appendMessage(text);
+			int hash = System.identityHashCode(logger) * 31 + level.ordinal();
+			for (int i = 0, length = text.length(); i < length; i++) {
+				hash = hash * 31 + text.charAt(i);
+			}
+			hash ^= hash >>> 16;
+			Entry entry = table[hash & mask];
+			long now = System.nanoTime();
+			long count;
+			Logger replacedLogger;
+			Level replacedLevel;
+			String replacedText;
+			synchronized (entry) {
+				if (entry.matches(logger, level, hash, text) && now - entry.start < windowNanos) {
+					if (entry.repeats++ == 0L) {
+						scheduleExpiry(windowNanos / 2);
+					}
+					suppressed.incrementAndGet();
+					return FilterResult.DENY;
+				}
+				count = entry.repeats;
+				replacedLogger = entry.logger;
+				replacedLevel = entry.level;
+				replacedText = count > 0 ? entry.text.toString() : null;
+				entry.set(logger, level, hash, text, now);
+			}
+			if (count > 0) {
+				report(replacedLogger, replacedLevel, REPORT_TEMPLATE, count, replacedText);
+			}
+			return FilterResult.NEUTRAL;
+		} finally {
+			BUFFERS.set(text);
+		}
+	}
+
+	/**
+	 * Returns <code>true</code>, repeats are only found from the complete
+	 * <code>Log</code>.
+	 * 
+	 * @return <code>true</code>.
+	 */
+	@Override
+	public boolean isLogNeeded() {
+		return true;
+	}
+
+	/**
+	 * Reports the repeats of every message whose window has ended, the slot is
+	 * kept so a later occurrence of the message is compared with it.
+	 * 
+	 * @param now - Current nanosecond time.
+	 */
+	@Override
+	protected void expire(long now) {
+		for (int i = 0; i < table.length; i++) {
+			Entry entry = table[i];
+			if (entry.repeats == 0L) {
+				continue;
+			}
+			long count;
+			Logger logger;
+			Level level;
+			String text;
+			synchronized (entry) {
+				count = entry.repeats;
+				if (count == 0L || now - entry.start < windowNanos) {
+					continue;
+				}
+				logger = entry.logger;
+				level = entry.level;
+				text = entry.text.toString();
+				/*
+				 * The window has ended, the next occurrence is let through.
+				 */
+				entry.repeats = 0L;
+				entry.logger = null;
+			}
+			report(logger, level, REPORT_TEMPLATE, count, text);
+		}
+	}
+
+	/*
+	 * The Entry class is a slot of the table, holding the last message which
+	 * hashed to it and the number of times it has been repeated. The fields are
+	 * guarded by the entry itself.
+	 */
+	private static final class Entry {
+		/*
+		 * The logger of the message, or null while the slot is empty.
+		 */
+		Logger logger;
+
+		/*
+		 * The level of the message.
+		 */
+		Level level;
+
+		/*
+		 * The hash of the logger, level and text.
+		 */
+		int hash;
+
+		/*
+		 * The message text, the buffer is reused by each message of the slot.
+		 */
+		final StringBuilder text = new StringBuilder(64);
+
+		/*
+		 * The nanosecond time of the first occurrence.
+		 */
+		long start;
+
+		/*
+		 * The number of repeats, volatile so the timer can skip slots without
+		 * repeats without locking them.
+		 */
+		volatile long repeats;
+
+		/*
+		 * Checks whether this entry holds the specified message.
+		 */
+		boolean matches(Logger logger, Level level, int hash, StringBuilder text) {
+			if (this.hash != hash || this.logger != logger || this.level != level
+					|| this.text.length() != text.length()) {
+				return false;
+			}
+			for (int i = text.length() - 1; i >= 0; i--) {
+				if (this.text.charAt(i) != text.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		/*
+		 * Makes the specified message the last message of the slot.
+		 */
+		void set(Logger logger, Level level, int hash, StringBuilder text, long start) {
+			this.logger = logger;
+			this.level = level;
+			this.hash = hash;
+			this.text.setLength(0);
+			this.text.append(text);
+			this.start = start;
+			this.repeats = 0L;
+		}
+	}
+}
\ No newline at end of file
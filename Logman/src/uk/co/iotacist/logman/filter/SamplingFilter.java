@@ -0,0 +1,389 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.filter;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import uk.co.iotacist.logman.Level;
+import uk.co.iotacist.logman.Log;
+import uk.co.iotacist.logman.Logger;
+
+/**
+ * The <code>SamplingFilter</code> class keeps a sample of the events of busy
+ * loggers and levels and drops the rest before their <code>Log</code> is
+ * created. Kept events are left to the next filter.
+ *
+ * Sampling is set for a logger name and a level, or for every level when the
+ * level is null. The sampling of a logger is taken from its own name or the
+ * closest ancestor name with sampling set, the empty name applies to every
+ * logger. Each logger and level samples its events on its own, so every Nth
+ * event of one logger is not affected by the events of another.
+ *
+ * Each kept <code>Log</code> records its sampling ratio, the fraction of the
+ * events which were kept, so downstream counts can be scaled back up. A
+ * <code>FIRST_K_PER_SECOND</code> ratio is only known once the second is over,
+ * the logs record the ratio of the previous second instead. The ratio is set
+ * when the filter decides on the <code>Log</code>, a <code>FilterChain</code>
+ * defers the acceptance of any later filter until then.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class SamplingFilter extends AbstractFilter {
+	/*
+	 * The number of levels, the rule for every level is stored after them.
+	 */
+	private static final int LEVELS = Level.values().length;
+
+	/*
+	 * The rules of each logger name, indexed by level. The map is replaced
+	 * instead of modified.
+	 */
+	private volatile Map<String, Rule[]> rules = new HashMap<String, Rule[]>();
+
+	/*
+	 * The samplers of each logger, resolved from the rules on its first event.
+	 */
+	private final ConcurrentMap<Logger, Samplers> samplers = new ConcurrentHashMap<Logger, Samplers>();
+
+	/**
+	 * Constructs a new <code>SamplingFilter</code> instance which keeps every
+	 * event until sampling is set.
+	 */
+	public SamplingFilter() {
+	}
+
+	/**
+	 * Sets the sampling of the specified logger name and level, the sampling of
+	 * every logger using it starts over.
+	 * 
+	 * @param logger    - Logger name, the empty name or <code>null</code> for
+	 *                  every logger.
+	 * 
+	 * @param level     - Log level, or <code>null</code> for every level.
+	 * 
+	 * @param mode      - Sampling mode.
+	 * 
+	 * @param parameter - N for <code>EVERY_NTH</code>, p for
+	 *                  <code>PROBABILITY</code> or K for
+	 *                  <code>FIRST_K_PER_SECOND</code>.
+	 */
+	public synchronized void setSampling(String logger, Level level, SamplingMode mode, double parameter) {
+		if (mode == null) {
+			throw new IllegalArgumentException("Sampling mode must not be null");
+		}
+		switch (mode) {
+		case PROBABILITY:
+			if (!(parameter > 0 && parameter <= 1)) {
+				throw new IllegalArgumentException("Probability must be in (0, 1]: " + parameter);
+			}
+			break;
+		default:
+			if (!(parameter >= 1 && parameter <= Integer.MAX_VALUE) || parameter != Math.floor(parameter)) {
+				throw new IllegalArgumentException("Count must be a positive integer: " + parameter);
+			}
+			break;
+		}
+		update(logger, level, new Rule(mode, parameter));
+	}
+
+	/**
+	 * Removes the sampling of the specified logger name and level.
+	 * 
+	 * @param logger - Logger name, the empty name or <code>null</code> for every
+	 *               logger.
+	 * 
+	 * @param level  - Log level, or <code>null</code> for every level.
+	 */
+	public synchronized void removeSampling(String logger, Level level) {
+		update(logger, level, null);
+	}
+
+	/**
+	 * Returns the sampling mode set for the specified logger name and level.
+	 * 
+	 * @param logger - Logger name, the empty name or <code>null</code> for every
+	 *               logger.
+	 * 
+	 * @param level  - Log level, or <code>null</code> for every level.
+	 * 
+	 * @return Sampling mode, or <code>null</code> if no sampling is set.
+	 */
+	public SamplingMode getSamplingMode(String logger, Level level) {
+		Rule[] levels = rules.get(logger == null ? "" : logger);
+		Rule rule = levels != null ? levels[level != null ? level.ordinal() : LEVELS] : null;
+		return rule != null ? rule.mode : null;
+	}
+
+	/**
+	 * Samples the event of the logger and level.
+	 * 
+	 * @param logger - Logger instance.
+	 * 
+	 * @param level  - Log level.
+	 * 
+	 * @return <code>NEUTRAL</code> if the event is kept or not sampled,
+	 *         <code>DENY</code> otherwise.
+	 */
+	@Override
+	public FilterResult decide(Logger logger, Level level) {
+		Sampler sampler = sampler(logger, level);
+		if (sampler == null || sampler.sample()) {
+			return FilterResult.NEUTRAL;
+		}
+		return FilterResult.DENY;
+	}
+
+	/**
+	 * Records the sampling ratio of a kept log.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @return <code>NEUTRAL</code>.
+	 */
+	@Override
+	public FilterResult decide(Log log) {
+		Sampler sampler = sampler(log.getLogger(), log.getLevel());
+		if (sampler != null) {
+			log.setSamplingRatio(sampler.ratio);
+		}
+		return FilterResult.NEUTRAL;
+	}
+
+	/**
+	 * Checks whether sampling is set, the kept logs then need their ratio.
+	 * 
+	 * @return <code>true</code> if any sampling is set.
+	 */
+	@Override
+	public boolean isLogNeeded() {
+		return !rules.isEmpty();
+	}
+
+	/*
+	 * Replaces the rule of the specified logger name and level, and drops the
+	 * samplers resolved from the old rules.
+	 */
+	private void update(String logger, Level level, Rule rule) {
+		String name = logger == null ? "" : logger;
+		Map<String, Rule[]> updated = new HashMap<String, Rule[]>(rules);
+		Rule[] levels = updated.get(name);
+		levels = levels != null ? levels.clone() : new Rule[LEVELS + 1];
+		levels[level != null ? level.ordinal() : LEVELS] = rule;
+		boolean empty = true;
+		for (Rule set : levels) {
+			empty &= set == null;
+		}
+		if (empty) {
+			updated.remove(name);
+		} else {
+			updated.put(name, levels);
+		}
+		rules = updated;
+		samplers.clear();
+	}
+
+	/*
+	 * Returns the sampler of the specified logger and level, or null if its events
+	 * are not sampled. Threads resolving the same logger at once race to install
+	 * their samplers and all use the winner, so no counter is reset by a late
+	 * thread.
+	 */
+	private Sampler sampler(Logger logger, Level level) {
+		for (;;) {
+			Map<String, Rule[]> current = rules;
+			if (current.isEmpty()) {
+				return null;
+			}
+			Samplers resolved = samplers.get(logger);
+			if (resolved != null && resolved.rules == current) {
+				return resolved.levels[level.ordinal()];
+			}
+			Samplers created = resolve(logger.getName(), current);
+			if (resolved == null ? samplers.putIfAbsent(logger, created) == null
+					: samplers.replace(logger, resolved, created)) {
+				return created.levels[level.ordinal()];
+			}
+		}
+	}
+
+	/*
+	 * Creates the samplers of a logger from the rules of its name or its closest
+	 * ancestor name, a rule for a level comes before a rule for every level.
+	 */
+	private static Samplers resolve(String name, Map<String, Rule[]> current) {
+		Sampler[] levels = new Sampler[LEVELS];
+		for (int i = 0; i < LEVELS; i++) {
+			String candidate = name == null ? "" : name;
+			for (;;) {
+				Rule[] set = current.get(candidate);
+				Rule rule = set != null ? (set[i] != null ? set[i] : set[LEVELS]) : null;
+				if (rule != null) {
+					levels[i] = new Sampler(rule);
+					break;
+				}
+				if (candidate.isEmpty()) {
+					break;
+				}
+				int dot = candidate.lastIndexOf('.');
+				candidate = dot > 0 ? candidate.substring(0, dot) : "";
+			}
+		}
+		return new Samplers(current, levels);
+	}
+
+	/*
+	 * The Rule class is the sampling set for a logger name and level.
+	 */
+	private static final class Rule {
+		/*
+		 * The sampling mode.
+		 */
+		final SamplingMode mode;
+
+		/*
+		 * The mode parameter.
+		 */
+		final double parameter;
+
+		/*
+		 * Constructs a new rule.
+		 */
+		Rule(SamplingMode mode, double parameter) {
+			this.mode = mode;
+			this.parameter = parameter;
+		}
+	}
+
+	/*
+	 * The Samplers class holds the samplers of a logger and the rules they were
+	 * resolved from.
+	 */
+	private static final class Samplers {
+		/*
+		 * The rules the samplers were resolved from.
+		 */
+		final Map<String, Rule[]> rules;
+
+		/*
+		 * The sampler of each level, or null.
+		 */
+		final Sampler[] levels;
+
+		/*
+		 * Constructs a new set of samplers.
+		 */
+		Samplers(Map<String, Rule[]> rules, Sampler[] levels) {
+			this.rules = rules;
+			this.levels = levels;
+		}
+	}
+
+	/*
+	 * The Sampler class samples the events of one logger and level.
+	 */
+	private static final class Sampler {
+		/*
+		 * The sampling mode.
+		 */
+		private final SamplingMode mode;
+
+		/*
+		 * N, or K.
+		 */
+		private final long count;
+
+		/*
+		 * The probability.
+		 */
+		private final double probability;
+
+		/*
+		 * The event counter, for FIRST_K_PER_SECOND the current second in the high
+		 * half and the events seen in it in the low half.
+		 */
+		private final AtomicLong state = new AtomicLong();
+
+		/*
+		 * The sampling ratio recorded on kept logs.
+		 */
+		volatile double ratio;
+
+		/*
+		 * Constructs a new sampler from a rule.
+		 */
+		Sampler(Rule rule) {
+			this.mode = rule.mode;
+			this.count = (long) rule.parameter;
+			this.probability = rule.parameter;
+			switch (mode) {
+			case EVERY_NTH:
+				ratio = 1.0 / count;
+				break;
+			case PROBABILITY:
+				ratio = probability;
+				break;
+			default:
+				ratio = 1.0;
+				state.set((long) (int) (System.nanoTime() / 1000000000L) << 32);
+				break;
+			}
+		}
+
+		/*
+		 * Checks whether the next event is kept.
+		 */
+		boolean sample() {
+			switch (mode) {
+			case EVERY_NTH:
+				return state.getAndIncrement() % count == 0;
+			case PROBABILITY:
+				return ThreadLocalRandom.current().nextDouble() < probability;
+			default:
+				return sampleFirst();
+			}
+		}
+
+		/*
+		 * Counts an event of the current second, keeping the first K. The ratio is
+		 * updated from the count of a second once the next one starts.
+		 */
+		private boolean sampleFirst() {
+			int second = (int) (System.nanoTime() / 1000000000L);
+			for (;;) {
+				long current = state.get();
+				int previous = (int) (current >>> 32);
+				int seen = (int) current;
+				if (previous != second) {
+					if (state.compareAndSet(current, (long) second << 32 | 1L)) {
+						ratio = previous == second - 1 && seen > count ? (double) count / seen : 1.0;
+						return true;
+					}
+				} else if (seen == Integer.MAX_VALUE || state.compareAndSet(current, current + 1)) {
+					return seen < count;
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
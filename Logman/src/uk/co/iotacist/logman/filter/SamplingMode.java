@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.filter;
+
+/**
+ * The <code>SamplingMode</code> enum defines how a <code>SamplingFilter</code>
+ * chooses the events it keeps.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public enum SamplingMode {
+	/**
+	 * The <code>EVERY_NTH</code> mode keeps the first of every N events, the
+	 * parameter is N.
+	 */
+	EVERY_NTH,
+
+	/**
+	 * The <code>PROBABILITY</code> mode keeps each event with a probability p,
+	 * drawn from a thread-local random number generator, the parameter is p.
+	 */
+	PROBABILITY,
+
+	/**
+	 * The <code>FIRST_K_PER_SECOND</code> mode keeps the first K events of each
+	 * second and drops the rest, the parameter is K.
+	 */
+	FIRST_K_PER_SECOND;
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.formatter;
+
+import java.nio.ByteBuffer;
+
+import uk.co.iotacist.logman.Log;
+
+/**
+ * The <code>AbstractBufferFormatter</code> class is the base of formatters
+ * which write into buffers, subclasses only implement
+ * <code>formatTo(Log, StringBuilder)</code> and the string and byte variants are
+ * bridged to it through a reusable buffer of the calling thread.
+ * 
+ * The buffer is taken out of its slot while a log is formatted, so a format
+ * nested within it, such as an argument or a supplier which logs itself, finds
+ * the slot empty and formats into a fresh buffer instead of wiping the outer
+ * one.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public abstract class AbstractBufferFormatter implements BufferFormatter {
+	/*
+	 * The reusable text buffer of each thread.
+	 */
+	private static final ThreadLocal<StringBuilder> BUFFERS = new ThreadLocal<StringBuilder>() {
+		@Override
+		protected StringBuilder initialValue() {
+			return new StringBuilder(256);
+		}
+	};
+
+	/**
+	 * Formats the specified log into a new string.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @return Formatted message.
+	 */
+	@Override
+	public String format(Log log) {
+		StringBuilder buffer = acquire();
+		try {
+			formatTo(log, buffer);
+			return buffer.toString();
+		} finally {
+			BUFFERS.set(buffer);
+		}
+	}
+
+	/**
+	 * Formats the specified log and writes the result to the specified buffer as
+	 * UTF-8 bytes.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @param out - Output buffer.
+	 * 
+	 * @return <code>true</code> if the result was written, <code>false</code> if
+	 *         the buffer did not have enough space.
+	 */
+	@Override
+	public boolean encodeTo(Log log, ByteBuffer out) {
+		StringBuilder buffer = acquire();
+		try {
+			formatTo(log, buffer);
+			return FormatterUtils.encode(buffer, out);
+		} finally {
+			BUFFERS.set(buffer);
+		}
+	}
+
+	/*
+	 * Takes the empty buffer of the calling thread out of its slot, or returns a
+	 * new buffer if the slot is empty because a format further up the stack is
+	 * using it. The buffer is put back once the format has finished.
+	 */
+	private static StringBuilder acquire() {
+		StringBuilder buffer = BUFFERS.get();
+		if (buffer == null) {
+			return new StringBuilder(256);
+		}
+		BUFFERS.set(null);
+		buffer.setLength(0);
+		return buffer;
+	}
+}
\ No newline at end of file
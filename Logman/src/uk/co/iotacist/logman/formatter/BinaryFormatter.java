@@ -0,0 +1,475 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.formatter;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import uk.co.iotacist.logman.Level;
+import uk.co.iotacist.logman.Log;
+import uk.co.iotacist.logman.Logger;
+
+/**
+ * The <code>BinaryFormatter</code> class encodes logs into a compact binary
+ * format instead of text, the logger name and the message template of each
+ * log are written once and then referred to by id, and the arguments are
+ * written in their binary form rather than formatted.
+ *
+ * The output is split into blocks, each block starts with a header of
+ * <code>HEADER_SIZE</code> bytes holding the <code>MAGIC</code> number, the
+ * length of the records which follow and the base timestamp of the block.
+ * Every record is prefixed by its length as a varint and starts with a record
+ * type byte:
+ *
+ * <ul>
+ * <li><code>LOGGER_RECORD</code>, the id and name of a logger.</li>
+ * <li><code>TEMPLATE_RECORD</code>, the id and text of a message
+ * template.</li>
+ * <li><code>EVENT_RECORD</code>, the level ordinal byte, the logger id, the
+ * zigzag encoded milliseconds since the previous event of the block (or the
+ * base timestamp), the template id followed by the argument count and the
+ * typed arguments, or 0 followed by the message text, a byte flagging a stack
+ * trace, which follows as text, and finally the sampling ratio as a double if
+ * it is not 1. Readers skip to the end of each record, so older readers ignore
+ * the ratio.</li>
+ * </ul>
+ *
+ * Integers are written as varints, strings as their UTF-8 length followed by
+ * the bytes. Ids are kept for the life of the formatter, but each block
+ * repeats the dictionary records of the ids it uses before their first use, so
+ * every block can be decoded on its own. At most <code>MAX_TEMPLATES</code>
+ * templates are given an id, later templates are written as message text.
+ *
+ * Instances keep the dictionary and the state of the current block, so they
+ * must only be used by one thread at a time.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class BinaryFormatter {
+	/**
+	 * The magic number at the start of every block, "LMB1".
+	 */
+	public static final int MAGIC = 0x4C4D4231;
+
+	/**
+	 * The size of a block header, the magic number, the record length and the
+	 * base timestamp.
+	 */
+	public static final int HEADER_SIZE = 16;
+
+	/**
+	 * The type byte of a logger dictionary record.
+	 */
+	public static final byte LOGGER_RECORD = 1;
+
+	/**
+	 * The type byte of a template dictionary record.
+	 */
+	public static final byte TEMPLATE_RECORD = 2;
+
+	/**
+	 * The type byte of an event record.
+	 */
+	public static final byte EVENT_RECORD = 3;
+
+	/**
+	 * The type byte of a null argument.
+	 */
+	public static final byte NULL_ARGUMENT = 0;
+
+	/**
+	 * The type byte of a string argument.
+	 */
+	public static final byte STRING_ARGUMENT = 1;
+
+	/**
+	 * The type byte of an integer, short or byte argument.
+	 */
+	public static final byte INT_ARGUMENT = 2;
+
+	/**
+	 * The type byte of a long argument.
+	 */
+	public static final byte LONG_ARGUMENT = 3;
+
+	/**
+	 * The type byte of a double argument.
+	 */
+	public static final byte DOUBLE_ARGUMENT = 4;
+
+	/**
+	 * The type byte of a float argument.
+	 */
+	public static final byte FLOAT_ARGUMENT = 5;
+
+	/**
+	 * The type byte of a false boolean argument.
+	 */
+	public static final byte FALSE_ARGUMENT = 6;
+
+	/**
+	 * The type byte of a true boolean argument.
+	 */
+	public static final byte TRUE_ARGUMENT = 7;
+
+	/**
+	 * The type byte of a character argument.
+	 */
+	public static final byte CHAR_ARGUMENT = 8;
+
+	/**
+	 * The maximum number of templates given an id.
+	 */
+	public static final int MAX_TEMPLATES = 65536;
+
+	/*
+	 * The space left for the length of a record while it is written, enough for
+	 * the varint of any int length.
+	 */
+	private static final int LENGTH_SIZE = 5;
+
+	/*
+	 * The ids of the logger names.
+	 */
+	private final Map<String, Integer> loggers = new HashMap<String, Integer>();
+
+	/*
+	 * The ids of the templates.
+	 */
+	private final Map<String, Integer> templates = new HashMap<String, Integer>();
+
+	/*
+	 * The logger ids defined in the current block.
+	 */
+	private final BitSet blockLoggers = new BitSet();
+
+	/*
+	 * The template ids defined in the current block.
+	 */
+	private final BitSet blockTemplates = new BitSet();
+
+	/*
+	 * The buffer a log is encoded into before it is copied to the block.
+	 */
+	private ByteBuffer scratch = ByteBuffer.allocate(1024);
+
+	/*
+	 * The timestamp of the previous event of the current block.
+	 */
+	private long previousMillis;
+
+	/**
+	 * Constructs a new <code>BinaryFormatter</code> instance with an empty
+	 * dictionary.
+	 */
+	public BinaryFormatter() {
+	}
+
+	/**
+	 * Starts a new block with the specified base timestamp, the dictionary
+	 * records are repeated in the new block as their ids are used.
+	 * 
+	 * @param baseMillis - Base timestamp of the block.
+	 */
+	public void startBlock(long baseMillis) {
+		blockLoggers.clear();
+		blockTemplates.clear();
+		previousMillis = baseMillis;
+	}
+
+	/**
+	 * Writes the header of a block at the start of the specified buffer, the
+	 * records are taken to run from the end of the header to the position.
+	 * 
+	 * @param block      - Block buffer, with the records after the header.
+	 * 
+	 * @param baseMillis - Base timestamp of the block.
+	 */
+	public static void writeHeader(ByteBuffer block, long baseMillis) {
+		block.putInt(0, MAGIC);
+		block.putInt(4, block.position() - HEADER_SIZE);
+		block.putLong(8, baseMillis);
+	}
+
+	/**
+	 * Encodes the specified log into the block buffer, preceded by the dictionary
+	 * records it needs. If the records do not fit nothing is written and the
+	 * state of the block is left as it was.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @param out - Block buffer.
+	 * 
+	 * @return <code>true</code> if the log was written, <code>false</code> if the
+	 *         buffer is too small.
+	 */
+	public boolean encode(Log log, ByteBuffer out) {
+		for (;;) {
+			scratch.clear();
+			try {
+				return encode(log, scratch, out);
+			} catch (BufferOverflowException e) {
+				scratch = ByteBuffer.allocate(scratch.capacity() * 2);
+			}
+		}
+	}
+
+	/*
+	 * Encodes the records of a log into the scratch buffer, then copies them to
+	 * the block and commits the block state if they fit.
+	 */
+	private boolean encode(Log log, ByteBuffer buffer, ByteBuffer out) {
+		Logger logger = log.getLogger();
+		String name = logger != null ? logger.getName() : "";
+		Integer loggerId = loggers.get(name);
+		int newLogger = -1;
+		if (loggerId == null) {
+			loggerId = loggers.size() + 1;
+			loggers.put(name, loggerId);
+		}
+		if (!blockLoggers.get(loggerId)) {
+			newLogger = loggerId;
+			putDefinition(buffer, LOGGER_RECORD, loggerId, name);
+		}
+		String template = log.getTemplate();
+		Integer templateId = null;
+		int newTemplate = -1;
+		if (template != null) {
+			templateId = templates.get(template);
+			if (templateId == null && templates.size() < MAX_TEMPLATES) {
+				templateId = templates.size() + 1;
+				templates.put(template, templateId);
+			}
+			if (templateId != null && !blockTemplates.get(templateId)) {
+				newTemplate = templateId;
+				putDefinition(buffer, TEMPLATE_RECORD, templateId, template);
+			}
+		}
+
+		int start = buffer.position();
+		buffer.position(start + LENGTH_SIZE);
+		Level level = log.getLevel();
+		buffer.put(EVENT_RECORD);
+		buffer.put((byte) (level != null ? level.ordinal() : Level.ALL.ordinal()));
+		putVarint(buffer, loggerId);
+		putVarint(buffer, zigzag(log.getTimeMillis() - previousMillis));
+		if (templateId != null) {
+			putVarint(buffer, templateId);
+			int count = log.getArgumentCount();
+			putVarint(buffer, count);
+			for (int i = 0; i < count; i++) {
+				switch (log.getArgumentType(i)) {
+				case LONG:
+					buffer.put(LONG_ARGUMENT);
+					putVarint(buffer, zigzag(log.getLongArgument(i)));
+					break;
+				case DOUBLE:
+					buffer.put(DOUBLE_ARGUMENT);
+					buffer.putDouble(log.getDoubleArgument(i));
+					break;
+				case FLOAT:
+					buffer.put(FLOAT_ARGUMENT);
+					buffer.putFloat((float) log.getDoubleArgument(i));
+					break;
+				case CHAR:
+					buffer.put(CHAR_ARGUMENT);
+					putVarint(buffer, log.getLongArgument(i));
+					break;
+				default:
+					putArgument(buffer, log.getArgument(i));
+				}
+			}
+		} else {
+			putVarint(buffer, 0);
+			putString(buffer, String.valueOf(log.getMessage()));
+		}
+		Throwable thrown = log.getThrown();
+		if (thrown != null) {
+			StringWriter trace = new StringWriter();
+			thrown.printStackTrace(new PrintWriter(trace));
+			buffer.put((byte) 1);
+			putString(buffer, trace.toString());
+		} else {
+			buffer.put((byte) 0);
+		}
+		double ratio = log.getSamplingRatio();
+		if (ratio != 1.0) {
+			buffer.putDouble(ratio);
+		}
+		closeRecord(buffer, start);
+
+		buffer.flip();
+		if (buffer.remaining() > out.remaining()) {
+			return false;
+		}
+		out.put(buffer);
+		if (newLogger > 0) {
+			blockLoggers.set(newLogger);
+		}
+		if (newTemplate > 0) {
+			blockTemplates.set(newTemplate);
+		}
+		previousMillis = log.getTimeMillis();
+		return true;
+	}
+
+	/*
+	 * Writes a dictionary record.
+	 */
+	private static void putDefinition(ByteBuffer buffer, byte type, int id, String text) {
+		int start = buffer.position();
+		buffer.position(start + LENGTH_SIZE);
+		buffer.put(type);
+		putVarint(buffer, id);
+		putString(buffer, text);
+		closeRecord(buffer, start);
+	}
+
+	/*
+	 * Writes the length of the record which starts LENGTH_SIZE bytes after the
+	 * specified position in front of it, moving the record down if the length
+	 * takes fewer bytes.
+	 */
+	private static void closeRecord(ByteBuffer buffer, int start) {
+		int end = buffer.position();
+		int length = end - start - LENGTH_SIZE;
+		int size = varintSize(length);
+		buffer.position(start);
+		putVarint(buffer, length);
+		if (size < LENGTH_SIZE) {
+			byte[] array = buffer.array();
+			int offset = buffer.arrayOffset();
+			System.arraycopy(array, offset + start + LENGTH_SIZE, array, offset + start + size, length);
+		}
+		buffer.position(start + size + length);
+	}
+
+	/*
+	 * Writes a typed argument.
+	 */
+	private static void putArgument(ByteBuffer buffer, Object value) {
+		if (value == null) {
+			buffer.put(NULL_ARGUMENT);
+		} else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+			buffer.put(INT_ARGUMENT);
+			putVarint(buffer, zigzag(((Number) value).intValue()));
+		} else if (value instanceof Long) {
+			buffer.put(LONG_ARGUMENT);
+			putVarint(buffer, zigzag(((Long) value).longValue()));
+		} else if (value instanceof Double) {
+			buffer.put(DOUBLE_ARGUMENT);
+			buffer.putDouble(((Double) value).doubleValue());
+		} else if (value instanceof Float) {
+			buffer.put(FLOAT_ARGUMENT);
+			buffer.putFloat(((Float) value).floatValue());
+		} else if (value instanceof Boolean) {
+			buffer.put(((Boolean) value).booleanValue() ? TRUE_ARGUMENT : FALSE_ARGUMENT);
+		} else if (value instanceof Character) {
+			buffer.put(CHAR_ARGUMENT);
+			putVarint(buffer, ((Character) value).charValue());
+		} else {
+			buffer.put(STRING_ARGUMENT);
+			putString(buffer, value instanceof CharSequence ? (CharSequence) value : String.valueOf(value));
+		}
+	}
+
+	/*
+	 * Writes a string as its UTF-8 length followed by its UTF-8 bytes, without
+	 * building an intermediate byte array. Unpaired surrogates are written as
+	 * question marks.
+	 */
+	private static void putString(ByteBuffer buffer, CharSequence text) {
+		int length = text.length();
+		int size = 0;
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				size++;
+			} else if (c < 0x800) {
+				size += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+				size += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				size++;
+			} else {
+				size += 3;
+			}
+		}
+		putVarint(buffer, size);
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				buffer.put((byte) c);
+			} else if (c < 0x800) {
+				buffer.put((byte) (0xC0 | c >> 6));
+				buffer.put((byte) (0x80 | c & 0x3F));
+			} else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+				int code = Character.toCodePoint(c, text.charAt(++i));
+				buffer.put((byte) (0xF0 | code >> 18));
+				buffer.put((byte) (0x80 | code >> 12 & 0x3F));
+				buffer.put((byte) (0x80 | code >> 6 & 0x3F));
+				buffer.put((byte) (0x80 | code & 0x3F));
+			} else if (Character.isSurrogate(c)) {
+				buffer.put((byte) '?');
+			} else {
+				buffer.put((byte) (0xE0 | c >> 12));
+				buffer.put((byte) (0x80 | c >> 6 & 0x3F));
+				buffer.put((byte) (0x80 | c & 0x3F));
+			}
+		}
+	}
+
+	/*
+	 * Writes an unsigned varint, 7 bits per byte with the high bit flagging that
+	 * more bytes follow.
+	 */
+	private static void putVarint(ByteBuffer buffer, long value) {
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) (value & 0x7F | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	/*
+	 * Returns the number of bytes of an unsigned varint.
+	 */
+	private static int varintSize(long value) {
+		int size = 1;
+		while ((value & ~0x7FL) != 0) {
+			value >>>= 7;
+			size++;
+		}
+		return size;
+	}
+
+	/*
+	 * Maps a signed value to an unsigned one so small magnitudes stay small.
+	 */
+	private static long zigzag(long value) {
+		return value << 1 ^ value >> 63;
+	}
+}
\ No newline at end of file
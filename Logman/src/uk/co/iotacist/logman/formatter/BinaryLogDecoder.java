@@ -0,0 +1,491 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.formatter;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import uk.co.iotacist.logman.Level;
+
+/**
+ * The <code>BinaryLogDecoder</code> class turns a file written by the
+ * <code>BinaryFileAppender</code> back into text, one line per log in the form
+ * <code>date [logger][LEVEL] message</code> followed by any stack trace. A log
+ * kept by a <code>SamplingFilter</code> has its sampling ratio appended as
+ * <code>(sampled ratio)</code>.
+ *
+ * The file is first split into blocks by reading their headers, then batches
+ * of blocks are decoded on a fork/join pool and written out in file order.
+ * Every block carries the dictionary records it needs, so blocks are decoded
+ * independently.
+ *
+ * A block is only accepted when its records fill it exactly and it is followed
+ * by the header of the next block or by the end of the file. A block cut short
+ * by a crash, and followed by blocks appended after the file was opened again,
+ * fails this check and the decoder skips ahead to the next valid block. A
+ * partial block at the end of the file is ignored. A record whose content does
+ * not match its type is skipped, like a record of an unknown type, and the
+ * rest of its block is still decoded.
+ *
+ * Usage: <code>BinaryLogDecoder input [output]</code>, the text is written to
+ * the standard output if no output file is given.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public final class BinaryLogDecoder {
+	/*
+	 * The number of blocks decoded by one task without splitting.
+	 */
+	private static final int TASK_BLOCKS = 4;
+
+	/*
+	 * The number of bytes read at a time while searching for the next block.
+	 */
+	private static final int SCAN_SIZE = 64 * 1024;
+
+	/*
+	 * The character set of the text output.
+	 */
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	/*
+	 * The levels by ordinal.
+	 */
+	private static final Level[] LEVELS = Level.values();
+
+	/*
+	 * Instances of this class may not be made.
+	 */
+	private BinaryLogDecoder() {
+	}
+
+	/**
+	 * Decodes the input file given as the first argument into the output file
+	 * given as the second argument, or into the standard output.
+	 * 
+	 * @param args - Input file and optional output file.
+	 * 
+	 * @throws IOException If a file cannot be read or written.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1 || args.length > 2) {
+			System.err.println("Usage: BinaryLogDecoder input [output]");
+			System.exit(1);
+		}
+		OutputStream out = args.length > 1 ? new FileOutputStream(args[1]) : System.out;
+		Writer writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8), 1 << 16);
+		try {
+			decode(new File(args[0]), writer, new ForkJoinPool());
+		} finally {
+			writer.flush();
+			if (out != System.out) {
+				writer.close();
+			}
+		}
+	}
+
+	/**
+	 * Decodes the specified file into text on the specified pool.
+	 * 
+	 * @param input  - Binary log file.
+	 * 
+	 * @param output - Text output.
+	 * 
+	 * @param pool   - Fork/join pool decoding the blocks.
+	 * 
+	 * @return Number of blocks decoded.
+	 * 
+	 * @throws IOException If the file cannot be read or the text written.
+	 */
+	public static int decode(File input, Writer output, ForkJoinPool pool) throws IOException {
+		FileChannel channel = FileChannel.open(input.toPath(), StandardOpenOption.READ);
+		try {
+			List<long[]> blocks = split(channel);
+			int batch = Math.max(1, pool.getParallelism()) * TASK_BLOCKS * 4;
+			String[] texts = new String[Math.min(batch, blocks.size())];
+			for (int first = 0; first < blocks.size(); first += batch) {
+				int count = Math.min(batch, blocks.size() - first);
+				pool.invoke(new DecodeTask(channel, blocks, texts, first, first, first + count));
+				for (int i = 0; i < count; i++) {
+					output.write(texts[i]);
+					texts[i] = null;
+				}
+			}
+			return blocks.size();
+		} finally {
+			channel.close();
+		}
+	}
+
+	/*
+	 * Returns the offset and record length of every valid block of the file,
+	 * skipping corrupt bytes up to the next valid block.
+	 */
+	private static List<long[]> split(FileChannel channel) throws IOException {
+		List<long[]> blocks = new ArrayList<long[]>();
+		long size = channel.size();
+		long position = 0;
+		while (position + BinaryFormatter.HEADER_SIZE <= size) {
+			int length = validate(channel, position, size);
+			if (length < 0) {
+				long next = resync(channel, position + 1, size);
+				if (next == size) {
+					break;
+				}
+				System.err.println("Skipping " + (next - position) + " corrupt bytes at offset " + position);
+				position = next;
+				continue;
+			}
+			blocks.add(new long[] { position, length });
+			position += BinaryFormatter.HEADER_SIZE + length;
+		}
+		if (position < size) {
+			System.err.println("Ignoring truncated block at offset " + position);
+		}
+		return blocks;
+	}
+
+	/*
+	 * Returns the record length of the block at the specified offset, or -1 if
+	 * the block is not valid. Its records must fill it exactly and the magic
+	 * number of the next block must start within the next four bytes, unless the
+	 * file ends first, which allows for a header torn after its first bytes.
+	 */
+	private static int validate(FileChannel channel, long position, long size) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(BinaryFormatter.HEADER_SIZE);
+		readFully(channel, header, position);
+		int length = header.getInt(4);
+		long end = position + BinaryFormatter.HEADER_SIZE + length;
+		if (header.getInt(0) != BinaryFormatter.MAGIC || length < 0 || end > size) {
+			return -1;
+		}
+		int following = (int) Math.min(7L, size - end);
+		ByteBuffer records = ByteBuffer.allocate(length + following);
+		readFully(channel, records, position + BinaryFormatter.HEADER_SIZE);
+		records.limit(length);
+		try {
+			while (records.hasRemaining()) {
+				long record = getVarint(records);
+				if (record < 1 || record > records.remaining()) {
+					return -1;
+				}
+				records.position(records.position() + (int) record);
+			}
+		} catch (BufferUnderflowException e) {
+			return -1;
+		}
+		if (following < 4) {
+			return length;
+		}
+		records.limit(records.capacity());
+		for (int i = 0; i + 4 <= following && i < 4; i++) {
+			if (records.getInt(length + i) == BinaryFormatter.MAGIC) {
+				return length;
+			}
+		}
+		return -1;
+	}
+
+	/*
+	 * Returns the offset of the first valid block at or after the specified
+	 * offset, or the file size if there is none.
+	 */
+	private static long resync(FileChannel channel, long from, long size) throws IOException {
+		ByteBuffer chunk = ByteBuffer.allocate(SCAN_SIZE);
+		long position = from;
+		while (position + BinaryFormatter.HEADER_SIZE <= size) {
+			chunk.clear();
+			int count = channel.read(chunk, position);
+			if (count <= 0) {
+				break;
+			}
+			for (int i = 0; i + 4 <= count; i++) {
+				if (chunk.getInt(i) == BinaryFormatter.MAGIC
+						&& position + i + BinaryFormatter.HEADER_SIZE <= size
+						&& validate(channel, position + i, size) >= 0) {
+					return position + i;
+				}
+			}
+			position += Math.max(1, count - 3);
+		}
+		return size;
+	}
+
+	/*
+	 * Reads the buffer fully from the specified file position.
+	 */
+	private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (channel.read(buffer, position + buffer.position()) < 0) {
+				throw new IOException("Unexpected end of file at offset " + position);
+			}
+		}
+		buffer.flip();
+	}
+
+	/*
+	 * Decodes the block at the specified offset into text.
+	 */
+	private static String decodeBlock(FileChannel channel, long offset, int length, CachedDateFormat dates)
+			throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(BinaryFormatter.HEADER_SIZE + length);
+		readFully(channel, buffer, offset);
+		long millis = buffer.getLong(8);
+		buffer.position(BinaryFormatter.HEADER_SIZE);
+		Map<Long, String> loggers = new HashMap<Long, String>();
+		Map<Long, String> templates = new HashMap<Long, String>();
+		List<Object> arguments = new ArrayList<Object>();
+		StringBuilder out = new StringBuilder(length * 2);
+		while (buffer.hasRemaining()) {
+			int start = buffer.position();
+			int size = (int) getVarint(buffer);
+			int end = buffer.position() + size;
+			if (size <= 0 || end > buffer.limit()) {
+				System.err.println("Ignoring corrupt records at offset " + (offset + start));
+				break;
+			}
+			int mark = out.length();
+			long previous = millis;
+			buffer.limit(end);
+			try {
+				byte type = buffer.get();
+				switch (type) {
+				case BinaryFormatter.LOGGER_RECORD:
+					loggers.put(getVarint(buffer), getString(buffer));
+					break;
+				case BinaryFormatter.TEMPLATE_RECORD:
+					templates.put(getVarint(buffer), getString(buffer));
+					break;
+				case BinaryFormatter.EVENT_RECORD:
+					int level = buffer.get();
+					String logger = loggers.get(getVarint(buffer));
+					millis += unzigzag(getVarint(buffer));
+					dates.formatTo(millis, out);
+					out.append(" [").append(logger).append("][")
+							.append(level >= 0 && level < LEVELS.length ? LEVELS[level].getName() : "?").append("] ");
+					long templateId = getVarint(buffer);
+					if (templateId != 0) {
+						arguments.clear();
+						for (long i = getVarint(buffer); i > 0; i--) {
+							arguments.add(getArgument(buffer));
+						}
+						render(out, templates.get(templateId), arguments);
+					} else {
+						out.append(getString(buffer));
+					}
+					int message = out.length();
+					out.append(System.lineSeparator());
+					if (buffer.get() != 0) {
+						out.append(getString(buffer));
+					}
+					if (buffer.remaining() >= 8) {
+						out.insert(message, " (sampled " + buffer.getDouble() + ")");
+					}
+					break;
+				default:
+					/*
+					 * Skip record types written by a newer formatter.
+					 */
+					break;
+				}
+			} catch (RuntimeException e) {
+				/*
+				 * Skip a record which does not match its type, as the records of an
+				 * unknown type are.
+				 */
+				out.setLength(mark);
+				millis = previous;
+				System.err.println("Skipping corrupt record at offset " + (offset + start));
+			}
+			buffer.limit(buffer.capacity());
+			buffer.position(end);
+		}
+		return out.toString();
+	}
+
+	/*
+	 * Appends the template with each placeholder replaced by the next argument,
+	 * placeholders without an argument are left as they are.
+	 */
+	private static void render(StringBuilder out, String template, List<Object> arguments) {
+		if (template == null) {
+			out.append("null");
+			return;
+		}
+		int last = 0;
+		for (int i = 0; i < arguments.size(); i++) {
+			int index = template.indexOf("{}", last);
+			if (index < 0) {
+				break;
+			}
+			out.append(template, last, index).append(arguments.get(i));
+			last = index + 2;
+		}
+		out.append(template, last, template.length());
+	}
+
+	/*
+	 * Reads a typed argument.
+	 */
+	private static Object getArgument(ByteBuffer buffer) {
+		byte type = buffer.get();
+		switch (type) {
+		case BinaryFormatter.NULL_ARGUMENT:
+			return null;
+		case BinaryFormatter.INT_ARGUMENT:
+			return (int) unzigzag(getVarint(buffer));
+		case BinaryFormatter.LONG_ARGUMENT:
+			return unzigzag(getVarint(buffer));
+		case BinaryFormatter.DOUBLE_ARGUMENT:
+			return buffer.getDouble();
+		case BinaryFormatter.FLOAT_ARGUMENT:
+			return buffer.getFloat();
+		case BinaryFormatter.FALSE_ARGUMENT:
+			return Boolean.FALSE;
+		case BinaryFormatter.TRUE_ARGUMENT:
+			return Boolean.TRUE;
+		case BinaryFormatter.CHAR_ARGUMENT:
+			return (char) getVarint(buffer);
+		case BinaryFormatter.STRING_ARGUMENT:
+			return getString(buffer);
+		default:
+			throw new IllegalStateException("Unknown argument type " + type);
+		}
+	}
+
+	/*
+	 * Reads a string written as its UTF-8 length and bytes.
+	 */
+	private static String getString(ByteBuffer buffer) {
+		int length = (int) getVarint(buffer);
+		String text = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, UTF_8);
+		buffer.position(buffer.position() + length);
+		return text;
+	}
+
+	/*
+	 * Reads an unsigned varint.
+	 */
+	private static long getVarint(ByteBuffer buffer) {
+		long value = 0;
+		for (int shift = 0;; shift += 7) {
+			byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+	}
+
+	/*
+	 * Maps an unsigned zigzag value back to a signed one.
+	 */
+	private static long unzigzag(long value) {
+		return value >>> 1 ^ -(value & 1);
+	}
+
+	/*
+	 * The DecodeTask class decodes a range of blocks into the text array,
+	 * splitting the range in half until it is small enough.
+	 */
+	private static final class DecodeTask extends RecursiveAction {
+		/*
+		 * The serial version id.
+		 */
+		private static final long serialVersionUID = 6129730741536284518L;
+
+		/*
+		 * The input file channel, read with positional reads.
+		 */
+		private final FileChannel channel;
+
+		/*
+		 * The offset and record length of every block.
+		 */
+		private final List<long[]> blocks;
+
+		/*
+		 * The decoded text of the batch.
+		 */
+		private final String[] texts;
+
+		/*
+		 * The index of the first block of the batch.
+		 */
+		private final int batch;
+
+		/*
+		 * The first block of this task.
+		 */
+		private final int from;
+
+		/*
+		 * The block after the last block of this task.
+		 */
+		private final int to;
+
+		/*
+		 * Constructs a new task for the specified blocks.
+		 */
+		DecodeTask(FileChannel channel, List<long[]> blocks, String[] texts, int batch, int from, int to) {
+			this.channel = channel;
+			this.blocks = blocks;
+			this.texts = texts;
+			this.batch = batch;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > TASK_BLOCKS) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new DecodeTask(channel, blocks, texts, batch, from, middle),
+						new DecodeTask(channel, blocks, texts, batch, middle, to));
+				return;
+			}
+			CachedDateFormat dates = new CachedDateFormat(PatternFormatter.DEFAULT_DATE_PATTERN);
+			for (int i = from; i < to; i++) {
+				long[] block = blocks.get(i);
+				try {
+					texts[i - batch] = decodeBlock(channel, block[0], (int) block[1], dates);
+				} catch (IOException e) {
+					throw new IllegalStateException("Could not read block at offset " + block[0], e);
+				}
+			}
+		}
+	}
+}
\ No newline at end of file
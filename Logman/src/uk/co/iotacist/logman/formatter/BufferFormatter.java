@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.formatter;
+
+import java.nio.ByteBuffer;
+
+import uk.co.iotacist.logman.Log;
+
+/**
+ * The <code>BufferFormatter</code> interface extends the <code>Formatter</code>
+ * contract with methods that write straight into caller supplied buffers, so
+ * appenders can format and encode a <code>Log</code> without building an
+ * intermediate string.
+ * 
+ * Plain <code>Formatter</code> implementations keep working, the
+ * <code>FormatterUtils</code> bridge methods fall back to
+ * <code>format(Log)</code> for them.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public interface BufferFormatter extends Formatter {
+	/**
+	 * Formats the specified log and appends the result to the specified buffer.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @param out - Output buffer.
+	 */
+	public void formatTo(Log log, StringBuilder out);
+
+	/**
+	 * Formats the specified log and writes the result to the specified buffer as
+	 * UTF-8 bytes, if the result does not fit the buffer position is left
+	 * unchanged.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @param out - Output buffer.
+	 * 
+	 * @return <code>true</code> if the result was written, <code>false</code> if
+	 *         the buffer did not have enough space.
+	 */
+	public boolean encodeTo(Log log, ByteBuffer out);
+}
\ No newline at end of file
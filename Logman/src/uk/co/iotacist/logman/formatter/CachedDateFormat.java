@@ -0,0 +1,219 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.formatter;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * The <code>CachedDateFormat</code> class renders timestamps with a
+ * <code>SimpleDateFormat</code> pattern and is safe to share between threads.
+ * 
+ * The text of the current second is rendered once and cached, the millisecond
+ * digits of a <code>SSS</code> field are written straight into the output for
+ * each timestamp. A pattern with any other sub-second field is cached per
+ * millisecond instead.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class CachedDateFormat {
+	/*
+	 * The date pattern.
+	 */
+	private final String pattern;
+
+	/*
+	 * Formats the part of the pattern before the millisecond field, or the whole
+	 * pattern if it has no millisecond field. Guarded by this instance.
+	 */
+	private final SimpleDateFormat prefixFormat;
+
+	/*
+	 * Formats the part of the pattern after the millisecond field, or null if it
+	 * has no millisecond field. Guarded by this instance.
+	 */
+	private final SimpleDateFormat suffixFormat;
+
+	/*
+	 * The length of time covered by one cached rendering in milliseconds.
+	 */
+	private final long unit;
+
+	/*
+	 * The cached rendering.
+	 */
+	private volatile Entry cache;
+
+	/**
+	 * Constructs a new <code>CachedDateFormat</code> instance with the specified
+	 * pattern.
+	 * 
+	 * @param pattern - <code>SimpleDateFormat</code> pattern.
+	 * 
+	 * @throws IllegalArgumentException if the pattern is invalid.
+	 */
+	public CachedDateFormat(String pattern) {
+		this.pattern = pattern;
+		int millis = indexOfMillis(pattern);
+		if (millis >= 0) {
+			this.prefixFormat = new SimpleDateFormat(pattern.substring(0, millis));
+			this.suffixFormat = new SimpleDateFormat(pattern.substring(millis + 3));
+			this.unit = 1000;
+		} else {
+			this.prefixFormat = new SimpleDateFormat(pattern);
+			this.suffixFormat = null;
+			this.unit = hasField(pattern, 'S') ? 1 : 1000;
+		}
+	}
+
+	/**
+	 * Returns the date pattern.
+	 * 
+	 * @return Date pattern.
+	 */
+	public String getPattern() {
+		return pattern;
+	}
+
+	/**
+	 * Formats the specified timestamp into a new string.
+	 * 
+	 * @param millis - Milliseconds since the epoch.
+	 * 
+	 * @return Formatted timestamp.
+	 */
+	public String format(long millis) {
+		StringBuilder out = new StringBuilder(pattern.length() + 8);
+		formatTo(millis, out);
+		return out.toString();
+	}
+
+	/**
+	 * Formats the specified timestamp and appends it to the buffer.
+	 * 
+	 * @param millis - Milliseconds since the epoch.
+	 * 
+	 * @param out    - Output buffer.
+	 */
+	public void formatTo(long millis, StringBuilder out) {
+		long key = floor(millis, unit);
+		Entry entry = cache;
+		if (entry == null || entry.key != key) {
+			entry = render(key);
+		}
+		out.append(entry.prefix);
+		if (entry.suffix != null) {
+			int fraction = (int) (millis - key);
+			out.append((char) ('0' + fraction / 100));
+			out.append((char) ('0' + fraction / 10 % 10));
+			out.append((char) ('0' + fraction % 10));
+			out.append(entry.suffix);
+		}
+	}
+
+	/*
+	 * Renders and caches the text of the specified unit of time.
+	 */
+	private synchronized Entry render(long key) {
+		Entry entry = cache;
+		if (entry == null || entry.key != key) {
+			Date date = new Date(key);
+			entry = new Entry(key, prefixFormat.format(date), suffixFormat != null ? suffixFormat.format(date) : null);
+			cache = entry;
+		}
+		return entry;
+	}
+
+	/*
+	 * Rounds the timestamp down to a multiple of the unit, also for times before
+	 * the epoch.
+	 */
+	private static long floor(long millis, long unit) {
+		long remainder = millis % unit;
+		return remainder < 0 ? millis - remainder - unit : millis - remainder;
+	}
+
+	/*
+	 * Returns the index of the only millisecond field if it is exactly SSS, or -1.
+	 */
+	private static int indexOfMillis(String pattern) {
+		int index = -1;
+		boolean quoted = false;
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (c == '\'') {
+				quoted = !quoted;
+			} else if (!quoted && c == 'S') {
+				int end = i;
+				while (end < pattern.length() && pattern.charAt(end) == 'S') {
+					end++;
+				}
+				if (index >= 0 || end - i != 3) {
+					return -1;
+				}
+				index = i;
+				i = end - 1;
+			}
+		}
+		return index;
+	}
+
+	/*
+	 * Checks whether the pattern holds the specified field letter outside quotes.
+	 */
+	private static boolean hasField(String pattern, char field) {
+		boolean quoted = false;
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			if (c == '\'') {
+				quoted = !quoted;
+			} else if (!quoted && c == field) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * A cached rendering of one unit of time.
+	 */
+	private static final class Entry {
+		/*
+		 * The start of the unit of time.
+		 */
+		final long key;
+
+		/*
+		 * The text before the millisecond digits, or the whole text.
+		 */
+		final String prefix;
+
+		/*
+		 * The text after the millisecond digits, or null.
+		 */
+		final String suffix;
+
+		Entry(long key, String prefix, String suffix) {
+			this.key = key;
+			this.prefix = prefix;
+			this.suffix = suffix;
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.formatter;
+
+import java.nio.ByteBuffer;
+
+import uk.co.iotacist.logman.Log;
+
+/**
+ * The <code>FormatterUtils</code> class bridges plain <code>Formatter</code>
+ * implementations to the buffer methods of <code>BufferFormatter</code> and
+ * holds the shared UTF-8 encoder used by formatters and appenders.
+ * 
+ * @since 1.2
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public final class FormatterUtils {
+	/*
+	 * Instances of this class may not be made.
+	 */
+	private FormatterUtils() {
+	}
+
+	/**
+	 * Formats the specified log with the specified formatter and appends the
+	 * result to the buffer, plain formatters are called through
+	 * <code>format(Log)</code>.
+	 * 
+	 * @param formatter - Formatter instance.
+	 * 
+	 * @param log       - Log instance.
+	 * 
+	 * @param out       - Output buffer.
+	 */
+	public static void formatTo(Formatter formatter, Log log, StringBuilder out) {
+		if (formatter instanceof BufferFormatter) {
+			((BufferFormatter) formatter).formatTo(log, out);
+		} else {
+			out.append(formatter.format(log));
+		}
+	}
+
+	/**
+	 * Formats the specified log with the specified formatter and writes the result
+	 * to the buffer as UTF-8 bytes, plain formatters are called through
+	 * <code>format(Log)</code>.
+	 * 
+	 * @param formatter - Formatter instance.
+	 * 
+	 * @param log       - Log instance.
+	 * 
+	 * @param out       - Output buffer.
+	 * 
+	 * @return <code>true</code> if the result was written, <code>false</code> if
+	 *         the buffer did not have enough space.
+	 */
+	public static boolean encodeTo(Formatter formatter, Log log, ByteBuffer out) {
+		if (formatter instanceof BufferFormatter) {
+			return ((BufferFormatter) formatter).encodeTo(log, out);
+		}
+		return encode(formatter.format(log), out);
+	}
+
+	/**
+	 * Writes the specified characters to the buffer as UTF-8 bytes, unpaired
+	 * surrogates are written as <code>?</code>. If the characters do not fit the
+	 * buffer position is left unchanged.
+	 * 
+	 * @param text - Characters to encode.
+	 * 
+	 * @param out  - Output buffer.
+	 * 
+	 * @return <code>true</code> if the characters were written, <code>false</code>
+	 *         if the buffer did not have enough space.
+	 */
+	public static boolean encode(CharSequence text, ByteBuffer out) {
+		int position = out.position();
+		int limit = out.limit();
+		for (int i = 0, length = text.length(); i < length; i++) {
+			char c = text.charAt(i);
+			if (c < 0x80) {
+				if (position >= limit) {
+					return false;
+				}
+				out.put(position++, (byte) c);
+			} else if (c < 0x800) {
+				if (position + 2 > limit) {
+					return false;
+				}
+				out.put(position++, (byte) (0xC0 | (c >> 6)));
+				out.put(position++, (byte) (0x80 | (c & 0x3F)));
+			} else if (Character.isHighSurrogate(c) && i + 1 < length
+					&& Character.isLowSurrogate(text.charAt(i + 1))) {
+				if (position + 4 > limit) {
+					return false;
+				}
+				int codePoint = Character.toCodePoint(c, text.charAt(++i));
+				out.put(position++, (byte) (0xF0 | (codePoint >> 18)));
+				out.put(position++, (byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+				out.put(position++, (byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+				out.put(position++, (byte) (0x80 | (codePoint & 0x3F)));
+			} else if (Character.isSurrogate(c)) {
+				if (position >= limit) {
+					return false;
+				}
+				out.put(position++, (byte) '?');
+			} else {
+				if (position + 3 > limit) {
+					return false;
+				}
+				out.put(position++, (byte) (0xE0 | (c >> 12)));
+				out.put(position++, (byte) (0x80 | ((c >> 6) & 0x3F)));
+				out.put(position++, (byte) (0x80 | (c & 0x3F)));
+			}
+		}
+		out.position(position);
+		return true;
+	}
+}
\ No newline at end of file
@@ -23,13 +23,15 @@ import uk.co.iotacist.logman.Log;
  * <code>Logger</code> name are appended to the <code>LoggerEvent</code>
  * message.
  * 
+ * The formatted message is appended straight into the caller supplied buffer.
+ * 
  * @since 1.0
  * 
- * @version 1.1
+ * @version 1.2
  * 
  * @author Iotacist <iotacist@gmail.com>
  */
-public class LevelNameFormatter implements Formatter {
+public class LevelNameFormatter extends AbstractBufferFormatter {
 	/**
 	 * Open bracket character.
 	 */
@@ -59,14 +61,15 @@ public class LevelNameFormatter implements Formatter {
 	 * @param event
 	 *            - LoggerEvent instance.
 	 * 
-	 * @return Formatted message.
+	 * @param out
+	 *            - Output buffer.
 	 */
 	@Override
-	public String format(Log log) {
-		String name = OPEN_BRACKET + log.getLogger().getName() + CLOSE_BRACKET;
-		String level = OPEN_BRACKET + log.getLevel().getName() + CLOSE_BRACKET;
-		String message = SPACE_BAR + log.getMessage().toString();
-		return name + level + message;
+	public void formatTo(Log log, StringBuilder out) {
+		out.append(OPEN_BRACKET).append(log.getLogger().getName()).append(CLOSE_BRACKET);
+		out.append(OPEN_BRACKET).append(log.getLevel().getName()).append(CLOSE_BRACKET);
+		out.append(SPACE_BAR);
+		log.appendMessage(out);
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,329 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.iotacist.logman.formatter;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import uk.co.iotacist.logman.Level;
+import uk.co.iotacist.logman.Log;
+
+/**
+ * The <code>PatternFormatter</code> class formats logs according to a
+ * conversion pattern such as <code>%d{HH:mm:ss.SSS} [%c] [%p] %m%n</code>.
+ *
+ * The supported conversions are:
+ * <ul>
+ * <li><code>%d</code> or <code>%d{pattern}</code> - the log time, rendered by a
+ * <code>CachedDateFormat</code> with the specified pattern or
+ * <code>yyyy-MM-dd HH:mm:ss,SSS</code>.</li>
+ * <li><code>%c</code> - the <code>Logger</code> name.</li>
+ * <li><code>%p</code> - the <code>Level</code> name.</li>
+ * <li><code>%m</code> - the log message.</li>
+ * <li><code>%r</code> - the sampling ratio of the log, 1.0 unless it was kept
+ * by a <code>SamplingFilter</code>.</li>
+ * <li><code>%n</code> - the platform line separator.</li>
+ * <li><code>%%</code> - a percent character.</li>
+ * </ul>
+ *
+ * The pattern is compiled once into an array of converters which append
+ * straight into the output buffer. The literal text on either side of a
+ * <code>%c</code> or <code>%p</code> conversion is fused with it, the resulting
+ * strings are precomputed for each level and cached for each logger so a
+ * bracketed name costs a single append.
+ *
+ * @since 1.2
+ *
+ * @version 1.2
+ *
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class PatternFormatter extends AbstractBufferFormatter {
+	/**
+	 * The default date pattern.
+	 */
+	public static final String DEFAULT_DATE_PATTERN = "yyyy-MM-dd HH:mm:ss,SSS";
+
+	/*
+	 * The conversion pattern.
+	 */
+	private final String PATTERN;
+
+	/*
+	 * The compiled converters.
+	 */
+	private final Converter[] CONVERTERS;
+
+	/**
+	 * Constructs a new <code>PatternFormatter</code> instance with the specified
+	 * conversion pattern.
+	 *
+	 * @param pattern - Conversion pattern.
+	 *
+	 * @throws IllegalArgumentException If the pattern is null or contains an
+	 *                                  unknown or unterminated conversion.
+	 */
+	public PatternFormatter(String pattern) {
+		if (pattern == null) {
+			throw new IllegalArgumentException("Pattern must not be null");
+		}
+		this.PATTERN = pattern;
+		this.CONVERTERS = compile(pattern);
+	}
+
+	/**
+	 * Returns the conversion pattern of this <code>PatternFormatter</code>
+	 * instance.
+	 *
+	 * @return Conversion pattern.
+	 */
+	public String getPattern() {
+		return PATTERN;
+	}
+
+	/**
+	 * Formats the specified log by running each compiled converter in order.
+	 *
+	 * @param log - Log instance.
+	 *
+	 * @param out - Output buffer.
+	 */
+	@Override
+	public void formatTo(Log log, StringBuilder out) {
+		Converter[] converters = CONVERTERS;
+		for (int i = 0; i < converters.length; i++) {
+			converters[i].format(log, out);
+		}
+	}
+
+	/*
+	 * Parses the pattern into tokens and fuses the literals around the logger and
+	 * level conversions.
+	 */
+	private static Converter[] compile(String pattern) {
+		List<Object> tokens = new ArrayList<Object>();
+		StringBuilder literal = new StringBuilder();
+		int length = pattern.length();
+		int i = 0;
+		while (i < length) {
+			char c = pattern.charAt(i++);
+			if (c != '%') {
+				literal.append(c);
+				continue;
+			}
+			if (i == length) {
+				throw new IllegalArgumentException("Unterminated conversion at the end of " + pattern);
+			}
+			char conversion = pattern.charAt(i++);
+			switch (conversion) {
+			case '%':
+				literal.append('%');
+				continue;
+			case 'n':
+				literal.append(System.getProperty("line.separator", "\n"));
+				continue;
+			default:
+				break;
+			}
+			if (literal.length() > 0) {
+				tokens.add(literal.toString());
+				literal.setLength(0);
+			}
+			switch (conversion) {
+			case 'd':
+				String datePattern = DEFAULT_DATE_PATTERN;
+				if (i < length && pattern.charAt(i) == '{') {
+					int end = pattern.indexOf('}', i);
+					if (end < 0) {
+						throw new IllegalArgumentException("Unterminated date pattern in " + pattern);
+					}
+					datePattern = pattern.substring(i + 1, end);
+					i = end + 1;
+				}
+				tokens.add(new DateConverter(datePattern));
+				break;
+			case 'r':
+				tokens.add(new RatioConverter());
+				break;
+			case 'c':
+			case 'p':
+			case 'm':
+				tokens.add(Character.valueOf(conversion));
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown conversion %" + conversion + " in " + pattern);
+			}
+		}
+		if (literal.length() > 0) {
+			tokens.add(literal.toString());
+		}
+
+		List<Converter> converters = new ArrayList<Converter>();
+		for (int t = 0; t < tokens.size(); t++) {
+			Object token = tokens.get(t);
+			if (token instanceof String) {
+				converters.add(new LiteralConverter((String) token));
+			} else if (token instanceof Converter) {
+				converters.add((Converter) token);
+			} else if (((Character) token).charValue() == 'm') {
+				converters.add(new MessageConverter());
+			} else {
+				String prefix = "";
+				int last = converters.size() - 1;
+				if (last >= 0 && converters.get(last) instanceof LiteralConverter) {
+					prefix = ((LiteralConverter) converters.remove(last)).TEXT;
+				}
+				String suffix = "";
+				if (t + 1 < tokens.size() && tokens.get(t + 1) instanceof String) {
+					suffix = (String) tokens.get(++t);
+				}
+				if (((Character) token).charValue() == 'c') {
+					converters.add(new LoggerConverter(prefix, suffix));
+				} else {
+					converters.add(new LevelConverter(prefix, suffix));
+				}
+			}
+		}
+		return converters.toArray(new Converter[converters.size()]);
+	}
+
+	/*
+	 * A compiled part of the pattern.
+	 */
+	private static abstract class Converter {
+		/*
+		 * Appends this part of the log to the buffer.
+		 */
+		abstract void format(Log log, StringBuilder out);
+	}
+
+	/*
+	 * Appends constant text.
+	 */
+	private static final class LiteralConverter extends Converter {
+		/*
+		 * The constant text.
+		 */
+		private final String TEXT;
+
+		LiteralConverter(String text) {
+			this.TEXT = text;
+		}
+
+		@Override
+		void format(Log log, StringBuilder out) {
+			out.append(TEXT);
+		}
+	}
+
+	/*
+	 * Appends the log time.
+	 */
+	private static final class DateConverter extends Converter {
+		/*
+		 * The date format.
+		 */
+		private final CachedDateFormat FORMAT;
+
+		DateConverter(String pattern) {
+			this.FORMAT = new CachedDateFormat(pattern);
+		}
+
+		@Override
+		void format(Log log, StringBuilder out) {
+			FORMAT.formatTo(log.getTimeMillis(), out);
+		}
+	}
+
+	/*
+	 * Appends the logger name with the fused literals, cached per logger.
+	 */
+	private static final class LoggerConverter extends Converter {
+		/*
+		 * The fused literal before the name.
+		 */
+		private final String PREFIX;
+
+		/*
+		 * The fused literal after the name.
+		 */
+		private final String SUFFIX;
+
+		/*
+		 * The fused text of each logger name.
+		 */
+		private final ConcurrentHashMap<String, String> CACHE = new ConcurrentHashMap<String, String>();
+
+		LoggerConverter(String prefix, String suffix) {
+			this.PREFIX = prefix;
+			this.SUFFIX = suffix;
+		}
+
+		@Override
+		void format(Log log, StringBuilder out) {
+			String name = log.getLogger().getName();
+			String text = CACHE.get(name);
+			if (text == null) {
+				text = PREFIX + name + SUFFIX;
+				CACHE.putIfAbsent(name, text);
+			}
+			out.append(text);
+		}
+	}
+
+	/*
+	 * Appends the level name with the fused literals, precomputed per level.
+	 */
+	private static final class LevelConverter extends Converter {
+		/*
+		 * The fused text of each level.
+		 */
+		private final EnumMap<Level, String> TEXT = new EnumMap<Level, String>(Level.class);
+
+		LevelConverter(String prefix, String suffix) {
+			for (Level level : Level.values()) {
+				TEXT.put(level, prefix + level.getName() + suffix);
+			}
+		}
+
+		@Override
+		void format(Log log, StringBuilder out) {
+			out.append(TEXT.get(log.getLevel()));
+		}
+	}
+
+	/*
+	 * Appends the sampling ratio.
+	 */
+	private static final class RatioConverter extends Converter {
+		@Override
+		void format(Log log, StringBuilder out) {
+			out.append(log.getSamplingRatio());
+		}
+	}
+
+	/*
+	 * Appends the log message.
+	 */
+	private static final class MessageConverter extends Converter {
+		@Override
+		void format(Log log, StringBuilder out) {
+			log.appendMessage(out);
+		}
+	}
+}
\ No newline at end of file
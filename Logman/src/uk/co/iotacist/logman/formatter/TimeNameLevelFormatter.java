@@ -1,11 +1,36 @@
+/*
+ * Copyright 2020 Iotacist <iotacist@gmail.com>
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
 package uk.co.iotacist.logman.formatter;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-
 import uk.co.iotacist.logman.Log;
 
-public class TimeNameLevelFormatter implements Formatter {
+/**
+ * The <code>TimeNameLevelFormatter</code> class adds the log time, the
+ * <code>Logger</code> name and the <code>Log</code> level in front of the
+ * <code>Log</code> message.
+ * 
+ * The formatted message is appended straight into the caller supplied buffer.
+ * 
+ * @since 1.1
+ * 
+ * @version 1.2
+ * 
+ * @author Iotacist <iotacist@gmail.com>
+ */
+public class TimeNameLevelFormatter extends AbstractBufferFormatter {
 	/**
 	 * Open bracket character.
 	 */
@@ -24,21 +49,31 @@ public class TimeNameLevelFormatter implements Formatter {
 	/**
 	 * Formats the timestamp to [dd/MM/yyyy HH:mm:ss].
 	 */
-	private SimpleDateFormat formatter;
+	private CachedDateFormat formatter;
 	
 	/**
 	 * Constructs a new <code>TimeNameLevelFormatter</code> instance.
 	 */
 	public TimeNameLevelFormatter() {
-		this.formatter = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
+		this.formatter = new CachedDateFormat("dd/MM/yyyy HH:mm:ss");
 	}
 	
+	/**
+	 * Formats the <code>Log</code> message and appends the log time, the
+	 * <code>Logger</code> name and the <code>Log</code> level to the message.
+	 * 
+	 * @param log - Log instance.
+	 * 
+	 * @param out - Output buffer.
+	 */
 	@Override
-	public String format(Log log) {
-		String time = OPEN_BRACKET + formatter.format(new Date()) + CLOSE_BRACKET;
-		String name = OPEN_BRACKET + log.getLogger().getName() + CLOSE_BRACKET;
-		String level = OPEN_BRACKET + log.getLevel().getName() + CLOSE_BRACKET;
-		String message = SPACE_BAR + log.getMessage().toString();
-		return time + name + level + message;
+	public void formatTo(Log log, StringBuilder out) {
+		out.append(OPEN_BRACKET);
+		formatter.formatTo(log.getTimeMillis(), out);
+		out.append(CLOSE_BRACKET);
+		out.append(OPEN_BRACKET).append(log.getLogger().getName()).append(CLOSE_BRACKET);
+		out.append(OPEN_BRACKET).append(log.getLevel().getName()).append(CLOSE_BRACKET);
+		out.append(SPACE_BAR);
+		log.appendMessage(out);
 	}
 }
\ No newline at end of file
@@ -84,9 +84,9 @@ public class ConcurrentSocketServer implements Runnable {
 	private void openServerSocket() {
 		try {
 			serverSocket = new ServerSocket(serverPort);
-			log.info("Socket server started, accepting traffic on port " + serverPort);
+			log.info("Socket server started, accepting traffic on port {}", serverPort);
 		} catch (IOException e) {
-			log.severe("Cannot open port: " + serverPort, e);
+			log.severe("Cannot open port: {}", serverPort, e);
 			System.exit(1);
 		}
 	}
@@ -124,13 +124,13 @@ public class ConcurrentSocketServer implements Runnable {
 				// Accept traffic on socket.
 				clientSocket = this.serverSocket.accept();
 				id = uuid.generateId(128);
-				log.info(uuid + " connected from " + clientSocket.toString());
+				log.info("{} connected from {}", uuid, clientSocket);
 			} catch (IOException e) {
 				// Break from for loop if isRunning = false.
 				if (!isRunning()) {
 					break;
 				}
-				log.warn("Error accepting client connection" + serverPort, e);
+				log.warn("Error accepting client connection {}", serverPort, e);
 			}
 			// Execute socket handler in the thread pool.
 			serverThreadPool.execute(new ConcurrentSocketHandler(clientSocket, id));
@@ -140,7 +140,7 @@ public class ConcurrentSocketServer implements Runnable {
 			serverThreadPool.shutdown();
 			serverSocket.close();
 		} catch (IOException e) {
-			log.severe("Error closing server: " + serverPort, e);
+			log.severe("Error closing server: {}", serverPort, e);
 			System.exit(1);
 		}
 		log.info("Socket server has been shutdown.");
@@ -142,16 +142,16 @@ public final class UUID {
 				digest = MessageDigest.getInstance(algorithm);
 			} catch (NoSuchAlgorithmException ex0) {
 				try {
-					log.severe("Unable to get instance of [" + algorithm + "], reverting back to [" + DEFAULT_ALGORITHM
-							+ "].", ex0);
+					log.severe("Unable to get instance of [{}], reverting back to [{}].", algorithm, DEFAULT_ALGORITHM,
+							ex0);
 					digest = MessageDigest.getInstance(DEFAULT_ALGORITHM);
 				} catch (NoSuchAlgorithmException ex1) {
 					digest = null;
-					log.severe("Unable to get instance of [" + DEFAULT_ALGORITHM + "], no algorithms for UUID.", ex1);
+					log.severe("Unable to get instance of [{}], no algorithms for UUID.", DEFAULT_ALGORITHM, ex1);
 					throw new IllegalStateException("No algorithms for IdGenerator");
 				}
 			}
-			log.debug("Using MessageDigest: " + digest.getAlgorithm());
+			log.debug("Using MessageDigest: {}", digest.getAlgorithm());
 		}
 		return digest;
 	}